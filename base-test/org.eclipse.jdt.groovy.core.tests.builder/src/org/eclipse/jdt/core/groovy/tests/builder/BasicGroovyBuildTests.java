@@ -25,7 +25,9 @@ import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -619,6 +621,163 @@ public final class BasicGroovyBuildTests extends BuilderTestSuite {
         expectingCompiledClasses("IChooseImportQuery","ISourceRange","NoChoiceQuery","TypeNameMatch");
     }
 
+    @Test
+    public void testJDTClassNode_MembersByNameThenAll() throws Exception {
+        IPath root = createJDTClassNodeProject();
+
+        env.addClass(root, "", "J",
+                "public class J {\n" +
+                "  public int x, y, z;\n" +
+                "  public void a() {}\n" +
+                "  public void b(int i) {}\n" +
+                "  public void b(String s) {}\n" +
+                "}\n");
+        env.addGroovyClass(root, "", "G",
+                "@groovy.transform.CompileStatic\n" +
+                "class G {\n" +
+                "  def m(J j) { j.b(j.x) }\n" +
+                "}\n");
+
+        incrementalBuild();
+        expectingNoProblems();
+
+        JDTClassNode cached = JDTResolver.getCachedNode("J");
+        assertNotNull(cached);
+        // a new node has not made any of its members yet
+        JDTClassNode node = new JDTClassNode(cached.getJdtBinding(), cached.getResolver());
+
+        List<MethodNode> bs = node.getDeclaredMethods("b");
+        assertEquals(2, bs.size());
+        FieldNode z = node.getDeclaredField("z");
+        assertNotNull(z);
+
+        // all members: each once, in binding order, reusing the nodes made by name
+        int n = 0;
+        for (MethodNode mn : node.getMethods()) {
+            if (mn.getName().equals("b")) {
+                assertTrue(mn == bs.get(0) || mn == bs.get(1));
+                n += 1;
+            }
+        }
+        assertEquals(2, n);
+        assertEquals(Arrays.asList("x", "y", "z"), getFieldNames(node));
+        assertTrue(z == node.getFields().get(2));
+        assertTrue(z == node.getDeclaredField("z"));
+        List<MethodNode> all = node.getDeclaredMethods("b");
+        assertEquals(2, all.size());
+        assertTrue(all.containsAll(bs));
+    }
+
+    @Test
+    public void testJDTClassNode_MemberChangesBeforeLookup() throws Exception {
+        assumeTrue(isAtLeastGroovy(24));
+
+        IPath root = createJDTClassNodeProject();
+
+        env.addClass(root, "", "J",
+                "public class J {\n" +
+                "  public int x, y, z;\n" +
+                "  public J() {}\n" +
+                "  public J(int i) {}\n" +
+                "  public void a() {}\n" +
+                "  public void b() {}\n" +
+                "}\n");
+        env.addGroovyClass(root, "", "G",
+                "@groovy.transform.CompileStatic\n" +
+                "class G {\n" +
+                "  def m() { new J(1).a() }\n" +
+                "}\n");
+
+        incrementalBuild();
+        expectingNoProblems();
+
+        JDTClassNode cached = JDTResolver.getCachedNode("J");
+        assertNotNull(cached);
+        JDTClassNode node = new JDTClassNode(cached.getJdtBinding(), cached.getResolver());
+
+        FieldNode w = new FieldNode("w", java.lang.reflect.Modifier.PUBLIC, ClassHelper.int_TYPE, node, null);
+        node.addFieldFirst(w);
+        assertTrue(w == node.getDeclaredField("w"));
+        assertEquals(Arrays.asList("w", "x", "y", "z"), getFieldNames(node));
+
+        node = new JDTClassNode(cached.getJdtBinding(), cached.getResolver());
+        node.removeMethod(node.getDeclaredMethods("a").get(0));
+        assertTrue(node.getDeclaredMethods("a").isEmpty());
+        for (MethodNode mn : node.getMethods()) {
+            assertFalse(mn.getName().equals("a"));
+        }
+
+        node = new JDTClassNode(cached.getJdtBinding(), cached.getResolver());
+        node.removeConstructor(node.getDeclaredConstructors().get(0));
+        assertEquals(1, node.getDeclaredConstructors().size());
+    }
+
+    @Test
+    public void testJDTClassNode_FieldInitializers() throws Exception {
+        IPath root = createJDTClassNodeProject();
+
+        env.addGroovyClass(root, "", "H",
+                "class H {\n" +
+                "  public one = 1\n" +
+                "  public String two = 'two'\n" +
+                "  public List three\n" +
+                "}\n");
+        env.addGroovyClass(root, "", "G",
+                "@groovy.transform.CompileStatic\n" +
+                "class G {\n" +
+                "  def m(H h) { h.two + h.one + h.three }\n" +
+                "}\n");
+
+        incrementalBuild();
+        expectingNoProblems();
+
+        JDTClassNode node = JDTResolver.getCachedNode("H");
+        assertNotNull(node);
+
+        FieldNode two = node.getDeclaredField("two");
+        assertTrue(two.hasInitialExpression());
+        assertEquals("two", two.getInitialExpression().getText());
+        FieldNode three = node.getDeclaredField("three");
+        assertFalse(three.hasInitialExpression());
+
+        // the same nodes, and so the same initializers, once all are made
+        List<String> names = getFieldNames(node);
+        Collections.sort(names);
+        assertEquals(Arrays.asList("one", "three", "two"), names);
+        for (FieldNode fn : node.getFields()) {
+            if (fn.getName().equals("one")) {
+                assertEquals("1", fn.getInitialExpression().getText());
+            } else {
+                assertTrue(fn == (fn.getName().equals("two") ? two : three));
+            }
+        }
+    }
+
+    private IPath createJDTClassNodeProject() throws Exception {
+        IPath projectPath = env.addProject("Project");
+        env.addExternalJars(projectPath, Util.getJavaClassLibs());
+        env.addGroovyJars(projectPath);
+        fullBuild(projectPath);
+        // remove old package fragment root so that names don't collide
+        env.removePackageFragmentRoot(projectPath, "");
+
+        IPath root = env.addPackageFragmentRoot(projectPath, "src");
+        env.setOutputFolder(projectPath, "bin");
+
+        JDTResolver.recordInstances = true;
+        JDTResolver.instances = null;
+
+        return root;
+    }
+
+    private static List<String> getFieldNames(ClassNode node) {
+        List<String> names = new ArrayList<String>();
+        for (FieldNode fn : node.getFields()) {
+            names.add(fn.getName());
+        }
+        return names;
+    }
+
     @Test
     public void testCompileStatic_FileAddAll() throws Exception {
         assumeTrue(isAtLeastGroovy(20));
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.codehaus.jdt.groovy.internal.compiler.ast.ResolutionCache;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.tests.util.Util;
+import org.junit.Test;
+
+/**
+ * Tests that the default import outcomes shared by the resolvers of a project
+ * are kept apart per project and are dropped when types may come or go.
+ */
+public final class ResolutionCacheTests extends BuilderTestSuite {
+
+    private IPath createProject(String name) throws Exception {
+        IPath projectPath = env.addProject(name);
+        env.addExternalJars(projectPath, Util.getJavaClassLibs());
+        env.addGroovyJars(projectPath);
+        fullBuild(projectPath);
+        // remove old package fragment root so that names don't collide
+        env.removePackageFragmentRoot(projectPath, "");
+        IPath root = env.addPackageFragmentRoot(projectPath, "src");
+        env.setOutputFolder(projectPath, "bin");
+        return root;
+    }
+
+    private static ResolutionCache.Entry getEntry(String projectName) {
+        return ResolutionCache.getInstance().getEntry(projectName, ResolutionCache.getGeneration());
+    }
+
+    //--------------------------------------------------------------------------
+
+    @Test
+    public void testEntriesArePerProject() throws Exception {
+        createProject("ProjectA");
+        createProject("ProjectB");
+
+        ResolutionCache.Entry a = getEntry("ProjectA");
+        ResolutionCache.Entry b = getEntry("ProjectB");
+        assertSame(a, getEntry("ProjectA"));
+
+        a.addUnresolvable("java.util.Foo");
+        a.addResolved("List", "java.util.");
+
+        assertTrue(a.isUnresolvable("java.util.Foo"));
+        assertEquals("java.util.", a.getDefaultImport("List"));
+        assertFalse(b.isUnresolvable("java.util.Foo"));
+        assertNull(b.getDefaultImport("List"));
+    }
+
+    @Test
+    public void testUnresolvableDroppedOnClasspathChange() throws Exception {
+        IPath projectAPath = createProject("ProjectA").removeLastSegments(1);
+        IPath projectBPath = createProject("ProjectB").removeLastSegments(1);
+
+        int generation = ResolutionCache.getGeneration();
+        ResolutionCache.Entry entry = getEntry("ProjectA");
+        entry.addUnresolvable("groovy.util.Foo");
+
+        env.addRequiredProject(projectAPath, projectBPath);
+
+        assertTrue(ResolutionCache.getGeneration() != generation);
+        assertNull(ResolutionCache.getInstance().getEntry("ProjectA", generation));
+        assertFalse(getEntry("ProjectA").isUnresolvable("groovy.util.Foo"));
+    }
+
+    @Test
+    public void testResolvedDroppedOnTypeAdded() throws Exception {
+        IPath root = createProject("Project");
+
+        int generation = ResolutionCache.getGeneration();
+        ResolutionCache.Entry entry = getEntry("Project");
+        entry.addResolved("Foo", "java.util.");
+
+        env.addGroovyClass(root, "groovy.util", "Foo", "package groovy.util\nclass Foo {}\n");
+
+        assertTrue(ResolutionCache.getGeneration() != generation);
+        assertNull(ResolutionCache.getInstance().getEntry("Project", generation));
+        assertNull(getEntry("Project").getDefaultImport("Foo"));
+    }
+
+    @Test
+    public void testEntriesKeptOnTypeAddedElsewhere() throws Exception {
+        IPath root = createProject("Project");
+
+        int generation = ResolutionCache.getGeneration();
+        ResolutionCache.Entry entry = getEntry("Project");
+        entry.addUnresolvable("groovy.util.Foo");
+        entry.addResolved("List", "java.util.");
+
+        env.addGroovyClass(root, "p", "Foo", "package p\nclass Foo {}\n");
+
+        assertEquals(generation, ResolutionCache.getGeneration());
+        assertNotNull(ResolutionCache.getInstance().getEntry("Project", generation));
+        assertSame(entry, getEntry("Project"));
+        assertTrue(entry.isUnresolvable("groovy.util.Foo"));
+    }
+}
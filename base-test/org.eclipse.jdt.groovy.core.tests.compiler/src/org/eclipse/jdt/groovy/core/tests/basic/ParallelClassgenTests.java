@@ -0,0 +1,231 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.tests.basic;
+
+import static org.eclipse.jdt.groovy.core.tests.GroovyBundle.isAtLeastGroovy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.messages.Message;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyErrorCollectorForJDT;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compiles the same sources with the classes generated one at a time and in
+ * parallel (see the greclipse.parallelClassgen property) and checks that the
+ * class files and errors are the same, with the sources sharing the error
+ * collector of the unit and with each source having one of its own.
+ */
+public final class ParallelClassgenTests {
+
+    private static final String PARALLEL_CLASSGEN = "greclipse.parallelClassgen";
+
+    @Before
+    public void setUp() {
+        assumeTrue(isAtLeastGroovy(25));
+    }
+
+    @Test
+    public void testSameClasses() {
+        String[] sources = {
+            "p/A.groovy",
+            "package p\n" +
+            "class A {\n" +
+            "  def foo() { [1, 2].collect { it * 2 } }\n" +
+            "  static class Inner { String bar }\n" +
+            "}\n",
+
+            "p/B.groovy",
+            "package p\n" +
+            "class B extends A {\n" +
+            "  def baz(x) { foo() + x }\n" +
+            "}\n",
+
+            "p/C.groovy",
+            "package p\n" +
+            "@groovy.transform.CompileStatic\n" +
+            "class C {\n" +
+            "  Runnable r = { -> println new B().baz([3]) }\n" +
+            "  enum E { ONE, TWO }\n" +
+            "}\n",
+
+            "p/D.groovy",
+            "package p\n" +
+            "new C().r.run()\n" +
+            "assert C.E.values().length == 2\n",
+        };
+
+        for (boolean ownCollectors : new boolean[] {false, true}) {
+            Output sequential = compile(sources, false, ownCollectors);
+            Output parallel = compile(sources, true, ownCollectors);
+
+            assertTrue(sequential.errors.isEmpty());
+            assertEquals(sequential.errors, parallel.errors);
+            assertSameClasses(sequential, parallel);
+        }
+    }
+
+    @Test
+    public void testSameErrors() {
+        String[] sources = {
+            "p/A.groovy",
+            "package p\n" +
+            "class A {\n" +
+            "  def foo() { [1, 2].collect { it * 2 } }\n" +
+            "}\n",
+
+            "p/B.groovy",
+            "package p\n" +
+            "class B {\n" +
+            "  void bar() { return 1 }\n" +
+            "}\n",
+
+            "p/C.groovy",
+            "package p\n" +
+            "class C {\n" +
+            "  void baz() { return 2 }\n" +
+            "}\n",
+        };
+
+        for (boolean ownCollectors : new boolean[] {false, true}) {
+            Output sequential = compile(sources, false, ownCollectors);
+            Output parallel = compile(sources, true, ownCollectors);
+
+            assertFalse(sequential.errors.isEmpty());
+            assertEquals(sequential.errors, parallel.errors);
+            assertSameClasses(sequential, parallel);
+        }
+    }
+
+    @Test
+    public void testSameErrorsForClassesOfOneSource() {
+        String[] sources = {
+            "p/A.groovy",
+            "package p\n" +
+            "class A {\n" +
+            "  void foo() { return 1 }\n" +
+            "  def bar() { [1, 2].collect { it * 2 } }\n" +
+            "}\n" +
+            "class B {\n" +
+            "  void baz() { return 2 }\n" +
+            "  static class Inner { def qux() { { -> 3 } } }\n" +
+            "}\n" +
+            "class C {\n" +
+            "  def quux() { new Object() { String toString() { 'C' } } }\n" +
+            "}\n",
+
+            "p/D.groovy",
+            "package p\n" +
+            "class D {\n" +
+            "  def corge() { { -> new C().quux() } }\n" +
+            "}\n",
+        };
+
+        for (boolean ownCollectors : new boolean[] {false, true}) {
+            Output sequential = compile(sources, false, ownCollectors);
+            for (int i = 0; i < 10; i += 1) {
+                Output parallel = compile(sources, true, ownCollectors);
+
+                assertFalse(sequential.errors.isEmpty());
+                assertEquals(sequential.errors, parallel.errors);
+                assertSameClasses(sequential, parallel);
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static final class Output {
+        final Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+        final List<String> errors = new ArrayList<String>();
+    }
+
+    /**
+     * @param ownCollectors if {@code true}, each source gets an error collector
+     *        of its own, as in {@link org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser GroovyParser}
+     */
+    private static Output compile(String[] sources, boolean parallel, boolean ownCollectors) {
+        CompilationUnit unit;
+        String value = System.getProperty(PARALLEL_CLASSGEN);
+        try {
+            // the compilation unit checks the property when it is created
+            System.setProperty(PARALLEL_CLASSGEN, String.valueOf(parallel));
+            unit = new CompilationUnit();
+        } finally {
+            if (value != null) {
+                System.setProperty(PARALLEL_CLASSGEN, value);
+            } else {
+                System.clearProperty(PARALLEL_CLASSGEN);
+            }
+        }
+        List<ErrorCollector> collectors = new ArrayList<ErrorCollector>();
+        collectors.add(unit.getErrorCollector());
+        for (int i = 0; i < sources.length; i += 2) {
+            if (ownCollectors) {
+                ErrorCollector collector = new GroovyErrorCollectorForJDT(unit.getConfiguration());
+                unit.addSource(new SourceUnit(sources[i], sources[i + 1], unit.getConfiguration(), unit.getClassLoader(), collector));
+                collectors.add(collector);
+            } else {
+                unit.addSource(sources[i], sources[i + 1]);
+            }
+        }
+        try {
+            unit.compile(Phases.CLASS_GENERATION);
+        } catch (CompilationFailedException e) {
+            // errors are compared below
+        }
+
+        Output output = new Output();
+        for (Object gclass : unit.getClasses()) {
+            output.classes.put(((GroovyClass) gclass).getName(), ((GroovyClass) gclass).getBytes());
+        }
+        for (ErrorCollector collector : collectors) {
+            if (collector.hasErrors()) {
+                for (Object error : collector.getErrors()) {
+                    StringWriter writer = new StringWriter();
+                    ((Message) error).write(new PrintWriter(writer));
+                    // leave out any stack trace; it depends on the thread
+                    output.errors.add(writer.toString().split("\\r?\\n")[0]);
+                }
+            }
+        }
+        return output;
+    }
+
+    private static void assertSameClasses(Output expected, Output actual) {
+        assertEquals(new ArrayList<String>(expected.classes.keySet()), new ArrayList<String>(actual.classes.keySet()));
+        for (Map.Entry<String, byte[]> entry : expected.classes.entrySet()) {
+            assertArrayEquals(entry.getKey(), entry.getValue(), actual.classes.get(entry.getKey()));
+        }
+    }
+}
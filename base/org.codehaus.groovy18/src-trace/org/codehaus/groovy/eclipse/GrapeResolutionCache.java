@@ -0,0 +1,305 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import groovy.grape.Grape;
+import groovy.lang.GroovyClassLoader;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Remembers the artifacts that <code>@Grab</code> dependencies resolve to,
+ * by normalized coordinates, so that compiles do not go through Ivy again.
+ * <p>
+ * A reconcile never resolves: dependencies that are not known yet are queued
+ * for a background thread and reconciling carries on without them.  Once the
+ * thread is done, listeners are told so that units can be reconciled again.
+ * Builds resolve unknown dependencies (and retry failed ones) on the spot.
+ * The dependencies a reconcile went on without are available from
+ * {@link #getDeferred()} until the reconcile is over.
+ */
+public class GrapeResolutionCache {
+
+    /**
+     * Told when background resolution of one or more dependencies is done,
+     * whether or not it succeeded.
+     */
+    public interface Listener {
+        void grapesResolved(Collection<String> keys);
+    }
+
+    private static final Map<String, URI[]> RESOLVED = new ConcurrentHashMap<String, URI[]>();
+    private static final Map<String, String> FAILED = new ConcurrentHashMap<String, String>();
+    private static final Set<String> PENDING = Collections.synchronizedSet(new HashSet<String>());
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<Listener>();
+    private static final ThreadLocal<Boolean> RECONCILING = new ThreadLocal<Boolean>();
+    private static final ThreadLocal<List<Map<String, Object>>> DEFERRED = new ThreadLocal<List<Map<String, Object>>>();
+
+    /** Grape (Ivy) is not used by more than one thread at a time */
+    private static final Object IVY_LOCK = new Object();
+
+    private static ExecutorService executor;
+
+    private GrapeResolutionCache() {
+    }
+
+    public static void addListener(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Marks the compiles on the current thread as reconciles (or not).
+     *
+     * @return the previous state, to be passed to {@link #restoreReconciling(boolean)}
+     */
+    public static boolean setReconciling(boolean reconciling) {
+        boolean prev = isReconciling();
+        RECONCILING.set(Boolean.valueOf(reconciling));
+        DEFERRED.remove();
+        return prev;
+    }
+
+    public static void restoreReconciling(boolean prev) {
+        if (prev) {
+            RECONCILING.set(Boolean.TRUE);
+        } else {
+            RECONCILING.remove();
+        }
+        DEFERRED.remove();
+    }
+
+    public static boolean isReconciling() {
+        return Boolean.TRUE.equals(RECONCILING.get());
+    }
+
+    /**
+     * @return the dependencies that the reconcile on the current thread went on
+     *         without because they are still being resolved
+     */
+    public static List<Map<String, Object>> getDeferred() {
+        List<Map<String, Object>> deferred = DEFERRED.get();
+        if (deferred == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(deferred);
+    }
+
+    /**
+     * Forgets all resolved and failed dependencies.
+     */
+    public static void clear() {
+        RESOLVED.clear();
+        FAILED.clear();
+    }
+
+    /**
+     * Stops the background resolution of dependencies; queued ones are dropped.
+     * Another reconcile starts it again.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        PENDING.clear();
+    }
+
+    /**
+     * Adds the artifacts of the dependency to the class loader given by the
+     * "classLoader" argument, like {@link Grape#grab(Map, Map[])}.
+     *
+     * @throws RuntimeException if the dependency cannot be resolved; while
+     *         reconciling, only if an earlier resolution failed
+     */
+    public static void grab(Map<String, Object> args, Map<String, Object> dependency) {
+        Object loader = args.get("classLoader");
+        if (!(loader instanceof GroovyClassLoader)) {
+            Grape.grab(args, dependency);
+            return;
+        }
+
+        String key = toKey(args, dependency);
+        URI[] uris = getResolved(key);
+        GroovyLogManager.manager.getMetrics().cache(TraceCategory.CLASSPATH, "grape resolution", uris != null);
+        if (uris == null) {
+            if (isReconciling()) {
+                String failure = FAILED.get(key);
+                if (failure != null) {
+                    throw new RuntimeException(failure);
+                }
+                resolveLater(key, args, dependency);
+
+                List<Map<String, Object>> deferred = DEFERRED.get();
+                if (deferred == null) {
+                    deferred = new ArrayList<Map<String, Object>>();
+                    DEFERRED.set(deferred);
+                }
+                deferred.add(new HashMap<String, Object>(dependency));
+                return;
+            }
+            uris = resolve(key, args, dependency);
+        }
+
+        for (URI uri : uris) {
+            try {
+                ((GroovyClassLoader) loader).addURL(uri.toURL());
+            } catch (MalformedURLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * @return the dependency and the arguments that affect its resolution as
+     *         a string that does not depend on the order of their entries
+     */
+    static String toKey(Map<String, Object> args, Map<String, Object> dependency) {
+        StringBuilder key = new StringBuilder(normalize(dependency));
+        Map<String, Object> settings = new TreeMap<String, Object>();
+        for (Map.Entry<String, Object> entry : args.entrySet()) {
+            String name = entry.getKey();
+            if (name.equals("classLoader") || name.equals("refObject") || name.equals("calleeDepth")) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (value instanceof Collection<?>) {
+                List<String> values = new ArrayList<String>();
+                for (Object item : (Collection<?>) value) {
+                    values.add(item instanceof Map<?, ?> ? normalize((Map<?, ?>) item) : String.valueOf(item));
+                }
+                Collections.sort(values);
+                value = values;
+            } else if (value instanceof Map<?, ?>) {
+                value = normalize((Map<?, ?>) value);
+            }
+            settings.put(name, value);
+        }
+        if (!settings.isEmpty()) {
+            key.append(settings);
+        }
+        return key.toString();
+    }
+
+    private static String normalize(Map<?, ?> map) {
+        Map<String, String> sorted = new TreeMap<String, String>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                sorted.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()).trim());
+            }
+        }
+        return sorted.toString();
+    }
+
+    private static URI[] getResolved(String key) {
+        URI[] uris = RESOLVED.get(key);
+        if (uris != null) {
+            for (URI uri : uris) {
+                // artifact removed from the local repository
+                if ("file".equals(uri.getScheme()) && !new File(uri).exists()) {
+                    RESOLVED.remove(key);
+                    return null;
+                }
+            }
+        }
+        return uris;
+    }
+
+    private static URI[] resolve(String key, Map<String, Object> args, Map<String, Object> dependency) {
+        synchronized (IVY_LOCK) {
+            URI[] uris = getResolved(key);
+            if (uris == null) {
+                long start = GroovyLogManager.manager.getMetrics().start();
+                try {
+                    uris = Grape.resolve(new HashMap<String, Object>(args), dependency);
+                    if (uris == null) {
+                        uris = new URI[0];
+                    }
+                    RESOLVED.put(key, uris);
+                    FAILED.remove(key);
+                } catch (RuntimeException e) {
+                    FAILED.put(key, String.valueOf(e.getMessage()));
+                    throw e;
+                } finally {
+                    GroovyLogManager.manager.getMetrics().stop(TraceCategory.CLASSPATH, "grape resolution", start);
+                }
+            }
+            return uris;
+        }
+    }
+
+    private static void resolveLater(final String key, Map<String, Object> args, Map<String, Object> dependency) {
+        if (!PENDING.add(key)) {
+            return;
+        }
+        // do not keep the compilation's class loader reachable from the queue
+        final Map<String, Object> resolveArgs = new HashMap<String, Object>(args);
+        resolveArgs.put("classLoader", new GroovyClassLoader(GrapeResolutionCache.class.getClassLoader()));
+        final Map<String, Object> resolveDependency = new HashMap<String, Object>(dependency);
+
+        getExecutor().execute(new Runnable() {
+            public void run() {
+                try {
+                    resolve(key, resolveArgs, resolveDependency);
+                } catch (RuntimeException e) {
+                    // recorded as failed; reported by the next compile
+                } finally {
+                    PENDING.remove(key);
+                }
+                Collection<String> keys = Collections.singleton(key);
+                for (Listener listener : LISTENERS) {
+                    try {
+                        listener.grapesResolved(keys);
+                    } catch (RuntimeException e) {
+                        GroovyLogManager.manager.log(TraceCategory.CLASSPATH, "Grape listener failed: " + e);
+                    }
+                }
+            }
+        });
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Groovy Grape resolution");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+}
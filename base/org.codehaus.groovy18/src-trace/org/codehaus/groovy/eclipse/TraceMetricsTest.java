@@ -0,0 +1,66 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import junit.framework.TestCase;
+
+/**
+ * Simple test to make sure that metrics are recorded only when enabled.
+ */
+public class TraceMetricsTest extends TestCase {
+
+    public void testDisabled() throws Exception {
+        TraceMetrics metrics = new TraceMetrics();
+        metrics.setEnabled(false);
+        metrics.count(TraceCategory.DSL, "x");
+        metrics.cache(TraceCategory.COMPILER, "y", true);
+        assertEquals(0L, metrics.start());
+        metrics.stop(TraceCategory.COMPILER, "z", 0L);
+
+        assertNull(metrics.get(TraceCategory.DSL, "x"));
+        assertNull(metrics.get(TraceCategory.COMPILER, "y"));
+        assertNull(metrics.get(TraceCategory.COMPILER, "z"));
+        assertEquals("{}", metrics.toJSON());
+    }
+
+    public void testEnabled() throws Exception {
+        TraceMetrics metrics = new TraceMetrics();
+        metrics.setEnabled(true);
+        metrics.count(TraceCategory.DSL, "x");
+        metrics.count(TraceCategory.DSL, "x", 4);
+        metrics.cache(TraceCategory.COMPILER, "y", true);
+        metrics.cache(TraceCategory.COMPILER, "y", false);
+        metrics.time(TraceCategory.COMPILER, "z", 3000);
+        metrics.time(TraceCategory.COMPILER, "z", 1000);
+
+        assertEquals(2, metrics.get(TraceCategory.DSL, "x").getCount());
+        assertEquals(5, metrics.get(TraceCategory.DSL, "x").getTotal());
+        assertEquals(2, metrics.get(TraceCategory.COMPILER, "y").getCount());
+        assertEquals(1, metrics.get(TraceCategory.COMPILER, "y").getTotal());
+        assertEquals(4000, metrics.get(TraceCategory.COMPILER, "z").getTotal());
+        assertEquals(3000, metrics.get(TraceCategory.COMPILER, "z").getMax());
+        assertEquals(1, metrics.get(TraceCategory.COMPILER, "z").getHistogram(1));
+        assertEquals(1, metrics.get(TraceCategory.COMPILER, "z").getHistogram(2));
+
+        assertEquals("{\"Compiler\":{" +
+            "\"y\":{\"kind\":\"cache\",\"count\":2,\"hits\":1}," +
+            "\"z\":{\"kind\":\"timer\",\"count\":2,\"totalNanos\":4000,\"maxNanos\":3000,\"histogramMicros\":[0,1,1]}}," +
+            "\"DSL\":{\"x\":{\"kind\":\"counter\",\"count\":2,\"total\":5}}}", metrics.toJSON());
+
+        metrics.reset();
+        assertEquals("{}", metrics.toJSON());
+    }
+}
@@ -23,6 +23,7 @@ import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.WarningMessage;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.eclipse.TransformServiceCache;
 import org.codehaus.groovy.syntax.SyntaxException;
 import org.codehaus.groovy.GroovyException;
 
@@ -133,6 +134,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     // GRECLIPSE add
                 	try {
                 		long stime = System.nanoTime();
+                		long sbytes = GroovyLogManager.manager.getTransformProfiler().allocatedBytes();
                 		boolean okToSet = source!=null && source.getErrorCollector()!=null;
                 		try {
                 			if (okToSet) {
@@ -147,6 +149,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime(); 
+                		GroovyLogManager.manager.getTransformProfiler().record(snt.getClass().getName(), phase.name(), etime - stime, sbytes);
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
 	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
@@ -235,9 +238,13 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         Map<String, URL> transformNames = new LinkedHashMap<String, URL>();
         try {
-            Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
-            while (globalServices.hasMoreElements()) {
-                URL service = globalServices.nextElement();
+            // GRECLIPSE edit -- service files are cached per transform loader classpath
+            //Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
+            //while (globalServices.hasMoreElements()) {
+            //    URL service = globalServices.nextElement();
+            for (TransformServiceCache.Service cachedService : TransformServiceCache.getServices(transformLoader)) {
+                URL service = cachedService.url;
+            // GRECLIPSE end
                 String className;
                 BufferedReader svcIn = null;
                 try {
@@ -256,7 +263,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
 //                	t.printStackTrace();
 //                }
                 // end
-                    svcIn = new BufferedReader(new InputStreamReader(service.openStream()));
+                    svcIn = new BufferedReader(new InputStreamReader(cachedService.openStream() /*GRECLIPSE edit: service.openStream()*/));
                     try {
                         className = svcIn.readLine();
                     } catch (IOException ioe) {
@@ -376,7 +383,14 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         for (Map.Entry<String, URL> entry : transformNames.entrySet()) {
             try {
-                Class gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                // GRECLIPSE edit
+                //Class gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                Class gTransClass = TransformServiceCache.getTransformClass(transformLoader, entry.getKey());
+                if (gTransClass == null) {
+                    gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                    TransformServiceCache.putTransformClass(transformLoader, entry.getKey(), gTransClass);
+                }
+                // GRECLIPSE end
                 //no inspection unchecked
                 GroovyASTTransformation transformAnnotation = (GroovyASTTransformation) gTransClass.getAnnotation(GroovyASTTransformation.class);
                 if (transformAnnotation == null) {
@@ -391,6 +405,9 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 }
                 if (ASTTransformation.class.isAssignableFrom(gTransClass)) {
                 	try {
+                    // GRECLIPSE add
+                    final CompilePhase transformPhase = transformAnnotation.phase();
+                    // GRECLIPSE end
                     final ASTTransformation instance = (ASTTransformation)gTransClass.newInstance();
                     CompilationUnit.SourceUnitOperation suOp = new CompilationUnit.SourceUnitOperation() {
                 		// GRECLIPSE: start
@@ -402,6 +419,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                         	try { 
                               // end
                             long stime = System.nanoTime();
+                            long sbytes = GroovyLogManager.manager.getTransformProfiler().allocatedBytes();
                             boolean okToSet = source!=null && source.getErrorCollector()!=null;
 
                     		try {
@@ -415,6 +433,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime(); 
+                            GroovyLogManager.manager.getTransformProfiler().record(instance.getClass().getName(), transformPhase.name(), etime - stime, sbytes);
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
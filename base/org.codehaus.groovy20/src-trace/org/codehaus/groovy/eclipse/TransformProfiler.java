@@ -0,0 +1,341 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the cost of running each AST transform, per project, per kind of
+ * compile (build or reconcile) and per compile phase.  Records are kept only
+ * while {@link TraceMetrics} are enabled.
+ * <pre>
+ * long start = System.nanoTime(), bytes = profiler.allocatedBytes();
+ * transform.visit(nodes, source);
+ * profiler.record(transform.getClass().getName(), phase.name(), System.nanoTime() - start, bytes);
+ * </pre>
+ * Allocations are measured on JVMs whose thread bean reports allocated bytes
+ * per thread; elsewhere they are reported as -1.
+ */
+public class TransformProfiler {
+
+    /**
+     * Identifies one row of the profile.
+     */
+    public static class Key {
+        public final String project;
+        public final boolean reconcile;
+        public final String phase;
+        public final String transform;
+
+        Key(String project, boolean reconcile, String phase, String transform) {
+            this.project = project;
+            this.reconcile = reconcile;
+            this.phase = phase;
+            this.transform = transform;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return this.reconcile == that.reconcile && this.project.equals(that.project) &&
+                this.phase.equals(that.phase) && this.transform.equals(that.transform);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = project.hashCode();
+            h = 31 * h + phase.hashCode();
+            h = 31 * h + transform.hashCode();
+            return reconcile ? ~h : h;
+        }
+
+        @Override
+        public String toString() {
+            return project + (reconcile ? " (reconcile) " : " (build) ") + phase + " " + transform;
+        }
+    }
+
+    /**
+     * Cost of the runs of one transform for one key.
+     */
+    public static class Profile {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+
+        void record(long nanos, long bytes) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long prev;
+            while (nanos > (prev = maxNanos.get()) && !maxNanos.compareAndSet(prev, nanos)) {
+            }
+            if (bytes < 0 || allocatedBytes.get() < 0) {
+                allocatedBytes.set(-1);
+            } else {
+                allocatedBytes.addAndGet(bytes);
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.get();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /** @return bytes allocated by the transform or -1 if unknown */
+        public long getAllocatedBytes() {
+            return allocatedBytes.get();
+        }
+    }
+
+    private static class Context {
+        final String project;
+        final boolean reconcile;
+
+        Context(String project, boolean reconcile) {
+            this.project = project;
+            this.reconcile = reconcile;
+        }
+    }
+
+    private static final Context NO_CONTEXT = new Context("", false);
+
+    private static final Object THREADS;
+    private static final Method ALLOCATED_BYTES;
+    static {
+        Object threads = null;
+        Method method = null;
+        try {
+            // com.sun.management.ThreadMXBean is not available on every JVM
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean", false, null);
+            threads = ManagementFactory.getThreadMXBean();
+            if (type.isInstance(threads) &&
+                    Boolean.TRUE.equals(type.getMethod("isThreadAllocatedMemorySupported").invoke(threads)) &&
+                    Boolean.TRUE.equals(type.getMethod("isThreadAllocatedMemoryEnabled").invoke(threads))) {
+                method = type.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (Throwable t) {
+            method = null;
+        }
+        THREADS = threads;
+        ALLOCATED_BYTES = method;
+    }
+
+    private final TraceMetrics metrics;
+
+    private final ConcurrentMap<Key, Profile> profiles = new ConcurrentHashMap<Key, Profile>();
+
+    private final ThreadLocal<Context> context = new ThreadLocal<Context>();
+
+    TransformProfiler(TraceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public boolean isEnabled() {
+        return metrics.isEnabled();
+    }
+
+    /**
+     * Sets the project and kind of compile that transforms run on the current
+     * thread are recorded against.
+     *
+     * @return the previous context, to be passed to {@link #restoreContext(Object)}
+     */
+    public Object setContext(String project, boolean reconcile) {
+        Object prev = context.get();
+        context.set(new Context(project != null ? project : "", reconcile));
+        return prev;
+    }
+
+    public void restoreContext(Object prev) {
+        if (prev == null) {
+            context.remove();
+        } else {
+            context.set((Context) prev);
+        }
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread or -1 if unknown or
+     *         if profiling is disabled
+     */
+    public long allocatedBytes() {
+        if (ALLOCATED_BYTES != null && isEnabled()) {
+            try {
+                return ((Long) ALLOCATED_BYTES.invoke(THREADS, Thread.currentThread().getId())).longValue();
+            } catch (Exception e) {
+                // fall through
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Records one run of a transform.
+     *
+     * @param startBytes result of {@link #allocatedBytes()} before the run
+     */
+    public void record(String transform, String phase, long nanos, long startBytes) {
+        if (isEnabled()) {
+            long bytes = -1L;
+            if (startBytes >= 0) {
+                long endBytes = allocatedBytes();
+                if (endBytes >= 0) {
+                    bytes = endBytes - startBytes;
+                }
+            }
+            Context ctx = context.get();
+            if (ctx == null) ctx = NO_CONTEXT;
+            Key key = new Key(ctx.project, ctx.reconcile, phase, transform);
+            Profile profile = profiles.get(key);
+            if (profile == null) {
+                Profile race = profiles.putIfAbsent(key, profile = new Profile());
+                if (race != null) {
+                    profile = race;
+                }
+            }
+            profile.record(nanos, bytes);
+        }
+    }
+
+    /**
+     * @return snapshot of the profiles recorded since the last reset
+     */
+    public Map<Key, Profile> getProfiles() {
+        return Collections.unmodifiableMap(new HashMap<Key, Profile>(profiles));
+    }
+
+    /**
+     * @return per-transform profiles summed over projects, compile kinds and phases
+     */
+    public Map<String, Profile> getProfilesByTransform() {
+        Map<String, Profile> byTransform = new HashMap<String, Profile>();
+        for (Map.Entry<Key, Profile> entry : profiles.entrySet()) {
+            Profile sum = byTransform.get(entry.getKey().transform);
+            if (sum == null) {
+                byTransform.put(entry.getKey().transform, sum = new Profile());
+            }
+            Profile one = entry.getValue();
+            sum.count.addAndGet(one.getCount());
+            sum.totalNanos.addAndGet(one.getTotalNanos());
+            if (one.getMaxNanos() > sum.maxNanos.get()) {
+                sum.maxNanos.set(one.getMaxNanos());
+            }
+            if (one.getAllocatedBytes() < 0 || sum.allocatedBytes.get() < 0) {
+                sum.allocatedBytes.set(-1);
+            } else {
+                sum.allocatedBytes.addAndGet(one.getAllocatedBytes());
+            }
+        }
+        return byTransform;
+    }
+
+    public void reset() {
+        profiles.clear();
+    }
+
+    //--------------------------------------------------------------------------
+
+    public String toReport() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeReport(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the profiles as tab-separated lines, most expensive first: a
+     * summary per transform and then the rows per project, kind and phase.
+     * Times are in microseconds.
+     */
+    public void writeReport(Writer out) throws IOException {
+        out.write("transform\tcalls\ttotal us\tmax us\tallocated bytes\n");
+        List<Map.Entry<String, Profile>> byTransform = new ArrayList<Map.Entry<String, Profile>>(getProfilesByTransform().entrySet());
+        Collections.sort(byTransform, new Comparator<Map.Entry<String, Profile>>() {
+            public int compare(Map.Entry<String, Profile> e1, Map.Entry<String, Profile> e2) {
+                return compareTotals(e1.getValue(), e2.getValue());
+            }
+        });
+        for (Map.Entry<String, Profile> entry : byTransform) {
+            out.write(entry.getKey());
+            writeProfile(entry.getValue(), out);
+        }
+
+        out.write("\nproject\tkind\tphase\ttransform\tcalls\ttotal us\tmax us\tallocated bytes\n");
+        List<Map.Entry<Key, Profile>> byKey = new ArrayList<Map.Entry<Key, Profile>>(getProfiles().entrySet());
+        Collections.sort(byKey, new Comparator<Map.Entry<Key, Profile>>() {
+            public int compare(Map.Entry<Key, Profile> e1, Map.Entry<Key, Profile> e2) {
+                return compareTotals(e1.getValue(), e2.getValue());
+            }
+        });
+        for (Map.Entry<Key, Profile> entry : byKey) {
+            Key key = entry.getKey();
+            out.write(key.project + '\t' + (key.reconcile ? "reconcile" : "build") + '\t' + key.phase + '\t' + key.transform);
+            writeProfile(entry.getValue(), out);
+        }
+    }
+
+    /**
+     * Writes the report to the given file (UTF-8), replacing its contents.
+     */
+    public void dump(File file) throws IOException {
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writeReport(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static int compareTotals(Profile p1, Profile p2) {
+        long t1 = p1.getTotalNanos(), t2 = p2.getTotalNanos();
+        return (t1 > t2 ? -1 : (t1 == t2 ? 0 : 1));
+    }
+
+    private static void writeProfile(Profile profile, Writer out) throws IOException {
+        out.write("\t" + profile.getCount() + '\t' + (profile.getTotalNanos() / 1000) + '\t' +
+            (profile.getMaxNanos() / 1000) + '\t' + profile.getAllocatedBytes() + '\n');
+    }
+}
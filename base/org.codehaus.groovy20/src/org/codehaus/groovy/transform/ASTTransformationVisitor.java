@@ -26,7 +26,6 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -54,6 +53,7 @@ import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.WarningMessage;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.eclipse.TransformServiceCache;
 import org.codehaus.groovy.syntax.SyntaxException;
 /**
  * This class handles the invocation of the ASTAnnotationTransformation
@@ -158,6 +158,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 for (ASTTransformation snt : transforms.get(node[0])) {
                 	try {
                 		long stime = System.nanoTime();
+                		long sbytes = GroovyLogManager.manager.getTransformProfiler().allocatedBytes();
                 		boolean okToSet = source!=null && source.getErrorCollector()!=null;
                 		try {
                 			if (okToSet) {
@@ -173,6 +174,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime();
+                		GroovyLogManager.manager.getTransformProfiler().record(snt.getClass().getName(), phase.name(), etime - stime, sbytes);
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
 	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
@@ -263,9 +265,13 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         Map<String, URL> transformNames = new LinkedHashMap<String, URL>();
         try {
-            Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
-            while (globalServices.hasMoreElements()) {
-                URL service = globalServices.nextElement();
+            // GRECLIPSE edit -- service files are cached per transform loader classpath
+            //Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
+            //while (globalServices.hasMoreElements()) {
+            //    URL service = globalServices.nextElement();
+            for (TransformServiceCache.Service cachedService : TransformServiceCache.getServices(transformLoader)) {
+                URL service = cachedService.url;
+            // GRECLIPSE end
                 String className;
 
                 // GRECLIPSE: start: don't consume our own META-INF entries - bit of a hack...
@@ -290,7 +296,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 // now
 
            		BufferedReader svcIn = null;
-                InputStream is = service.openStream();
+                InputStream is = cachedService.openStream() /*GRECLIPSE edit: service.openStream()*/;
                 try {
 	                svcIn = new BufferedReader(new InputStreamReader(is));
  	               // end
@@ -421,7 +427,14 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         for (Map.Entry<String, URL> entry : transformNames.entrySet()) {
             try {
-                Class gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                // GRECLIPSE edit
+                //Class gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                Class gTransClass = TransformServiceCache.getTransformClass(transformLoader, entry.getKey());
+                if (gTransClass == null) {
+                    gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                    TransformServiceCache.putTransformClass(transformLoader, entry.getKey(), gTransClass);
+                }
+                // GRECLIPSE end
                 //no inspection unchecked
                 GroovyASTTransformation transformAnnotation = (GroovyASTTransformation) gTransClass.getAnnotation(GroovyASTTransformation.class);
                 if (transformAnnotation == null) {
@@ -436,6 +449,9 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 }
                 if (ASTTransformation.class.isAssignableFrom(gTransClass)) {
                 	try {
+                	// GRECLIPSE add
+                	final CompilePhase transformPhase = transformAnnotation.phase();
+                	// GRECLIPSE end
                 	final ASTTransformation instance = (ASTTransformation)gTransClass.newInstance();
                 	if (instance instanceof CompilationUnitAware) {
                         ((CompilationUnitAware)instance).setCompilationUnit(compilationUnit);
@@ -450,6 +466,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                         	try {
                               // end
                             long stime = System.nanoTime();
+                            long sbytes = GroovyLogManager.manager.getTransformProfiler().allocatedBytes();
                             boolean okToSet = source!=null && source.getErrorCollector()!=null;
 
                     		try {
@@ -463,6 +480,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime();
+                            GroovyLogManager.manager.getTransformProfiler().record(instance.getClass().getName(), transformPhase.name(), etime - stime, sbytes);
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
@@ -43,6 +43,7 @@ import org.codehaus.groovy.ast.stmt.Statement;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilePhase;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.eclipse.GrapeResolutionCache;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.tools.GrapeUtil;
 import org.codehaus.groovy.transform.ASTTransformation;
@@ -332,7 +333,7 @@ public class GrabAnnotationTransformation extends ClassCodeVisitorSupport implem
         	Map<String,Object>[] grabMapsAsMapArray = grabMaps.toArray(new Map[grabMaps.size()]);
         	for (int i=0;i<grabMapsAsMapArray.length;i++) {
 	            try {
-	           		Grape.grab(new HashMap<String,Object>(basicArgs),grabMapsAsMapArray[i]);
+	           		GrapeResolutionCache.grab(new HashMap<String,Object>(basicArgs),grabMapsAsMapArray[i]);
 	                // grab may have added more transformations through new URLs added to classpath, so do one more scan
 	                if (compilationUnit!=null) {
 	                    ASTTransformationVisitor.addGlobalTransformsAfterGrab(compilationUnit.getASTTransformationsContext());
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Simple test to make sure that grab coordinates are normalized and that the
+ * reconciling state is kept per thread.
+ */
+public class GrapeResolutionCacheTest extends TestCase {
+
+    public void testKey() throws Exception {
+        Map<String, Object> dep1 = new LinkedHashMap<String, Object>();
+        dep1.put("group", "org.example");
+        dep1.put("module", "lib");
+        dep1.put("version", "1.0 ");
+        Map<String, Object> dep2 = new LinkedHashMap<String, Object>();
+        dep2.put("version", "1.0");
+        dep2.put("module", "lib");
+        dep2.put("group", "org.example");
+        dep2.put("classifier", null);
+
+        Map<String, Object> args1 = new HashMap<String, Object>();
+        args1.put("classLoader", new Object());
+        Map<String, Object> args2 = new HashMap<String, Object>();
+        args2.put("classLoader", new Object());
+        assertEquals(GrapeResolutionCache.toKey(args1, dep1), GrapeResolutionCache.toKey(args2, dep2));
+
+        Map<String, Object> ex1 = new HashMap<String, Object>();
+        ex1.put("group", "a");
+        ex1.put("module", "b");
+        Map<String, Object> ex2 = new HashMap<String, Object>();
+        ex2.put("group", "c");
+        ex2.put("module", "d");
+        args1.put("excludes", Arrays.asList(ex1, ex2));
+        args2.put("excludes", Arrays.asList(ex2, ex1));
+        assertEquals(GrapeResolutionCache.toKey(args1, dep1), GrapeResolutionCache.toKey(args2, dep2));
+
+        args2.put("autoDownload", Boolean.FALSE);
+        assertFalse(GrapeResolutionCache.toKey(args1, dep1).equals(GrapeResolutionCache.toKey(args2, dep2)));
+
+        dep2.put("version", "2.0");
+        args2.remove("autoDownload");
+        assertFalse(GrapeResolutionCache.toKey(args1, dep1).equals(GrapeResolutionCache.toKey(args2, dep2)));
+    }
+
+    public void testReconciling() throws Exception {
+        assertFalse(GrapeResolutionCache.isReconciling());
+        boolean prev = GrapeResolutionCache.setReconciling(true);
+        try {
+            assertTrue(GrapeResolutionCache.isReconciling());
+            final boolean[] other = new boolean[1];
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    other[0] = GrapeResolutionCache.isReconciling();
+                }
+            };
+            thread.start();
+            thread.join();
+            assertFalse(other[0]);
+        } finally {
+            GrapeResolutionCache.restoreReconciling(prev);
+        }
+        assertFalse(GrapeResolutionCache.isReconciling());
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records counters, timers and cache hit rates per {@link TraceCategory}.
+ * <p>
+ * While disabled, every recording method returns after reading a single
+ * volatile field, so calls can stay on hot paths.  Pass constant metric names
+ * (never build them with string concatenation) to keep the disabled case free.
+ * <pre>
+ * long start = metrics.start();
+ * ...
+ * metrics.stop(TraceCategory.COMPILER, "parse", start);
+ * </pre>
+ * Enabled by the system property <code>greclipse.metrics</code> or by
+ * {@link #setEnabled(boolean)}.
+ */
+public class TraceMetrics {
+
+    public enum Kind {
+        COUNTER, TIMER, CACHE
+    }
+
+    /**
+     * A single named metric.  Timers keep a histogram of elapsed microseconds
+     * in power-of-two buckets; caches keep lookups in count and hits in total.
+     */
+    public static class Metric {
+        public static final int BUCKETS = 32;
+
+        public final Kind kind;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray histogram;
+
+        Metric(Kind kind) {
+            this.kind = kind;
+            this.histogram = (kind == Kind.TIMER ? new AtomicLongArray(BUCKETS) : null);
+        }
+
+        void record(long value) {
+            count.incrementAndGet();
+            total.addAndGet(value);
+            if (kind == Kind.TIMER) {
+                long prev;
+                while (value > (prev = max.get()) && !max.compareAndSet(prev, value)) {
+                }
+                histogram.incrementAndGet(bucket(value / 1000));
+            }
+        }
+
+        static int bucket(long micros) {
+            return micros <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        }
+
+        /** number of increments, timings or cache lookups */
+        public long getCount() {
+            return count.get();
+        }
+
+        /** sum of increments, elapsed nanoseconds or cache hits */
+        public long getTotal() {
+            return total.get();
+        }
+
+        /** longest elapsed nanoseconds (timers only) */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * @return number of timings whose elapsed microseconds fall in
+         *         [2^(bucket-1), 2^bucket); bucket 0 holds timings under 1us
+         */
+        public long getHistogram(int bucket) {
+            return histogram != null ? histogram.get(bucket) : 0;
+        }
+    }
+
+    private volatile boolean enabled = Boolean.getBoolean("greclipse.metrics");
+
+    private final Map<TraceCategory, ConcurrentMap<String, Metric>> metrics =
+        new EnumMap<TraceCategory, ConcurrentMap<String, Metric>>(TraceCategory.class);
+
+    TraceMetrics() {
+        for (TraceCategory category : TraceCategory.values()) {
+            metrics.put(category, new ConcurrentHashMap<String, Metric>());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Increments the named counter by one.
+     */
+    public void count(TraceCategory category, String name) {
+        if (enabled) {
+            metric(category, name, Kind.COUNTER).record(1);
+        }
+    }
+
+    /**
+     * Increments the named counter by the given amount.
+     */
+    public void count(TraceCategory category, String name, long delta) {
+        if (enabled) {
+            metric(category, name, Kind.COUNTER).record(delta);
+        }
+    }
+
+    /**
+     * @return start time to pass to {@link #stop(TraceCategory, String, long)}
+     *         or 0 if metrics are disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the time elapsed since the given start time in the named timer.
+     */
+    public void stop(TraceCategory category, String name, long start) {
+        if (start != 0L && enabled) {
+            time(category, name, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records an elapsed time in the named timer.
+     */
+    public void time(TraceCategory category, String name, long nanos) {
+        if (enabled) {
+            metric(category, name, Kind.TIMER).record(nanos);
+        }
+    }
+
+    /**
+     * Records a lookup in the named cache.
+     */
+    public void cache(TraceCategory category, String name, boolean hit) {
+        if (enabled) {
+            metric(category, name, Kind.CACHE).record(hit ? 1 : 0);
+        }
+    }
+
+    /**
+     * @return the named metric or {@code null} if nothing has been recorded
+     */
+    public Metric get(TraceCategory category, String name) {
+        return metrics.get(category).get(name);
+    }
+
+    public void reset() {
+        for (ConcurrentMap<String, Metric> map : metrics.values()) {
+            map.clear();
+        }
+    }
+
+    private Metric metric(TraceCategory category, String name, Kind kind) {
+        ConcurrentMap<String, Metric> map = metrics.get(category);
+        Metric metric = map.get(name);
+        if (metric == null) {
+            Metric race = map.putIfAbsent(name, metric = new Metric(kind));
+            if (race != null) {
+                metric = race;
+            }
+        }
+        return metric;
+    }
+
+    //--------------------------------------------------------------------------
+
+    public String toJSON() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJSON(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes all recorded metrics as one JSON object keyed by category label
+     * and then metric name.  Times are in nanoseconds.
+     */
+    public void writeJSON(Writer out) throws IOException {
+        out.write('{');
+        boolean firstCategory = true;
+        for (Map.Entry<TraceCategory, ConcurrentMap<String, Metric>> entry : metrics.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            if (!firstCategory) out.write(',');
+            firstCategory = false;
+            out.write('"'); escape(entry.getKey().label, out); out.write("\":{");
+
+            boolean firstMetric = true;
+            for (Map.Entry<String, Metric> named : new TreeMap<String, Metric>(entry.getValue()).entrySet()) {
+                Metric metric = named.getValue();
+                if (!firstMetric) out.write(',');
+                firstMetric = false;
+                out.write('"'); escape(named.getKey(), out); out.write("\":{");
+                out.write("\"kind\":\"" + metric.kind.name().toLowerCase() + "\"");
+                out.write(",\"count\":" + metric.getCount());
+                switch (metric.kind) {
+                case COUNTER:
+                    out.write(",\"total\":" + metric.getTotal());
+                    break;
+                case CACHE:
+                    out.write(",\"hits\":" + metric.getTotal());
+                    break;
+                case TIMER:
+                    out.write(",\"totalNanos\":" + metric.getTotal());
+                    out.write(",\"maxNanos\":" + metric.getMax());
+                    out.write(",\"histogramMicros\":[");
+                    int last = Metric.BUCKETS - 1;
+                    while (last > 0 && metric.getHistogram(last) == 0) last -= 1;
+                    for (int i = 0; i <= last; i += 1) {
+                        if (i > 0) out.write(',');
+                        out.write(String.valueOf(metric.getHistogram(i)));
+                    }
+                    out.write(']');
+                    break;
+                }
+                out.write('}');
+            }
+            out.write('}');
+        }
+        out.write('}');
+    }
+
+    private static void escape(String s, Writer out) throws IOException {
+        for (int i = 0, n = s.length(); i < n; i += 1) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < ' ') {
+                String hex = Integer.toHexString(c);
+                out.write("\\u0000".substring(0, 6 - hex.length()) + hex);
+            } else {
+                out.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Simple test to make sure that transform runs are aggregated per context.
+ */
+public class TransformProfilerTest extends TestCase {
+
+    public void testDisabled() throws Exception {
+        TraceMetrics metrics = new TraceMetrics();
+        metrics.setEnabled(false);
+        TransformProfiler profiler = new TransformProfiler(metrics);
+        assertEquals(-1L, profiler.allocatedBytes());
+        profiler.record("T", "CONVERSION", 1000, -1);
+        assertTrue(profiler.getProfiles().isEmpty());
+    }
+
+    public void testEnabled() throws Exception {
+        TraceMetrics metrics = new TraceMetrics();
+        metrics.setEnabled(true);
+        TransformProfiler profiler = new TransformProfiler(metrics);
+
+        Object prev = profiler.setContext("P", true);
+        try {
+            profiler.record("T", "CONVERSION", 3000, -1);
+            profiler.record("T", "CONVERSION", 1000, -1);
+            profiler.record("T", "CANONICALIZATION", 5000, -1);
+        } finally {
+            profiler.restoreContext(prev);
+        }
+        profiler.record("U", "CONVERSION", 2000, -1);
+
+        Map<TransformProfiler.Key, TransformProfiler.Profile> profiles = profiler.getProfiles();
+        assertEquals(3, profiles.size());
+        for (Map.Entry<TransformProfiler.Key, TransformProfiler.Profile> entry : profiles.entrySet()) {
+            TransformProfiler.Key key = entry.getKey();
+            if (key.transform.equals("U")) {
+                assertEquals("", key.project);
+                assertFalse(key.reconcile);
+            } else {
+                assertEquals("P", key.project);
+                assertTrue(key.reconcile);
+                if (key.phase.equals("CONVERSION")) {
+                    assertEquals(2, entry.getValue().getCount());
+                    assertEquals(4000, entry.getValue().getTotalNanos());
+                    assertEquals(3000, entry.getValue().getMaxNanos());
+                    assertEquals(-1, entry.getValue().getAllocatedBytes());
+                }
+            }
+        }
+
+        TransformProfiler.Profile t = profiler.getProfilesByTransform().get("T");
+        assertEquals(3, t.getCount());
+        assertEquals(9000, t.getTotalNanos());
+        assertEquals(5000, t.getMaxNanos());
+
+        String report = profiler.toReport();
+        assertTrue(report, report.indexOf("T\t3\t9\t5\t-1\n") > 0);
+        assertTrue(report, report.indexOf("P\treconcile\tCANONICALIZATION\tT\t1\t5\t5\t-1\n") > 0);
+        assertTrue(report, report.indexOf("T\t3") < report.indexOf("U\t1"));
+
+        profiler.reset();
+        assertTrue(profiler.getProfiles().isEmpty());
+    }
+
+    public void testAllocatedBytes() throws Exception {
+        TraceMetrics metrics = new TraceMetrics();
+        metrics.setEnabled(true);
+        TransformProfiler profiler = new TransformProfiler(metrics);
+
+        long bytes = profiler.allocatedBytes();
+        if (bytes >= 0) {
+            byte[][] garbage = new byte[16][];
+            for (int i = 0; i < garbage.length; i += 1) {
+                garbage[i] = new byte[1024];
+            }
+            profiler.record("T", "CONVERSION", 1, bytes);
+            assertTrue(profiler.getProfilesByTransform().get("T").getAllocatedBytes() >= 16 * 1024);
+        }
+    }
+}
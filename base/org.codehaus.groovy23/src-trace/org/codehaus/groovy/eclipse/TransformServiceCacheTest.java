@@ -0,0 +1,165 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+/**
+ * Simple test to make sure that service files are found once per loader and
+ * found again only for new or changed classpath entries.
+ */
+public class TransformServiceCacheTest extends TestCase {
+
+    private static class Loader extends URLClassLoader {
+        Loader(URL... urls) {
+            super(urls, null);
+        }
+
+        @Override
+        public void addURL(URL url) {
+            super.addURL(url);
+        }
+    }
+
+    private File root;
+
+    @Override
+    protected void setUp() throws Exception {
+        root = File.createTempFile("services", "");
+        root.delete();
+        root.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(root);
+    }
+
+    public void testUnchangedClasspath() throws Exception {
+        Loader loader = new Loader(jar("a.jar", "p.A"), dir("b", "p.B"));
+        List<TransformServiceCache.Service> services = TransformServiceCache.getServices(loader);
+        assertEquals(2, services.size());
+        assertEquals("p.A\n", read(services.get(0)));
+        assertEquals("p.B\n", read(services.get(1)));
+
+        assertSame(services, TransformServiceCache.getServices(loader));
+    }
+
+    public void testAppendedClasspath() throws Exception {
+        Loader loader = new Loader(jar("a.jar", "p.A"));
+        List<TransformServiceCache.Service> services = TransformServiceCache.getServices(loader);
+        assertEquals(1, services.size());
+
+        loader.addURL(jar("c.jar", "p.C"));
+        loader.addURL(jar("d.jar", null));
+        List<TransformServiceCache.Service> updated = TransformServiceCache.getServices(loader);
+        assertEquals(2, updated.size());
+        assertSame(services.get(0), updated.get(0));
+        assertEquals("p.C\n", read(updated.get(1)));
+
+        // same form as the class loader would give
+        List<URL> urls = Collections.list(loader.findResources(TransformServiceCache.SERVICE_NAME));
+        assertEquals(urls.get(1).toExternalForm(), updated.get(1).url.toExternalForm());
+    }
+
+    public void testChangedDirectory() throws Exception {
+        Loader loader = new Loader(dir("b", null));
+        assertTrue(TransformServiceCache.getServices(loader).isEmpty());
+        assertTrue(TransformServiceCache.getServices(loader).isEmpty());
+
+        dir("b", "p.B");
+        List<TransformServiceCache.Service> services = TransformServiceCache.getServices(loader);
+        assertEquals(1, services.size());
+        assertEquals("p.B\n", read(services.get(0)));
+    }
+
+    public void testTransformClass() throws Exception {
+        Loader loader = new Loader();
+        assertNull(TransformServiceCache.getTransformClass(loader, "p.A"));
+        TransformServiceCache.putTransformClass(loader, "p.A", String.class);
+        assertSame(String.class, TransformServiceCache.getTransformClass(loader, "p.A"));
+        assertNull(TransformServiceCache.getTransformClass(new Loader(), "p.A"));
+    }
+
+    //--------------------------------------------------------------------------
+
+    private URL jar(String name, String className) throws IOException {
+        File file = new File(root, name);
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+        try {
+            if (className != null) {
+                out.putNextEntry(new ZipEntry(TransformServiceCache.SERVICE_NAME));
+                out.write((className + "\n").getBytes("UTF-8"));
+            } else {
+                out.putNextEntry(new ZipEntry("p/"));
+            }
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        return file.toURI().toURL();
+    }
+
+    private URL dir(String name, String className) throws IOException {
+        File dir = new File(root, name);
+        dir.mkdirs();
+        if (className != null) {
+            File file = new File(dir, TransformServiceCache.SERVICE_NAME);
+            file.getParentFile().mkdirs();
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write((className + "\n").getBytes("UTF-8"));
+            } finally {
+                out.close();
+            }
+        }
+        return dir.toURI().toURL();
+    }
+
+    private static String read(TransformServiceCache.Service service) throws IOException {
+        InputStream in = service.openStream();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int c; (c = in.read()) != -1;) {
+                sb.append((char) c);
+            }
+            return sb.toString();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        file.delete();
+    }
+}
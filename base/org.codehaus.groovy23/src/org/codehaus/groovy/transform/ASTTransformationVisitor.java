@@ -25,6 +25,7 @@ import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.WarningMessage;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.eclipse.TransformServiceCache;
 import org.codehaus.groovy.syntax.SyntaxException;
 
 import groovy.lang.GroovyClassLoader;
@@ -141,6 +142,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 //GRECLIPSE start was unmarked (but looks like logging crap, but uses greclipse logger se must be greclipse
                 	try {
                 		long stime = System.nanoTime();
+                		long sbytes = GroovyLogManager.manager.getTransformProfiler().allocatedBytes();
                 		boolean okToSet = source!=null && source.getErrorCollector()!=null;
                 		try {
                 			if (okToSet) {
@@ -158,6 +160,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime(); 
+                		GroovyLogManager.manager.getTransformProfiler().record(snt.getClass().getName(), phase.name(), etime - stime, sbytes);
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
 	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
@@ -251,9 +254,13 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         Map<String, URL> transformNames = new LinkedHashMap<String, URL>();
         try {
-            Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
-            while (globalServices.hasMoreElements()) {
-                URL service = globalServices.nextElement();
+            // GRECLIPSE edit -- service files are cached per transform loader classpath
+            //Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
+            //while (globalServices.hasMoreElements()) {
+            //    URL service = globalServices.nextElement();
+            for (TransformServiceCache.Service cachedService : TransformServiceCache.getServices(transformLoader)) {
+                URL service = cachedService.url;
+            // GRECLIPSE end
                 String className;
                                 
                 // GRECLIPSE: start: don't consume our own META-INF entries - bit of a hack...
@@ -268,7 +275,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 // now
            
            		BufferedReader svcIn = null;
-                InputStream is = service.openStream();
+                InputStream is = cachedService.openStream() /*GRECLIPSE edit: service.openStream()*/;
                 try {
 	                svcIn = new BufferedReader(new InputStreamReader(is, "UTF-8"));               
  	               // end
@@ -424,7 +431,14 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         for (Map.Entry<String, URL> entry : transformNames.entrySet()) {
             try { //Greclipse?
-                Class gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                // GRECLIPSE edit
+                //Class gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                Class gTransClass = TransformServiceCache.getTransformClass(transformLoader, entry.getKey());
+                if (gTransClass == null) {
+                    gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                    TransformServiceCache.putTransformClass(transformLoader, entry.getKey(), gTransClass);
+                }
+                // GRECLIPSE end
                 //no inspection unchecked
                 GroovyASTTransformation transformAnnotation = (GroovyASTTransformation) gTransClass.getAnnotation(GroovyASTTransformation.class);
                 if (transformAnnotation == null) {
@@ -439,6 +453,9 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 }
                 if (ASTTransformation.class.isAssignableFrom(gTransClass)) {
                 	try {
+                	// GRECLIPSE add
+                	final CompilePhase transformPhase = transformAnnotation.phase();
+                	// GRECLIPSE end
                 	final ASTTransformation instance = (ASTTransformation)gTransClass.newInstance();
                 	if (instance instanceof CompilationUnitAware) {
                         ((CompilationUnitAware)instance).setCompilationUnit(compilationUnit);
@@ -452,6 +469,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                         	if (isBuggered) return;
                         	try { 
                             long stime = System.nanoTime();
+                            long sbytes = GroovyLogManager.manager.getTransformProfiler().allocatedBytes();
                             boolean okToSet = source!=null && source.getErrorCollector()!=null;
 
                     		try {
@@ -467,6 +485,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime(); 
+                            GroovyLogManager.manager.getTransformProfiler().record(instance.getClass().getName(), transformPhase.name(), etime - stime, sbytes);
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
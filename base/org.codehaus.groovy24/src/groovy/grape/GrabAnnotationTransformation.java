@@ -43,6 +43,7 @@ import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilePhase;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.control.io.StringReaderSource;
+import org.codehaus.groovy.eclipse.GrapeResolutionCache;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.tools.GrapeUtil;
 import org.codehaus.groovy.transform.ASTTransformation;
@@ -397,7 +398,7 @@ public class GrabAnnotationTransformation extends ClassCodeVisitorSupport implem
             Map<String,Object>[] grabMapsAsMapArray = grabMaps.toArray(new Map[grabMaps.size()]);
             for (int i = 0, n = grabMapsAsMapArray.length; i < n; i += 1) {
                 try {
-                    Grape.grab(new HashMap<String,Object>(basicArgs), grabMapsAsMapArray[i]);
+                    GrapeResolutionCache.grab(new HashMap<String,Object>(basicArgs), grabMapsAsMapArray[i]);
                     // grab may have added more transformations through new URLs added to classpath, so do one more scan
                     if (compilationUnit != null) {
                         ASTTransformationVisitor.addGlobalTransformsAfterGrab(compilationUnit.getASTTransformationsContext());
@@ -847,8 +847,10 @@ public class CompilationUnit extends ProcessingUnit {
             generator.visitClass(classNode);
 
             byte[] bytes = ((ClassWriter) visitor).toByteArray();
-            // GRECLIPSE added classNode, source
-            generatedClasses.add(new GroovyClass(classNode.getName(), bytes, classNode, source));
+            // GRECLIPSE edit -- added classNode, source
+            //generatedClasses.add(new GroovyClass(classNode.getName(), bytes));
+            addGeneratedClass(new GroovyClass(classNode.getName(), bytes, classNode, source));
+            // GRECLIPSE end
 
             //
             // Handle any callback that's been set
@@ -1271,5 +1273,53 @@ public class CompilationUnit extends ProcessingUnit {
     public boolean isReconcile = false;
     private ProgressListener listener;
     public List<String> localTransformsToRunOnReconcile;
+
+    /**
+     * If set, generated classes are held only until they are taken (see
+     * {@link #takeClasses(SourceUnit)}) rather than for the life of the unit,
+     * and {@link #getClasses()} does not include them.
+     */
+    public boolean streamGeneratedClasses = false;
+
+    private final Map<SourceUnit, List<GroovyClass>> generatedClassesBySource = new HashMap<SourceUnit, List<GroovyClass>>();
+
+    private void addGeneratedClass(GroovyClass gclass) {
+        if (!streamGeneratedClasses) {
+            generatedClasses.add(gclass);
+        }
+        SourceUnit source = gclass.getSourceUnit();
+        if (source != null) {
+            List<GroovyClass> sourceClasses = generatedClassesBySource.get(source);
+            if (sourceClasses == null) {
+                sourceClasses = new ArrayList<GroovyClass>();
+                generatedClassesBySource.put(source, sourceClasses);
+            }
+            sourceClasses.add(gclass);
+        }
+    }
+
+    /**
+     * Get the GroovyClasses generated by compile() for one source unit, in the order they were generated.
+     */
+    public List<GroovyClass> getClasses(SourceUnit source) {
+        List<GroovyClass> sourceClasses = generatedClassesBySource.get(source);
+        if (sourceClasses == null) {
+            return Collections.emptyList();
+        }
+        return sourceClasses;
+    }
+
+    /**
+     * Get the GroovyClasses generated by compile() for one source unit and,
+     * when streaming, forget them so that their bytes can be released once
+     * the caller has written them out.
+     */
+    public List<GroovyClass> takeClasses(SourceUnit source) {
+        List<GroovyClass> sourceClasses = getClasses(source);
+        if (streamGeneratedClasses) {
+            generatedClassesBySource.remove(source);
+        }
+        return sourceClasses;
+    }
   // GRECLIPSE end
 }
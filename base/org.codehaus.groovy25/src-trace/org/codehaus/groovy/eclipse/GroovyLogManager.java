@@ -40,6 +40,10 @@ public class GroovyLogManager {
 
     private final Map<String, Long> timers = new HashMap<>();
 
+    private final TraceMetrics metrics = new TraceMetrics();
+
+    private final TransformProfiler transformProfiler = new TransformProfiler(metrics);
+
     private boolean useDefaultLogger;
 
     /**
@@ -98,6 +102,21 @@ public class GroovyLogManager {
         return false;
     }
 
+    /**
+     * @return the counters, timers and cache statistics; recording is cheap
+     *         and free of string building when metrics are disabled
+     */
+    public TraceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the per-transform costs; recorded only while metrics are enabled
+     */
+    public TransformProfiler getTransformProfiler() {
+        return transformProfiler;
+    }
+
     public void logStart(String event) {
         timers.put(event, System.currentTimeMillis());
     }
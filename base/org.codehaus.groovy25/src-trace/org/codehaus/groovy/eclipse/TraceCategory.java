@@ -28,6 +28,7 @@ public enum TraceCategory {
 
     DSL("DSL"),
     CODE_SELECT("Code select"),
+    INFERENCING("Inferencing"),
     REFACTORING("Refactoring"),
     AST_TRANSFORM("AST Transforms"),
     CONTENT_ASSIST("Content assist"),
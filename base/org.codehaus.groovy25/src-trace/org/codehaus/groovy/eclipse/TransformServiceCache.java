@@ -0,0 +1,278 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.jar.JarFile;
+
+/**
+ * Remembers the global AST transform service files visible to each transform
+ * loader, so that the compilation unit created for every reconcile does not
+ * search the whole classpath and read the same service files again.
+ * <p>
+ * The classpath of the loader (the URLs of it and its URL class loader
+ * parents) acts as the fingerprint of a scan.  URLs appended to the loader,
+ * as happens after <code>@Grab</code>, are probed on their own.  Any other
+ * classpath change, or a service file that appears, changes or disappears
+ * in a directory entry, causes a full scan.
+ */
+public class TransformServiceCache {
+
+    public static final String SERVICE_NAME = "META-INF/services/org.codehaus.groovy.transform.ASTTransformation";
+
+    /**
+     * A service file and its contents, which are read on first use.
+     */
+    public static class Service {
+        public final URL url;
+        private byte[] bytes;
+
+        Service(URL url) {
+            this.url = url;
+        }
+
+        /**
+         * @return a stream over the contents of the service file
+         */
+        public synchronized InputStream openStream() throws IOException {
+            if (bytes == null) {
+                InputStream in = url.openStream();
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+                    byte[] buffer = new byte[1024];
+                    for (int n; (n = in.read(buffer)) != -1;) {
+                        out.write(buffer, 0, n);
+                    }
+                    bytes = out.toByteArray();
+                } finally {
+                    in.close();
+                }
+            }
+            return new ByteArrayInputStream(bytes);
+        }
+    }
+
+    private static class Scan {
+        URL[] classpath;
+        List<Service> services;
+        /** service file of each directory entry mapped to its last modified time (0 if absent) */
+        final Map<File, Long> stamps = new HashMap<File, Long>();
+        final Map<String, WeakReference<Class<?>>> classes = new HashMap<String, WeakReference<Class<?>>>();
+
+        boolean isCurrent() {
+            for (Map.Entry<File, Long> entry : stamps.entrySet()) {
+                if (entry.getKey().lastModified() != entry.getValue().longValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final Map<ClassLoader, Scan> SCANS = new WeakHashMap<ClassLoader, Scan>();
+
+    private TransformServiceCache() {
+    }
+
+    private static Scan scanFor(ClassLoader loader) {
+        synchronized (SCANS) {
+            Scan scan = SCANS.get(loader);
+            if (scan == null) {
+                scan = new Scan();
+                SCANS.put(loader, scan);
+            }
+            return scan;
+        }
+    }
+
+    /**
+     * @return the global transform service files visible to the loader, in
+     *         the order {@link ClassLoader#getResources(String)} returns them
+     */
+    public static List<Service> getServices(ClassLoader loader) throws IOException {
+        Scan scan = scanFor(loader);
+        synchronized (scan) {
+            URL[] classpath = classpathOf(loader);
+            if (scan.services != null && scan.isCurrent()) {
+                if (Arrays.equals(classpath, scan.classpath)) {
+                    GroovyLogManager.manager.getMetrics().cache(TraceCategory.AST_TRANSFORM, "global transform services", true);
+                    return scan.services;
+                }
+                if (startsWith(classpath, scan.classpath)) {
+                    List<Service> added = probe(classpath, scan.classpath.length, scan.stamps);
+                    if (added != null) {
+                        GroovyLogManager.manager.getMetrics().cache(TraceCategory.AST_TRANSFORM, "global transform services", true);
+                        if (!added.isEmpty()) {
+                            List<Service> services = new ArrayList<Service>(scan.services);
+                            services.addAll(added);
+                            scan.services = Collections.unmodifiableList(services);
+                        }
+                        scan.classpath = classpath;
+                        return scan.services;
+                    }
+                }
+            }
+            GroovyLogManager.manager.getMetrics().cache(TraceCategory.AST_TRANSFORM, "global transform services", false);
+
+            scan.services = null;
+            scan.classes.clear();
+            scan.stamps.clear();
+            for (URL url : classpath) {
+                File dir = directoryOf(url);
+                if (dir != null) {
+                    File file = new File(dir, SERVICE_NAME);
+                    scan.stamps.put(file, Long.valueOf(file.lastModified()));
+                }
+            }
+            List<Service> services = new ArrayList<Service>();
+            for (Enumeration<URL> urls = loader.getResources(SERVICE_NAME); urls.hasMoreElements();) {
+                services.add(new Service(urls.nextElement()));
+            }
+            scan.services = Collections.unmodifiableList(services);
+            scan.classpath = classpath;
+            return scan.services;
+        }
+    }
+
+    /**
+     * @return the transform class recorded for the loader by
+     *         {@link #putTransformClass(ClassLoader, String, Class)} or
+     *         {@code null} if none has been recorded since the last full scan
+     */
+    public static Class<?> getTransformClass(ClassLoader loader, String className) {
+        Scan scan = scanFor(loader);
+        synchronized (scan) {
+            WeakReference<Class<?>> ref = scan.classes.get(className);
+            return (ref != null ? ref.get() : null);
+        }
+    }
+
+    public static void putTransformClass(ClassLoader loader, String className, Class<?> transformClass) {
+        Scan scan = scanFor(loader);
+        synchronized (scan) {
+            // weakly held; transform classes refer to their loader, which keys the scan
+            scan.classes.put(className, new WeakReference<Class<?>>(transformClass));
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static URL[] classpathOf(ClassLoader loader) {
+        LinkedList<URL> urls = new LinkedList<URL>();
+        for (ClassLoader cl = loader; cl != null; cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader) {
+                // parents are searched first, so their entries go in front
+                urls.addAll(0, Arrays.asList(((URLClassLoader) cl).getURLs()));
+            }
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+
+    private static boolean startsWith(URL[] urls, URL[] prefix) {
+        if (urls.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i += 1) {
+            if (!urls[i].equals(prefix[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks for service files in the classpath entries from the given index on.
+     *
+     * @return the service files found or {@code null} if an entry cannot be
+     *         probed directly
+     */
+    private static List<Service> probe(URL[] classpath, int from, Map<File, Long> stamps) throws IOException {
+        List<Service> services = new ArrayList<Service>();
+        for (int i = from; i < classpath.length; i += 1) {
+            URL url = classpath[i];
+            if (!"file".equals(url.getProtocol())) {
+                return null;
+            }
+            File dir = directoryOf(url);
+            if (dir != null) {
+                File file = new File(dir, SERVICE_NAME);
+                stamps.put(file, Long.valueOf(file.lastModified()));
+                if (file.isFile()) {
+                    services.add(new Service(new URL(url, SERVICE_NAME)));
+                }
+            } else {
+                File file = fileOf(url);
+                if (file == null) {
+                    return null;
+                }
+                if (file.isFile()) {
+                    JarFile jar;
+                    try {
+                        jar = new JarFile(file);
+                    } catch (IOException e) {
+                        return null; // leave it to the class loader
+                    }
+                    try {
+                        if (jar.getEntry(SERVICE_NAME) != null) {
+                            services.add(new Service(new URL("jar:" + url.toExternalForm() + "!/" + SERVICE_NAME)));
+                        }
+                    } finally {
+                        jar.close();
+                    }
+                }
+            }
+        }
+        return services;
+    }
+
+    /**
+     * @return the directory of a file URL that {@link URLClassLoader} treats as
+     *         a directory (i.e. ends with '/') or {@code null}
+     */
+    private static File directoryOf(URL url) {
+        if ("file".equals(url.getProtocol()) && url.getFile().endsWith("/")) {
+            return fileOf(url);
+        }
+        return null;
+    }
+
+    private static File fileOf(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
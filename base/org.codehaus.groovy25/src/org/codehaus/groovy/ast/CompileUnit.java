@@ -188,13 +188,15 @@ public class CompileUnit {
         return classesToCompile.keySet().iterator();
     }
 
-    public InnerClassNode getGeneratedInnerClass(String name) {
+    // GRECLIPSE edit -- classes may be generated in parallel
+    public synchronized InnerClassNode getGeneratedInnerClass(String name) {
         return generatedInnerClasses.get(name);
     }
     
-    public void addGeneratedInnerClass(InnerClassNode icn) {
+    public synchronized void addGeneratedInnerClass(InnerClassNode icn) {
         generatedInnerClasses.put(icn.getName(), icn);
     }
+    // GRECLIPSE end
 
     public Map<String, InnerClassNode> getGeneratedInnerClasses() {
         return Collections.unmodifiableMap(generatedInnerClasses);
@@ -47,6 +47,8 @@ import java.io.InputStream;
 import java.net.URL;
 import java.security.CodeSource;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The CompilationUnit collects all compilation data as it is generated by the compiler system.
@@ -801,6 +803,12 @@ public class CompilationUnit extends ProcessingUnit {
         }
 
         public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) throws CompilationFailedException {
+            // GRECLIPSE add
+            if (parallelClassgen != null) {
+                parallelClassgen.call(source, context, classNode);
+                return;
+            }
+            // GRECLIPSE end
 
             optimizer.visitClass(classNode, source); // GROOVY-4272: repositioned it here from staticImport
 
@@ -853,8 +861,10 @@ public class CompilationUnit extends ProcessingUnit {
             generator.visitClass(classNode);
 
             byte[] bytes = ((ClassWriter) visitor).toByteArray();
-            // GRECLIPSE added classNode, source
-            generatedClasses.add(new GroovyClass(classNode.getName(), bytes, classNode, source));
+            // GRECLIPSE edit -- added classNode, source
+            //generatedClasses.add(new GroovyClass(classNode.getName(), bytes));
+            addGeneratedClass(new GroovyClass(classNode.getName(), bytes, classNode, source));
+            // GRECLIPSE end
 
             //
             // Handle any callback that's been set
@@ -1118,6 +1128,12 @@ public class CompilationUnit extends ProcessingUnit {
      * through the current phase.
      */
     public void applyToPrimaryClassNodes(PrimaryClassNodeOperation body) throws CompilationFailedException {
+        // GRECLIPSE add
+        if (body == classgen && generateInParallel) {
+            parallelClassgen = new ParallelClassgen();
+        }
+        try {
+        // GRECLIPSE end
         Iterator classNodes = getPrimaryClassNodes(body.needSortedInput()).iterator();
         while (classNodes.hasNext()) {
             SourceUnit context = null;
@@ -1150,6 +1166,14 @@ public class CompilationUnit extends ProcessingUnit {
                 convertUncaughtExceptionToCompilationError(e);
             }
         }
+        // GRECLIPSE add
+        if (parallelClassgen != null) {
+            parallelClassgen.generate();
+        }
+        } finally {
+            parallelClassgen = null;
+        }
+        // GRECLIPSE end
 
         getErrorCollector().failIfErrors();
     }
@@ -1277,5 +1301,238 @@ public class CompilationUnit extends ProcessingUnit {
     public boolean isReconcile = false;
     private ProgressListener listener;
     public List<String> localTransformsToRunOnReconcile;
+
+    /**
+     * If set, generated classes are held only until they are taken (see
+     * {@link #takeClasses(SourceUnit)}) rather than for the life of the unit,
+     * and {@link #getClasses()} does not include them.
+     */
+    public boolean streamGeneratedClasses = false;
+
+    private final Map<SourceUnit, List<GroovyClass>> generatedClassesBySource = new HashMap<SourceUnit, List<GroovyClass>>();
+
+    private void addGeneratedClass(GroovyClass gclass) {
+        if (!streamGeneratedClasses) {
+            generatedClasses.add(gclass);
+        }
+        SourceUnit source = gclass.getSourceUnit();
+        if (source != null) {
+            List<GroovyClass> sourceClasses = generatedClassesBySource.get(source);
+            if (sourceClasses == null) {
+                sourceClasses = new ArrayList<GroovyClass>();
+                generatedClassesBySource.put(source, sourceClasses);
+            }
+            sourceClasses.add(gclass);
+        }
+    }
+
+    /**
+     * Get the GroovyClasses generated by compile() for one source unit, in the order they were generated.
+     */
+    public List<GroovyClass> getClasses(SourceUnit source) {
+        List<GroovyClass> sourceClasses = generatedClassesBySource.get(source);
+        if (sourceClasses == null) {
+            return Collections.emptyList();
+        }
+        return sourceClasses;
+    }
+
+    /**
+     * Get the GroovyClasses generated by compile() for one source unit and,
+     * when streaming, forget them so that their bytes can be released once
+     * the caller has written them out.
+     */
+    public List<GroovyClass> takeClasses(SourceUnit source) {
+        List<GroovyClass> sourceClasses = getClasses(source);
+        if (streamGeneratedClasses) {
+            generatedClassesBySource.remove(source);
+        }
+        return sourceClasses;
+    }
+
+    /**
+     * If set when the unit is created, the bytecode of the primary class nodes
+     * (and of the classes generated for them) is generated in parallel.
+     * <p>
+     * The class nodes are still verified one at a time, in order, since
+     * verifying a class may change others.  But all of them are verified
+     * before any bytecode is generated, where one at a time each class is
+     * verified right before its bytecode is generated.  So if generating one
+     * class changes what verifying a later class sees, the output can differ.
+     * Errors from generating the bytecode are reported after all errors from
+     * verifying, and in class order.  As when done one at a time, a class is
+     * not generated (or its errors reported) after generating an earlier one
+     * failed for the same source (or the same error collector).  Generated
+     * classes are added in the same order as they are when generated one at a
+     * time.
+     * <p>
+     * Errors and warnings reported while generating a class, to the unit's
+     * collector or to the source's, are kept by the class's task and added to
+     * those collectors in class order, so they do not depend on the threads.
+     */
+    private final boolean generateInParallel = Boolean.getBoolean("greclipse.parallelClassgen");
+
+    private static ForkJoinPool classgenPool;
+
+    private static synchronized ForkJoinPool getClassgenPool() {
+        if (classgenPool == null) {
+            classgenPool = new ForkJoinPool();
+        }
+        return classgenPool;
+    }
+
+    private ParallelClassgen parallelClassgen;
+
+    private class ParallelClassgen {
+        private final List<ClassgenTask> tasks = new ArrayList<ClassgenTask>();
+        /** verification is not done in parallel */
+        private final Object lock = new Object();
+
+        void call(SourceUnit source, GeneratorContext context, ClassNode classNode) throws CompilationFailedException {
+            verify(source, classNode);
+            // code gen can fail unexpectedly if there was an earlier error
+            if (source != null && source.getErrorCollector().hasErrors()) return;
+
+            ClassgenTask task = new ClassgenTask(source, context, classNode);
+            tasks.add(task);
+        }
+
+        void verify(SourceUnit source, ClassNode classNode) throws CompilationFailedException {
+            synchronized (lock) {
+                optimizer.visitClass(classNode, source);
+                try {
+                    verifier.visitClass(classNode);
+                } catch (GroovyRuntimeException rpe) {
+                    ASTNode node = rpe.getNode();
+                    getErrorCollector().addError(
+                            new SyntaxException(rpe.getMessage(), node.getLineNumber(), node.getColumnNumber(), node.getLastLineNumber(), node.getLastColumnNumber()),
+                            source
+                    );
+                }
+                new LabelVerifier(source).visitClass(classNode);
+                new ClassCompletionVerifier(source).visitClass(classNode);
+                new ExtendedVerifier(source).visitClass(classNode);
+
+                getErrorCollector().failIfErrors();
+            }
+        }
+
+        void generate() {
+            if (tasks.size() > 1) {
+                ForkJoinPool pool = getClassgenPool();
+                for (ClassgenTask task : tasks) {
+                    pool.execute(task);
+                }
+            } else {
+                for (ClassgenTask task : tasks) {
+                    task.quietlyInvoke();
+                }
+            }
+            // collectors that got errors from generating a class
+            Set<ErrorCollector> failed = Collections.newSetFromMap(new IdentityHashMap<ErrorCollector, Boolean>());
+            for (ClassgenTask task : tasks) {
+                task.quietlyJoin();
+                // generated one at a time, the class would not have been generated
+                if (task.source != null && failed.contains(task.source.getErrorCollector())) continue;
+                if (task.errors.hasErrors() || task.isCompletedAbnormally()) {
+                    failed.add(getErrorCollector());
+                }
+                getErrorCollector().addCollectorContents(task.errors);
+                if (task.sourceErrors != null) {
+                    if (task.sourceErrors.hasErrors()) {
+                        failed.add(task.source.getErrorCollector());
+                    }
+                    task.source.getErrorCollector().addCollectorContents(task.sourceErrors);
+                }
+                // classes generated before a failure are kept, as when generated one at a time
+                for (int i = 0, n = task.classes.size(); i < n; i += 1) {
+                    GroovyClass gclass = task.classes.get(i);
+                    addGeneratedClass(gclass);
+                    if (classgenCallback != null) {
+                        classgenCallback.call(task.visitors.get(i), gclass.getClassNode());
+                    }
+                }
+
+                try {
+                    task.join();
+                } catch (CompilationFailedException e) {
+                    // fall through, getErrorReporter().failIfErrors() will trigger
+                } catch (NullPointerException npe) {
+                    GroovyBugError gbe = new GroovyBugError("unexpected NullpointerException", npe);
+                    changeBugText(gbe, task.source);
+                    throw gbe;
+                } catch (GroovyBugError e) {
+                    changeBugText(e, task.source);
+                    throw e;
+                } catch (NoClassDefFoundError e) {
+                    convertUncaughtExceptionToCompilationError(e);
+                } catch (Exception e) {
+                    convertUncaughtExceptionToCompilationError(e);
+                }
+            }
+        }
+
+        /**
+         * Generates one primary class node and the classes generated for it.
+         * The errors and warnings reported meanwhile are kept by the task,
+         * apart for the unit and for the source if they have different
+         * collectors.
+         */
+        private class ClassgenTask extends RecursiveAction {
+            final SourceUnit source;
+            final GeneratorContext context;
+            final ClassNode classNode;
+            final List<GroovyClass> classes = new ArrayList<GroovyClass>();
+            final List<ClassVisitor> visitors = new ArrayList<ClassVisitor>();
+            final ErrorCollector errors = new ErrorCollector(getConfiguration());
+            final ErrorCollector sourceErrors;
+
+            ClassgenTask(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+                this.source = source;
+                this.context = context;
+                this.classNode = classNode;
+                if (source != null && source.getErrorCollector() != getErrorCollector()) {
+                    sourceErrors = new ErrorCollector(source.getErrorCollector().getConfiguration());
+                } else {
+                    sourceErrors = null;
+                }
+            }
+
+            @Override
+            protected void compute() {
+                getErrorCollector().setThreadBuffer(errors);
+                if (sourceErrors != null) source.getErrorCollector().setThreadBuffer(sourceErrors);
+                try {
+                    generate(classNode);
+                } finally {
+                    getErrorCollector().setThreadBuffer(null);
+                    if (sourceErrors != null) source.getErrorCollector().setThreadBuffer(null);
+                }
+            }
+
+            private void generate(ClassNode classNode) {
+                ClassVisitor visitor = createClassVisitor();
+
+                String sourceName = (source == null ? classNode.getModule().getDescription() : source.getName());
+                if (sourceName != null)
+                    sourceName = sourceName.substring(Math.max(sourceName.lastIndexOf('\\'), sourceName.lastIndexOf('/')) + 1);
+                AsmClassGenerator generator = new AsmClassGenerator(source, context, visitor, sourceName);
+
+                generator.visitClass(classNode);
+
+                byte[] bytes = ((ClassWriter) visitor).toByteArray();
+                classes.add(new GroovyClass(classNode.getName(), bytes, classNode, source));
+                visitors.add(visitor);
+
+                LinkedList innerClasses = generator.getInnerClasses();
+                while (!innerClasses.isEmpty()) {
+                    ClassNode innerClass = (ClassNode) innerClasses.removeFirst();
+                    verify(source, innerClass);
+                    if (source != null && source.getErrorCollector().hasErrors()) continue;
+                    generate(innerClass);
+                }
+            }
+        }
+    }
   // GRECLIPSE end
 }
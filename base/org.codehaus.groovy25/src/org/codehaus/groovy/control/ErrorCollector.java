@@ -42,6 +42,43 @@ import org.codehaus.groovy.syntax.SyntaxException;
 public class ErrorCollector {
     // GRECLIPSE add
     public boolean transformActive;
+
+    /**
+     * Per-thread collectors that keep the messages reported to this one.
+     */
+    private volatile ThreadLocal<ErrorCollector> buffers;
+
+    /**
+     * Keeps the errors and warnings reported to this collector on the calling
+     * thread in the given collector, or in this one again if {@code null}.
+     * The messages are still reported (and errors checked for) through this
+     * collector; only where they are kept changes.  This lets classes that are
+     * generated in parallel report their errors without sharing a list, so they
+     * can be added to this collector in a set order afterwards.
+     */
+    void setThreadBuffer(ErrorCollector buffer) {
+        synchronized (this) {
+            if (buffers == null) {
+                buffers = new ThreadLocal<ErrorCollector>();
+            }
+        }
+        if (buffer != null) {
+            buffers.set(buffer);
+        } else {
+            buffers.remove();
+        }
+    }
+
+    private ErrorCollector getBuffer() {
+        ThreadLocal<ErrorCollector> local = buffers;
+        if (local != null) {
+            ErrorCollector buffer = local.get();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return this;
+    }
     // GRECLIPSE end
     
     /**
@@ -93,11 +130,19 @@ public class ErrorCollector {
      * line and column specified, but it is best practice to try and include that information. 
      */
     public void addErrorAndContinue(Message message) {
-        if (this.errors == null) {
+        // GRECLIPSE edit
+        /*if (this.errors == null) {
             this.errors = new LinkedList();
         }
 
-        this.errors.add(message);
+        this.errors.add(message);*/
+        ErrorCollector buffer = getBuffer();
+        if (buffer.errors == null) {
+            buffer.errors = new LinkedList();
+        }
+
+        buffer.errors.add(message);
+        // GRECLIPSE end
     }
     
     /**
@@ -108,7 +153,11 @@ public class ErrorCollector {
     public void addError(Message message) throws CompilationFailedException {
         addErrorAndContinue(message);
 
-        if (errors!=null && this.errors.size() >= configuration.getTolerance()) {
+        // GRECLIPSE edit
+        //if (errors!=null && this.errors.size() >= configuration.getTolerance()) {
+        LinkedList errors = getBuffer().errors;
+        if (errors!=null && errors.size() >= configuration.getTolerance()) {
+        // GRECLIPSE end
             failIfErrors();
         }
     }
@@ -165,7 +214,10 @@ public class ErrorCollector {
      * Returns true if there are any errors pending.
      */
     public boolean hasErrors() {
-        return this.errors != null;
+        // GRECLIPSE edit
+        //return this.errors != null;
+        return getBuffer().errors != null;
+        // GRECLIPSE end
     }
 
     /**
@@ -275,11 +327,19 @@ public class ErrorCollector {
      */
     public void addWarning(WarningMessage message) {
         if (message.isRelevant(configuration.getWarningLevel())) {
-            if (this.warnings == null) {
+            // GRECLIPSE edit
+            /*if (this.warnings == null) {
                 this.warnings = new LinkedList();
             }
 
-            this.warnings.add(message);
+            this.warnings.add(message);*/
+            ErrorCollector buffer = getBuffer();
+            if (buffer.warnings == null) {
+                buffer.warnings = new LinkedList();
+            }
+
+            buffer.warnings.add(message);
+            // GRECLIPSE end
         }
     }
 
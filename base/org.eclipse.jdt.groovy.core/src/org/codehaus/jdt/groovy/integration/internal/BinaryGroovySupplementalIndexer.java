@@ -16,7 +16,9 @@
 package org.codehaus.jdt.groovy.integration.internal;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
 import org.eclipse.jdt.core.compiler.CharOperation;
@@ -24,29 +26,105 @@ import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
 
 /**
+ * Adds the names found in the constant pool of a Groovy class file to the index,
+ * since Groovy method calls and property accesses are dynamically dispatched.
+ * <p>
+ * The UTF8 constants are validated and split directly on the class file bytes.
+ * The name fragments are interned in a table that is shared by all class files
+ * indexed on the same thread (that is, by the whole run of an index job), so a
+ * fragment is decoded to a char array only the first time any class file of the
+ * run contains it.  Each class file is a document of its own in the index, so
+ * its references are still reported once for each class file that has them.
+ *
  * @author Andrew Eisenberg
  * @created 2013-04-30
  */
 public class BinaryGroovySupplementalIndexer implements ISupplementalIndexer {
 
+    private static final ThreadLocal<NameTable> NAMES = new ThreadLocal<NameTable>() {
+        @Override
+        protected NameTable initialValue() {
+            return new NameTable();
+        }
+    };
+
     public List<char[]> extractNamedReferences(byte[] contents, ClassFileReader reader) {
         int[] constantPoolOffsets = reader.getConstantPoolOffsets();
         int constantPoolCount = constantPoolOffsets.length;
-        List<char[]> refs = new ArrayList<char[]>();
+        NameTable names = NAMES.get();
+        names.trim();
+        // names are interned, so the set compares them by identity
+        Set<char[]> references = new LinkedHashSet<char[]>();
         for (int i = 1; i < constantPoolCount; i++) {
-            int tag = reader.u1At(constantPoolOffsets[i]);
+            int tag = contents[constantPoolOffsets[i]] & 0xFF;
             switch (tag) {
                 case ClassFileConstants.Utf8Tag:
-                    char[] strConst = extractStringConstant(constantPoolOffsets, reader, i);
-                    if (isValidId(strConst)) {
-                        char[][] splits = CharOperation.splitOn('.', strConst);
-                        for (char[] split : splits) {
-                            refs.add(split);
+                    int strlen = reader.u2At(constantPoolOffsets[i] + 1); // +1 for the tag type
+                    int strstart = constantPoolOffsets[i] + 3; // +1 for the tag type and +2 for the strlen
+                    if (isAsciiId(contents, strstart, strlen)) {
+                        splitOnDots(contents, strstart, strstart + strlen, names, references);
+                    } else if (hasNonAscii(contents, strstart, strlen)) {
+                        // rare case: decode and check using the full unicode rules
+                        char[] strConst = reader.utf8At(strstart, strlen);
+                        if (isValidId(strConst)) {
+                            for (char[] split : CharOperation.splitOn('.', strConst)) {
+                                if (split.length > 0) {
+                                    references.add(names.intern(split));
+                                }
+                            }
                         }
                     }
             }
         }
-        return refs;
+        return new ArrayList<char[]>(references);
+    }
+
+    private static void splitOnDots(byte[] bytes, int start, int end, NameTable names, Set<char[]> references) {
+        int fragmentStart = start;
+        for (int i = start; i < end; i += 1) {
+            if (bytes[i] == '.') {
+                if (i > fragmentStart) {
+                    references.add(names.intern(bytes, fragmentStart, i));
+                }
+                fragmentStart = i + 1;
+            }
+        }
+        if (end > fragmentStart) {
+            references.add(names.intern(bytes, fragmentStart, end));
+        }
+    }
+
+    /**
+     * Checks an encoded string constant for being a dotted identifier made up of ASCII characters only.
+     */
+    private static boolean isAsciiId(byte[] bytes, int start, int length) {
+        if (length == 0) {
+            return false;
+        }
+        byte b = bytes[start];
+        if (!(isAsciiLetter(b) || b == '_' || b == '.')) {
+            return false;
+        }
+        for (int i = start + 1, end = start + length; i < end; i += 1) {
+            b = bytes[i];
+            if (!(isAsciiLetter(b) || (b >= '0' && b <= '9') || b == '_' || b == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    private static boolean hasNonAscii(byte[] bytes, int start, int length) {
+        for (int i = start, end = start + length; i < end; i += 1) {
+            if (bytes[i] < 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private boolean isValidId(char[] strConst) {
@@ -64,9 +142,101 @@ public class BinaryGroovySupplementalIndexer implements ISupplementalIndexer {
         return true;
     }
 
-    private char[] extractStringConstant(int[] constantPoolOffsets, ClassFileReader reader, int index) {
-        int strlen = reader.u2At(constantPoolOffsets[index] + 1); // / +1 for the tag type
-        int strstart = constantPoolOffsets[index] + 3; // +1 for the tag type and +2 for the strlen
-        return reader.utf8At(strstart, strlen);
+    /**
+     * Open-addressing table of interned name fragments.  ASCII fragments are
+     * hashed and compared on the class file bytes, so a char array is created
+     * only the first time a fragment is seen.  Not thread-safe; the arrays
+     * handed out must not be modified.
+     */
+    private static class NameTable {
+        /** the table is emptied between class files once it holds this many names */
+        private static final int MAX_NAMES = 16384;
+
+        private char[][] names = new char[64][];
+        private int size;
+
+        /**
+         * Empties the table if it is full; must not be called while the names
+         * of a class file are being collected.
+         */
+        void trim() {
+            if (size >= MAX_NAMES) {
+                names = new char[64][];
+                size = 0;
+            }
+        }
+
+        char[] intern(byte[] bytes, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i += 1) {
+                hash = 31 * hash + bytes[i];
+            }
+            int mask = names.length - 1;
+            int index = hash & mask;
+            for (char[] name; (name = names[index]) != null; index = (index + 1) & mask) {
+                if (equals(name, bytes, start, end)) {
+                    return name;
+                }
+            }
+            char[] name = new char[end - start];
+            for (int i = start; i < end; i += 1) {
+                name[i - start] = (char) bytes[i];
+            }
+            insert(name, index);
+            return name;
+        }
+
+        char[] intern(char[] name) {
+            int mask = names.length - 1;
+            int index = hash(name) & mask;
+            for (char[] other; (other = names[index]) != null; index = (index + 1) & mask) {
+                if (CharOperation.equals(name, other)) {
+                    return other;
+                }
+            }
+            insert(name, index);
+            return name;
+        }
+
+        /**
+         * Same function as the byte hash in {@link #intern(byte[], int, int)} for ASCII names.
+         */
+        private static int hash(char[] name) {
+            int hash = 0;
+            for (char c : name) {
+                hash = 31 * hash + c;
+            }
+            return hash;
+        }
+
+        private static boolean equals(char[] name, byte[] bytes, int start, int end) {
+            if (name.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < name.length; i += 1) {
+                if (name[i] != bytes[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void insert(char[] name, int index) {
+            names[index] = name;
+            if (++size * 2 > names.length) {
+                char[][] old = names;
+                names = new char[old.length * 2][];
+                int mask = names.length - 1;
+                for (char[] n : old) {
+                    if (n != null) {
+                        int i = hash(n) & mask;
+                        while (names[i] != null) {
+                            i = (i + 1) & mask;
+                        }
+                        names[i] = n;
+                    }
+                }
+            }
+        }
     }
 }
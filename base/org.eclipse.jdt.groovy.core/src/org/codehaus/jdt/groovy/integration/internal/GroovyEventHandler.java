@@ -15,6 +15,7 @@
  */
 package org.codehaus.jdt.groovy.integration.internal;
 
+import org.codehaus.groovy.eclipse.GrapeResolutionCache;
 import org.codehaus.jdt.groovy.integration.EventHandler;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
 import org.eclipse.jdt.internal.core.JavaProject;
@@ -31,6 +32,8 @@ public class GroovyEventHandler implements EventHandler {
             if (javaProject != null) {
                 GroovyParser.tidyCache(javaProject.getProject().getName());
             }
+            // resolve @Grab dependencies again, in case the local repository changed
+            GrapeResolutionCache.clear();
         } else if (event.equals("close")) {
             if (javaProject != null) {
                 String projectName = javaProject.getProject().getName();
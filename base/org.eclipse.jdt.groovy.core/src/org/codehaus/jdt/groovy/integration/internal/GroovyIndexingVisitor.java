@@ -15,6 +15,10 @@
  */
 package org.codehaus.jdt.groovy.integration.internal;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.codehaus.groovy.ast.AnnotationNode;
 import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
 import org.codehaus.groovy.ast.ClassNode;
@@ -30,7 +34,9 @@ import org.codehaus.groovy.ast.expr.ClosureExpression;
 import org.codehaus.groovy.ast.expr.ConstantExpression;
 import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
 import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.Expression;
 import org.codehaus.groovy.ast.expr.FieldExpression;
+import org.codehaus.groovy.ast.expr.GStringExpression;
 import org.codehaus.groovy.ast.expr.MethodCallExpression;
 import org.codehaus.groovy.ast.expr.VariableExpression;
 import org.codehaus.groovy.ast.stmt.Statement;
@@ -47,16 +53,40 @@ import org.eclipse.jdt.internal.core.util.Util;
  * @created Aug 27, 2009
  *
  *          Visits a ModuleNode and passes it to an indexing element requestor, thus adding this class to the Java indexes
+ *          <p>
+ *          Names are interned in a symbol table that is shared by the visitors of one index job (see
+ *          {@link MultiplexingIndexingParser}) and references are collected during the walk and passed to the requestor in a
+ *          single batch at the end, once per distinct name. The index only records the names, so repeated references to the
+ *          same name add nothing but work.
  */
 public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
 
+    /** we don't know how many arguments a method has, so go up to 7 */
+    private static final int MAX_METHOD_ARITY = 7;
+    private static final int MAX_CONSTRUCTOR_ARITY = 10;
+
     private ISourceElementRequestor requestor;
 
     // used for GRECLIPSE-741, remove when issue is solved
     private ModuleNode module;
 
+    private final SymbolTable symbols;
+
+    // pending references; name to start offset of first occurrence
+    private final Map<char[], Integer> fieldRefs = new LinkedHashMap<char[], Integer>();
+    private final Map<char[], Integer> methodRefs = new LinkedHashMap<char[], Integer>();
+    private final Map<char[], Integer> unknownRefs = new LinkedHashMap<char[], Integer>();
+    private final Map<char[][], int[]> typeRefs = new LinkedHashMap<char[][], int[]>();
+    private final Map<char[][], int[]> annotationRefs = new LinkedHashMap<char[][], int[]>();
+    private final Map<char[], Integer> constructorRefs = new LinkedHashMap<char[], Integer>();
+
     public GroovyIndexingVisitor(ISourceElementRequestor requestor) {
+        this(requestor, new SymbolTable());
+    }
+
+    GroovyIndexingVisitor(ISourceElementRequestor requestor, SymbolTable symbols) {
         this.requestor = requestor;
+        this.symbols = symbols;
     }
 
     void doVisit(ModuleNode node, ImportReference pkg) {
@@ -75,7 +105,43 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
             }
         } catch (RuntimeException e) {
             Util.log(e);
+        } finally {
+            flushReferences();
+        }
+    }
+
+    /**
+     * Passes all collected references to the requestor and clears the pending sets.
+     */
+    private void flushReferences() {
+        for (Map.Entry<char[][], int[]> ref : typeRefs.entrySet()) {
+            requestor.acceptTypeReference(ref.getKey(), ref.getValue()[0], ref.getValue()[1]);
+        }
+        for (Map.Entry<char[][], int[]> ref : annotationRefs.entrySet()) {
+            requestor.acceptAnnotationTypeReference(ref.getKey(), ref.getValue()[0], ref.getValue()[1]);
         }
+        for (Map.Entry<char[], Integer> ref : unknownRefs.entrySet()) {
+            requestor.acceptUnknownReference(ref.getKey(), ref.getValue());
+        }
+        for (Map.Entry<char[], Integer> ref : fieldRefs.entrySet()) {
+            requestor.acceptFieldReference(ref.getKey(), ref.getValue());
+        }
+        for (Map.Entry<char[], Integer> ref : methodRefs.entrySet()) {
+            for (int i = 0; i < MAX_METHOD_ARITY; i += 1) {
+                requestor.acceptMethodReference(ref.getKey(), i, ref.getValue());
+            }
+        }
+        for (Map.Entry<char[], Integer> ref : constructorRefs.entrySet()) {
+            for (int i = 0; i < MAX_CONSTRUCTOR_ARITY; i += 1) {
+                requestor.acceptConstructorReference(ref.getKey(), i, ref.getValue());
+            }
+        }
+        typeRefs.clear();
+        annotationRefs.clear();
+        unknownRefs.clear();
+        fieldRefs.clear();
+        methodRefs.clear();
+        constructorRefs.clear();
     }
 
     public void visitImports(ModuleNode node) {
@@ -87,7 +153,7 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
                 }
                 String importFieldName = importNode.getFieldName();
                 if (importFieldName != null) {
-                    requestor.acceptUnknownReference(importFieldName.toCharArray(), 0);
+                    addReference(unknownRefs, importFieldName, 0);
                 }
             }
         }
@@ -100,38 +166,39 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
         if (methodStr == null)
             return;
 
-        char[] methodName = methodStr.toCharArray();
         int start = call.getStart();
         // also could be a field reference
-        requestor.acceptFieldReference(methodName, start);
-        // we don't know how many arguments the method has, so go up to 7.
-        for (int i = 0; i < 7; i++) {
-            requestor.acceptMethodReference(methodName, i, start);
-        }
+        addReference(fieldRefs, methodStr, start);
+        addReference(methodRefs, methodStr, start);
     }
 
     @Override
     public void visitFieldExpression(FieldExpression expression) {
         super.visitFieldExpression(expression);
-        requestor.acceptFieldReference(expression.getFieldName().toCharArray(), expression.getStart());
+        addReference(fieldRefs, expression.getFieldName(), expression.getStart());
     }
 
     @Override
     public void visitConstantExpression(ConstantExpression expression) {
-        if (!(expression.isTrueExpression() || expression.isFalseExpression() || expression.isNullExpression() || expression
-                .isEmptyStringExpression())) {
-            char[] constName = expression.getValue().toString().toCharArray();
+        // only strings can name a field or method; numbers, booleans and null cannot
+        if (expression.getValue() instanceof String && !expression.isEmptyStringExpression()) {
+            String constName = (String) expression.getValue();
             int start = expression.getStart();
-            requestor.acceptFieldReference(constName, start);
+            addReference(fieldRefs, constName, start);
             // also could be a method reference
-            // we don't know how many arguments the method has, so go up to 7.
-            for (int i = 0; i < 7; i++) {
-                requestor.acceptMethodReference(constName, i, start);
-            }
+            addReference(methodRefs, constName, start);
         }
         super.visitConstantExpression(expression);
     }
 
+    @Override
+    public void visitGStringExpression(GStringExpression expression) {
+        // the literal text between the placeholders cannot produce references
+        for (Expression value : (Iterable<Expression>) expression.getValues()) {
+            value.visit(this);
+        }
+    }
+
     @Override
     public void visitCastExpression(CastExpression expression) {
         handleType(expression.getType(), false, true);
@@ -145,9 +212,7 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
     @Override
     public void visitConstructorCallExpression(ConstructorCallExpression call) {
         super.visitConstructorCallExpression(call);
-        for (int i = 0; i < 10; i++) {
-            requestor.acceptConstructorReference(call.getType().getName().toCharArray(), i, call.getStart());
-        }
+        addReference(constructorRefs, call.getType().getName(), call.getStart());
         // handleType(call.getType(), false);
     }
 
@@ -160,7 +225,7 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
 
     @Override
     public void visitVariableExpression(VariableExpression expression) {
-        requestor.acceptUnknownReference(expression.getName().toCharArray(), expression.getStart());
+        addReference(unknownRefs, expression.getName(), expression.getStart());
     }
 
     @Override
@@ -224,10 +289,10 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
             return;
         }
         if (isAnnotation) {
-            requestor.acceptAnnotationTypeReference(splitName(node, useQualifiedName), node.getStart(), node.getEnd());
+            addReference(annotationRefs, splitName(node, useQualifiedName), node.getStart(), node.getEnd());
         } else {
             ClassNode componentType = node.getComponentType();
-            requestor.acceptTypeReference(splitName(componentType != null ? componentType : node, useQualifiedName),
+            addReference(typeRefs, splitName(componentType != null ? componentType : node, useQualifiedName),
                     node.getStart(), node.getEnd());
         }
         if (node.isUsingGenerics() && node.getGenericsTypes() != null) {
@@ -252,13 +317,67 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
         }
     }
 
+    private void addReference(Map<char[], Integer> refs, String name, int start) {
+        char[] symbol = intern(name);
+        if (!refs.containsKey(symbol)) {
+            refs.put(symbol, start);
+        }
+    }
+
+    private void addReference(Map<char[][], int[]> refs, char[][] name, int start, int end) {
+        if (!refs.containsKey(name)) {
+            refs.put(name, new int[] {start, end});
+        }
+    }
+
+    /**
+     * @return the unique char array for the given name; keys of the reference
+     *         maps can be compared by identity since they come from here
+     */
+    private char[] intern(String name) {
+        return symbols.intern(name);
+    }
+
     private char[][] splitName(ClassNode node, boolean useQualifiedName) {
-        String name = useQualifiedName ? node.getName() : node.getNameWithoutPackage();
-        String[] nameArr = name.split("\\.");
-        char[][] nameCharArr = new char[nameArr.length][];
-        for (int i = 0; i < nameArr.length; i++) {
-            nameCharArr[i] = nameArr[i].toCharArray();
+        return symbols.split(useQualifiedName ? node.getName() : node.getNameWithoutPackage());
+    }
+
+    /**
+     * Interned names, so that a name is converted (and a qualified name split)
+     * once per index job rather than once per occurrence.  Not thread-safe; the
+     * arrays handed out must not be modified.
+     */
+    static final class SymbolTable {
+        /** symbol table for simple names */
+        private final Map<String, char[]> symbols = new HashMap<String, char[]>();
+        /** symbol table for (possibly) qualified type names split on '.' */
+        private final Map<String, char[][]> qualifiedSymbols = new HashMap<String, char[][]>();
+
+        char[] intern(String name) {
+            char[] symbol = symbols.get(name);
+            if (symbol == null) {
+                symbol = name.toCharArray();
+                symbols.put(name, symbol);
+            }
+            return symbol;
+        }
+
+        char[][] split(String name) {
+            char[][] nameCharArr = qualifiedSymbols.get(name);
+            if (nameCharArr == null) {
+                int n = 1;
+                for (int i = 0, len = name.length(); i < len; i += 1) {
+                    if (name.charAt(i) == '.') n += 1;
+                }
+                nameCharArr = new char[n][];
+                for (int i = 0, j = 0, k = 0; i < n; i += 1, j = k + 1) {
+                    k = name.indexOf('.', j);
+                    if (k < 0) k = name.length();
+                    nameCharArr[i] = intern(name.substring(j, k));
+                }
+                qualifiedSymbols.put(name, nameCharArr);
+            }
+            return nameCharArr;
         }
-        return nameCharArr;
     }
 }
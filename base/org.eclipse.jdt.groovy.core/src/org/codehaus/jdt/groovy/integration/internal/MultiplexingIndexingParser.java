@@ -44,6 +44,8 @@ public class MultiplexingIndexingParser extends IndexingParser {
     SourceElementNotifier notifier;
     boolean groovyReportReferenceInfo;
     ISourceElementRequestor requestor;
+    // an index job uses one parser for all of its documents, so names are interned once per job
+    private final GroovyIndexingVisitor.SymbolTable symbols = new GroovyIndexingVisitor.SymbolTable();
 
     public MultiplexingIndexingParser(ISourceElementRequestor requestor, IProblemFactory problemFactory, CompilerOptions options,
             boolean reportLocalDeclarations, boolean optimizeStringLiterals, boolean useSourceJavadocParser) {
@@ -76,7 +78,7 @@ public class MultiplexingIndexingParser extends IndexingParser {
 
             // CompilationUnitDeclaration cud groovyParser.dietParse(sourceUnit, compilationResult);
             HashtableOfObjectToInt sourceEnds = createSourceEnds(cud);
-            GroovyIndexingVisitor visitor = new GroovyIndexingVisitor(requestor);
+            GroovyIndexingVisitor visitor = new GroovyIndexingVisitor(requestor, symbols);
             visitor.doVisit(cud.getModuleNode(), cud.currentPackage);
 
             notifier.notifySourceElementRequestor(cud, 0, unit.getContents().length, groovyReportReferenceInfo, sourceEnds,
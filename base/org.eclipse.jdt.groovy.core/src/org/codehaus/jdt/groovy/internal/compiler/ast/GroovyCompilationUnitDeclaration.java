@@ -36,6 +36,7 @@ import groovy.transform.PackageScopeTarget;
 import org.codehaus.groovy.GroovyBugError;
 import org.codehaus.groovy.ast.AnnotatedNode;
 import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
 import org.codehaus.groovy.ast.ClassHelper;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.CodeVisitorSupport;
@@ -62,6 +63,7 @@ import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.Janitor;
 import org.codehaus.groovy.control.MultipleCompilationErrorsException;
 import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.ProcessingUnit;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.control.io.ReaderSource;
 import org.codehaus.groovy.control.messages.ExceptionMessage;
@@ -69,6 +71,7 @@ import org.codehaus.groovy.control.messages.LocatedMessage;
 import org.codehaus.groovy.control.messages.Message;
 import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.SyntaxErrorMessage;
+import org.codehaus.groovy.eclipse.GrapeResolutionCache;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.syntax.CSTNode;
@@ -194,6 +197,9 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
      * processToPhase(), all the groovy files in the project proceed to that phase. This isn't ideal but doesn't necessarily cause a
      * problem. But it does mean progress reporting for the compilation is incorrect as it jumps rather than smoothly going from 1
      * to 100%.
+     * <p>
+     * A reconcile has a compilation unit of its own that holds only the unit being reconciled; the other types of the project come
+     * from the Java model and do not go through the Groovy phases.
      *
      * @param phase the phase to process up to
      * @return true if clean processing, false otherwise
@@ -216,11 +222,21 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
         // Our replacement error collector doesn't cause an exception, instead they are checked for post 'compile'
         try {
             ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            PhaseTimer phaseTimer = PhaseTimer.install(groovyCompilationUnit);
+            Object profilerContext = GroovyLogManager.manager.getTransformProfiler().setContext(
+                compilerOptions != null ? compilerOptions.groovyProjectName : null, groovyCompilationUnit.isReconcile);
+            boolean grapeContext = GrapeResolutionCache.setReconciling(groovyCompilationUnit.isReconcile);
             try {
                 Thread.currentThread().setContextClassLoader(groovyCompilationUnit.getTransformLoader());
                 groovyCompilationUnit.compile(phase);
+                recordDeferredGrapes(GrapeResolutionCache.getDeferred());
             } finally {
                 Thread.currentThread().setContextClassLoader(cl);
+                GroovyLogManager.manager.getTransformProfiler().restoreContext(profilerContext);
+                GrapeResolutionCache.restoreReconciling(grapeContext);
+                if (phaseTimer != null) {
+                    phaseTimer.uninstall();
+                }
             }
             if (groovySourceUnit.getErrorCollector().hasErrors()) {
                 recordProblems(groovySourceUnit.getErrorCollector().getErrors());
@@ -279,6 +295,58 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
         return false;
     }
 
+    /**
+     * Records the time of each phase that a compile goes through in its own
+     * timer.  {@link CompilationUnit#compile(int)} goes through all phases up
+     * to the given one, so a single timer would measure them cumulatively;
+     * phases that the unit completed in an earlier call are not recorded.
+     */
+    private static final class PhaseTimer extends CompilationUnit.ProgressCallback {
+
+        /**
+         * @return the installed timer or {@code null} if metrics are disabled
+         */
+        static PhaseTimer install(CompilationUnit unit) {
+            long start = GroovyLogManager.manager.getMetrics().start();
+            if (start == 0L) {
+                return null;
+            }
+            PhaseTimer timer = new PhaseTimer(unit, start);
+            unit.setProgressCallback(timer);
+            return timer;
+        }
+
+        private final CompilationUnit unit;
+        private final CompilationUnit.ProgressCallback previous;
+        private final int firstPhase;
+        private long start;
+
+        private PhaseTimer(CompilationUnit unit, long start) {
+            this.unit = unit;
+            this.previous = unit.getProgressCallback();
+            this.firstPhase = unit.getPhase();
+            this.start = start;
+        }
+
+        @Override
+        public void call(ProcessingUnit context, int phase) {
+            if (previous != null) {
+                previous.call(context, phase);
+            }
+            // also called for each source unit that is converted
+            if (context == unit) {
+                if (phase >= firstPhase) {
+                    GroovyLogManager.manager.getMetrics().stop(TraceCategory.COMPILER, Phases.getDescription(phase), start);
+                }
+                start = GroovyLogManager.manager.getMetrics().start();
+            }
+        }
+
+        void uninstall() {
+            unit.setProgressCallback(previous);
+        }
+    }
+
     /** Unwraps any SyntaxExceptions embedded within a GroovyRuntimeException. */
     private void fixGroovyRuntimeException(MultipleCompilationErrorsException mce) {
         List<SyntaxException> syntaxErrors = new ArrayList<SyntaxException>();
@@ -346,66 +414,62 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
             // we have to do very little hunting for the binding and don't have to mess around with strings (chopping off
             // packages, etc).
 
-            // This returns all of them, for all source files
-            List<GroovyClass> classes = groovyCompilationUnit.getClasses();
+            // Only those coming about because of this groovySourceUnit; once handed to JDT (which writes them out as each unit is
+            // accepted) the groovy compilation unit no longer holds on to their bytes
+            List<GroovyClass> classes = groovyCompilationUnit.takeClasses(groovySourceUnit);
 
             if (DEBUG) {
                 log("Processing sourceUnit " + groovySourceUnit.getName());
             }
 
+            Map<ClassNode, SourceTypeBinding> bindings = new HashMap<ClassNode, SourceTypeBinding>();
+            if (types != null) {
+                indexBindings(types, bindings);
+            }
+
             for (GroovyClass clazz : classes) {
                 ClassNode classnode = clazz.getClassNode();
                 if (DEBUG) {
                     log("Looking at class " + clazz.getName());
                     log("ClassNode where it came from " + classnode);
                 }
-                // Only care about those coming about because of this groovySourceUnit
-                if (clazz.getSourceUnit() == groovySourceUnit) {
-                    if (DEBUG) {
-                        log("It is from this source unit");
-                    }
-                    // Worth continuing
-                    String classname = clazz.getName();
-                    SourceTypeBinding binding = null;
-                    if (types != null && types.length != 0) {
-                        binding = findBinding(types, clazz.getClassNode());
-                    }
-                    if (DEBUG) {
-                        log("Binding located? " + (binding != null));
-                    }
-                    if (binding == null) {
-                        // closures will be represented as InnerClassNodes
-                        ClassNode current = classnode;
-                        while (current instanceof InnerClassNode && binding == null) {
-                            current = ((InnerClassNode) current).getOuterClass();
-                            binding = findBinding(types, current);
-                            if (DEBUG) {
-                                log("Had another look because it is in an InnerClassNode, found binding? " + (binding != null));
-                            }
+                String classname = clazz.getName();
+                SourceTypeBinding binding = bindings.get(classnode);
+                if (DEBUG) {
+                    log("Binding located? " + (binding != null));
+                }
+                if (binding == null) {
+                    // closures will be represented as InnerClassNodes
+                    ClassNode current = classnode;
+                    while (current instanceof InnerClassNode && binding == null) {
+                        current = ((InnerClassNode) current).getOuterClass();
+                        binding = bindings.get(current);
+                        if (DEBUG) {
+                            log("Had another look because it is in an InnerClassNode, found binding? " + (binding != null));
                         }
                     }
+                }
 
-                    boolean isScript = false;
-                    // Suppress class file output if it is a script
-                    // null binding implies synthetic type, which we assume cannot be a script
-                    if (binding != null && binding.scope != null && (binding.scope.parent instanceof GroovyCompilationUnitScope)) {
-                        GroovyCompilationUnitScope gcuScope = (GroovyCompilationUnitScope) binding.scope.parent;
-                        if (gcuScope.isScript()) {
-                            isScript = true;
-                        }
+                boolean isScript = false;
+                // Suppress class file output if it is a script
+                // null binding implies synthetic type, which we assume cannot be a script
+                if (binding != null && binding.scope != null && (binding.scope.parent instanceof GroovyCompilationUnitScope)) {
+                    GroovyCompilationUnitScope gcuScope = (GroovyCompilationUnitScope) binding.scope.parent;
+                    if (gcuScope.isScript()) {
+                        isScript = true;
                     }
-                    if (!isScript) {
-                        byte[] classbytes = clazz.getBytes();
-                        String path = clazz.getName().replace('.', '/');
-                        GroovyClassFile classFile = new GroovyClassFile(classname, classbytes, binding, path);
-                        char[] classNameChars = classname.toCharArray();
-                        if (binding == null) {
-                            // GRECLIPSE-1653 this type likely added by AST transform and is synthetic
-                            Map<char[], ClassFile> compiledTypes = Map.class.cast(compilationResult.compiledTypes);
-                            compiledTypes.put(classNameChars, classFile);
-                        } else {
-                            compilationResult.record(classNameChars, classFile);
-                        }
+                }
+                if (!isScript) {
+                    byte[] classbytes = clazz.getBytes();
+                    String path = clazz.getName().replace('.', '/');
+                    GroovyClassFile classFile = new GroovyClassFile(classname, classbytes, binding, path);
+                    char[] classNameChars = classname.toCharArray();
+                    if (binding == null) {
+                        // GRECLIPSE-1653 this type likely added by AST transform and is synthetic
+                        Map<char[], ClassFile> compiledTypes = Map.class.cast(compilationResult.compiledTypes);
+                        compiledTypes.put(classNameChars, classFile);
+                    } else {
+                        compilationResult.record(classNameChars, classFile);
                     }
                 }
             }
@@ -427,20 +491,111 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
         System.out.println(message);
     }
 
-    private static SourceTypeBinding findBinding(TypeDeclaration[] typedeclarations, ClassNode cnode) {
+    /**
+     * Maps the class node of each of the type declarations (and their member types) to its binding; where two class nodes are
+     * equal, the first one met (depth first) is kept.
+     */
+    private static void indexBindings(TypeDeclaration[] typedeclarations, Map<ClassNode, SourceTypeBinding> bindings) {
         for (TypeDeclaration typedeclaration : typedeclarations) {
-            GroovyTypeDeclaration groovyTypeDeclaration = (GroovyTypeDeclaration) typedeclaration;
-            if (groovyTypeDeclaration.getClassNode().equals(cnode)) {
-                return groovyTypeDeclaration.binding;
+            ClassNode classnode = ((GroovyTypeDeclaration) typedeclaration).getClassNode();
+            if (!bindings.containsKey(classnode)) {
+                bindings.put(classnode, typedeclaration.binding);
             }
             if (typedeclaration.memberTypes != null) {
-                SourceTypeBinding binding = findBinding(typedeclaration.memberTypes, cnode);
-                if (binding != null) {
-                    return binding;
+                indexBindings(typedeclaration.memberTypes, bindings);
+            }
+        }
+    }
+
+    /**
+     * Warns about the {@code @Grab} dependencies that a reconcile went on
+     * without, since they are still being resolved; the types they contain
+     * are unknown until the unit is reconciled again.
+     */
+    private void recordDeferredGrapes(List<Map<String, Object>> dependencies) {
+        if (dependencies.isEmpty()) {
+            return;
+        }
+        for (Map<String, Object> dependency : dependencies) {
+            String msg = "Groovy:Dependency " + dependency.get("group") + ":" + dependency.get("module") + ":" + dependency.get("version") +
+                " is being resolved in the background; its types are not available yet";
+
+            // point at the dependency's @Grab annotation if it can be found
+            org.codehaus.groovy.ast.ASTNode grab = findGrab(dependency);
+            int soffset, eoffset;
+            if (grab != null && grab.getEnd() > 0) {
+                soffset = grab.getStart();
+                eoffset = grab.getEnd() - 1;
+            } else {
+                soffset = eoffset = 0;
+            }
+            int[] lineEnds = compilationResult.getLineSeparatorPositions();
+            int line = org.eclipse.jdt.internal.compiler.util.Util.getLineNumber(soffset, lineEnds, 0, lineEnds.length - 1);
+            int scol = org.eclipse.jdt.internal.compiler.util.Util.searchColumnNumber(lineEnds, line, soffset);
+
+            CategorizedProblem p = new DefaultProblemFactory().createProblem(getFileName(), 0, new String[] {msg}, 0,
+                new String[] {msg}, ProblemSeverities.Warning, soffset, eoffset, line, scol);
+            problemReporter.record(p, compilationResult, this, false);
+        }
+    }
+
+    /**
+     * @return the "module" member of the {@code @Grab} annotation for the
+     *         dependency or, if that has no position (as when the dependency is
+     *         given as "group:module:version"), the annotation itself
+     */
+    private org.codehaus.groovy.ast.ASTNode findGrab(final Map<String, Object> dependency) {
+        final org.codehaus.groovy.ast.ASTNode[] found = new org.codehaus.groovy.ast.ASTNode[1];
+        ClassCodeVisitorSupport visitor = new ClassCodeVisitorSupport() {
+            @Override
+            protected SourceUnit getSourceUnit() {
+                return groovySourceUnit;
+            }
+
+            @Override
+            public void visitAnnotations(AnnotatedNode node) {
+                super.visitAnnotations(node);
+                for (AnnotationNode annotation : node.getAnnotations()) {
+                    visitGrab(annotation);
+                }
+            }
+
+            private void visitGrab(AnnotationNode annotation) {
+                if (found[0] != null) {
+                    return;
+                }
+                Expression module = annotation.getMember("module");
+                if (isConstant(module, dependency.get("module")) && isConstant(annotation.getMember("group"), dependency.get("group"))) {
+                    found[0] = (module.getEnd() > 0 ? module : annotation);
+                    return;
+                }
+                // @Grapes holds its @Grab annotations in its value
+                Expression value = annotation.getMember("value");
+                if (value instanceof ListExpression) {
+                    for (Expression expression : ((ListExpression) value).getExpressions()) {
+                        if (expression instanceof AnnotationConstantExpression) {
+                            visitGrab((AnnotationNode) ((AnnotationConstantExpression) expression).getValue());
+                        }
+                    }
+                } else if (value instanceof AnnotationConstantExpression) {
+                    visitGrab((AnnotationNode) ((AnnotationConstantExpression) value).getValue());
+                }
+            }
+        };
+        ModuleNode module = getModuleNode();
+        if (module != null) {
+            for (ClassNode classNode : module.getClasses()) {
+                visitor.visitClass(classNode);
+                if (found[0] != null) {
+                    break;
                 }
             }
         }
-        return null;
+        return found[0];
+    }
+
+    private static boolean isConstant(Expression expression, Object value) {
+        return (expression instanceof ConstantExpression && value != null && value.equals(((ConstantExpression) expression).getValue()));
     }
 
     // here be dragons
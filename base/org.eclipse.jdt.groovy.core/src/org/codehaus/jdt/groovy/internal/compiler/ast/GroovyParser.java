@@ -138,6 +138,7 @@ public class GroovyParser {
         // This will orphan the loader on the heap
         projectToLoaderCache.remove(projectName);
         scriptFolderSelectorCache.remove(projectName);
+        ResolutionCache.reset();
     }
 
     public static void closeClassLoader(String projectName) {
@@ -335,6 +336,15 @@ public class GroovyParser {
      * Call the groovy parser to drive the first few phases of
      */
     public CompilationUnitDeclaration dietParse(ICompilationUnit sourceUnit, CompilationResult compilationResult) {
+        long start = GroovyLogManager.manager.getMetrics().start();
+        try {
+            return dietParse0(sourceUnit, compilationResult);
+        } finally {
+            GroovyLogManager.manager.getMetrics().stop(TraceCategory.COMPILER, "parse", start);
+        }
+    }
+
+    private CompilationUnitDeclaration dietParse0(ICompilationUnit sourceUnit, CompilationResult compilationResult) {
         char[] sourceCode = sourceUnit.getContents();
         if (sourceCode == null) {
             sourceCode = CharOperation.NO_CHAR; // pretend empty from thereon
@@ -504,6 +514,8 @@ public class GroovyParser {
         this.resolver = new JDTResolver(cu);
         cu.setResolveVisitor(resolver);
         cu.tweak(isReconcile);
+        // each unit takes its class files in generateCode; they are not needed after that
+        cu.streamGeneratedClasses = true;
 
         // Grails add
         if (allowTransforms && transformLoader != null && compilerOptions != null && (compilerOptions.groovyFlags & CompilerUtils.IsGrails) != 0) {
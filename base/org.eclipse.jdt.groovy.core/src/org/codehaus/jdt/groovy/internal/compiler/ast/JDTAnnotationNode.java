@@ -92,10 +92,16 @@ public class JDTAnnotationNode extends AnnotationNode {
     }
 
     private void ensureMembersInitialized() {
-        if (membersInitialized) {
-            return;
+        // lookups are serialized on the resolver if class generation runs in parallel
+        synchronized (resolver.serializeLookups ? resolver : this) {
+            if (!membersInitialized) {
+                membersInitialized = true;
+                initializeMembers();
+            }
         }
-        membersInitialized = true;
+    }
+
+    private void initializeMembers() {
         ElementValuePair[] evpairs = annotationBinding.getElementValuePairs();
         for (ElementValuePair evpair : evpairs) {
             char[] name = evpair.getName();
@@ -15,8 +15,13 @@
  */
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.codehaus.groovy.GroovyBugError;
@@ -32,10 +37,8 @@ import org.codehaus.groovy.ast.PropertyNode;
 import org.codehaus.groovy.ast.expr.ConstantExpression;
 import org.codehaus.groovy.ast.expr.Expression;
 import org.codehaus.groovy.ast.stmt.Statement;
-import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration.FieldDeclarationWithInitializer;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.compiler.CharOperation;
-import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.impl.BooleanConstant;
 import org.eclipse.jdt.internal.compiler.impl.ByteConstant;
@@ -62,8 +65,8 @@ import org.eclipse.jdt.internal.compiler.lookup.ParameterizedTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.RawTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.ReferenceBinding;
 import org.eclipse.jdt.internal.compiler.lookup.SourceTypeBinding;
-import org.eclipse.jdt.internal.compiler.lookup.SyntheticMethodBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
 
 /**
@@ -71,6 +74,10 @@ import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
  * required (as groovy references to java files are resolved). They remain
  * uninitialized until groovy starts digging into them - at that time the details
  * are filled in (eg. members).
+ * <p>
+ * Members are filled in as they are asked for: methods and fields by name and
+ * constructors together.  All methods or all fields are only materialized when
+ * Groovy asks for the complete list (or adds to it).
  */
 public class JDTClassNode extends ClassNode implements JDTNode {
 
@@ -93,6 +100,17 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     private static final int PROPERTIES_INITIALIZED = 0x0002;
     private TypeDeclaration groovyDecl = null;
 
+    // Member flags and caches; guarded by getInitLock(lazyInitLock)
+    private int memberBits = 0;
+    private static final int MEMBERS_PREPARED = 0x0001;
+    private static final int METHODS_INITIALIZED = 0x0002;
+    private static final int CONSTRUCTORS_INITIALIZED = 0x0004;
+    private static final int FIELDS_INITIALIZED = 0x0008;
+    // methods and fields materialized by name, until all of their kind are
+    private Map<String, List<MethodNode>> methodsByName;
+    private Map<MethodBinding, MethodNode> methodNodes;
+    private Map<String, FieldNode> fieldsByName;
+
     static final ClassNode unboundWildcard; // represents plain old '?'
 
     static final GenericsType genericsTypeUnboundWildcard;
@@ -151,7 +169,7 @@ public class JDTClassNode extends ClassNode implements JDTNode {
 
     @Override
     public void lazyClassInit() {
-        synchronized (lazyInitLock) {
+        synchronized (getInitLock(lazyInitLock)) {
             if (lazyInitDone) {
                 return;
             }
@@ -161,6 +179,16 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     }
 
     public void setupGenerics() {
+        if (resolver.serializeLookups) {
+            synchronized (resolver) {
+                initializeGenerics();
+            }
+        } else {
+            initializeGenerics();
+        }
+    }
+
+    private void initializeGenerics() {
         if (anyGenericsInitialized) {
             return;
         }
@@ -183,6 +211,15 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         }
     }
 
+    /**
+     * Lazy initialization looks up members and types in JDT's environment.  If
+     * class generation runs in parallel, these lookups are serialized on the
+     * resolver; otherwise the given lock of this node is used.
+     */
+    private Object getInitLock(Object lock) {
+        return (resolver.serializeLookups ? resolver : lock);
+    }
+
     // JDTClassNodes are created because of a JDT Reference Binding file so are always 'resolved' (although not initialized on creation)
     @Override
     public boolean isResolved() {
@@ -222,110 +259,324 @@ public class JDTClassNode extends ClassNode implements JDTNode {
                 interfaces[i] = resolver.convertToClassNode(superInterfaceBindings[i]);
             }
             setInterfaces(interfaces);
-            initializeMembers();
+
+            if (jdtBinding instanceof SourceTypeBinding) {
+                SourceTypeBinding sourceType = (SourceTypeBinding) jdtBinding;
+                if (sourceType.scope != null) {
+                    TypeDeclaration typeDecl = sourceType.scope.referenceContext;
+                    if (typeDecl instanceof GroovyTypeDeclaration) {
+                        groovyDecl = typeDecl;
+                    }
+                }
+            }
         } finally {
             beingInitialized = false;
         }
     }
 
-    private void initializeMembers() {
-        if (jdtBinding instanceof SourceTypeBinding) {
-            SourceTypeBinding sourceType = (SourceTypeBinding) jdtBinding;
-            if (sourceType.scope != null) {
-                TypeDeclaration typeDecl = sourceType.scope.referenceContext;
-                if (typeDecl instanceof GroovyTypeDeclaration) {
-                    groovyDecl = typeDecl;
+    // The code in ClassNode seems set up to get member information *always* from the end of the 'redirect' chain.
+    // So, the redirect target is responsible for its own members initialisation; initializing members here as well
+    // would add duplicated members to the redirect target.
+
+    @Override
+    public List<MethodNode> getMethods() {
+        if (redirect == null) {
+            ensureMethodsInitialized();
+        }
+        return super.getMethods();
+    }
+
+    @Override
+    public List<MethodNode> getDeclaredMethods(String name) {
+        if (redirect == null) {
+            synchronized (getInitLock(lazyInitLock)) {
+                lazyClassInit();
+                if ((memberBits & METHODS_INITIALIZED) == 0) {
+                    return getMethodsByName(name);
                 }
             }
         }
+        return super.getDeclaredMethods(name);
+    }
 
-        // We do this here rather than at the start of the method because
-        // the preceding code sets 'groovyDecl', later used to 'initializeProperties'.
+    @Override
+    public void addMethod(MethodNode node) {
+        if (redirect == null) {
+            ensureMethodsInitialized();
+        }
+        super.addMethod(node);
+    }
 
-        // From this point onward... the code is only about initializing fields, constructors and methods.
-        if (redirect != null) {
-            // The code in ClassNode seems set up to get field information *always* from the end of the 'redirect' chain.
-            // So, the redirect target should be responsible for its own members initialisation.
+    @Override
+    public List<ConstructorNode> getDeclaredConstructors() {
+        if (redirect == null) {
+            ensureConstructorsInitialized();
+        }
+        return super.getDeclaredConstructors();
+    }
 
-            // If we initialize members here again, when redirect target is already
-            // initialised then we will be adding duplicated methods to the redirect target.
+    @Override
+    public void addConstructor(ConstructorNode node) {
+        if (redirect == null) {
+            ensureConstructorsInitialized();
+        }
+        super.addConstructor(node);
+    }
 
-            return;
+    @Override
+    public List<FieldNode> getFields() {
+        if (redirect == null) {
+            ensureFieldsInitialized();
         }
+        return super.getFields();
+    }
 
-        try {
-            MethodBinding[] methodBindings;
-            if (jdtBinding instanceof ParameterizedTypeBinding) {
-                ReferenceBinding genericType = ((ParameterizedTypeBinding) jdtBinding).genericType();
-                methodBindings = genericType.methods();
-            } else {
-                methodBindings = jdtBinding.methods();
+    @Override
+    public FieldNode getDeclaredField(String name) {
+        if (redirect == null) {
+            synchronized (getInitLock(lazyInitLock)) {
+                lazyClassInit();
+                if ((memberBits & FIELDS_INITIALIZED) == 0) {
+                    return getFieldByName(name);
+                }
             }
-            if (methodBindings != null) {
-                for (MethodBinding methodBinding : methodBindings) {
-                    if (methodBinding.isConstructor()) {
-                        ConstructorNode cNode = constructorBindingToConstructorNode(methodBinding);
-                        addConstructor(cNode);
-                    } else {
-                        MethodNode mNode = methodBindingToMethodNode(methodBinding);
-                        addMethod(mNode);
+        }
+        return super.getDeclaredField(name);
+    }
+
+    @Override
+    public void addField(FieldNode node) {
+        if (redirect == null) {
+            ensureFieldsInitialized();
+        }
+        super.addField(node);
+    }
+
+    @Override
+    public void addFieldFirst(FieldNode node) {
+        if (redirect == null) {
+            ensureFieldsInitialized();
+        }
+        super.addFieldFirst(node);
+    }
+
+    @Override
+    public void removeField(String oldName) {
+        if (redirect == null) {
+            ensureFieldsInitialized();
+        }
+        super.removeField(oldName);
+    }
+
+    @Override
+    public void renameField(String oldName, String newName) {
+        if (redirect == null) {
+            ensureFieldsInitialized();
+        }
+        super.renameField(oldName, newName);
+    }
+
+    // not an override before Groovy 2.3
+    public void removeMethod(MethodNode node) {
+        if (redirect == null) {
+            ensureMethodsInitialized();
+        }
+        super.removeMethod(node);
+    }
+
+    // not an override before Groovy 2.4
+    public void removeConstructor(ConstructorNode node) {
+        if (redirect == null) {
+            ensureConstructorsInitialized();
+        }
+        super.removeConstructor(node);
+    }
+
+    private void ensureMethodsInitialized() {
+        synchronized (getInitLock(lazyInitLock)) {
+            lazyClassInit();
+            if ((memberBits & METHODS_INITIALIZED) == 0) {
+                try {
+                    for (MethodBinding methodBinding : getMethodBindings(null)) {
+                        if (!methodBinding.isConstructor()) {
+                            super.addMethod(getMethodNode(methodBinding));
+                        }
                     }
+                } catch (RuntimeException e) {
+                    throw new RuntimeException("Failed to initialize methods for type " + getName(), e);
+                } finally {
+                    methodsByName = null;
+                    methodNodes = null;
+                    memberBits |= METHODS_INITIALIZED;
                 }
             }
+        }
+    }
 
-            if (jdtBinding instanceof BinaryTypeBinding) {
-                MethodBinding[] infraBindings = ((BinaryTypeBinding) jdtBinding).infraMethods();
-                for (MethodBinding methodBinding : infraBindings) {
-                    if (methodBinding.isConstructor()) {
-                        ConstructorNode cNode = constructorBindingToConstructorNode(methodBinding);
-                        addConstructor(cNode);
-                    } else {
-                        MethodNode mNode = methodBindingToMethodNode(methodBinding);
-                        addMethod(mNode);
+    private void ensureConstructorsInitialized() {
+        synchronized (getInitLock(lazyInitLock)) {
+            lazyClassInit();
+            if ((memberBits & CONSTRUCTORS_INITIALIZED) == 0) {
+                try {
+                    for (MethodBinding methodBinding : getMethodBindings(TypeConstants.INIT)) {
+                        if (methodBinding.isConstructor()) {
+                            super.addConstructor(constructorBindingToConstructorNode(methodBinding));
+                        }
                     }
+                } catch (RuntimeException e) {
+                    throw new RuntimeException("Failed to initialize constructors for type " + getName(), e);
+                } finally {
+                    memberBits |= CONSTRUCTORS_INITIALIZED;
                 }
-            } else if (jdtBinding instanceof SourceTypeBinding) {
-                SourceTypeBinding jdtSourceTypeBinding = (SourceTypeBinding) jdtBinding;
-                ClassScope classScope = jdtSourceTypeBinding.scope;
-                // a null scope indicates it has already been 'cleaned up' so nothing to do (CUDeclaration.cleanUp())
-                if (classScope != null) {
-                    CompilationUnitScope cuScope = classScope.compilationUnitScope();
-                    LookupEnvironment environment = classScope.environment();
-                    MethodVerifier verifier = environment.methodVerifier();
-                    cuScope.verifyMethods(verifier);
-                }
-                if (jdtSourceTypeBinding.isPrototype()) {
-                    // Synthetic bindings are created for features like covariance, where the method implementing an interface method uses a
-                    // different return type (interface I { A foo(); } class C implements I { AA foo(); } - this needs a method 'A foo()' in C.
-                    SyntheticMethodBinding[] syntheticMethodBindings = jdtSourceTypeBinding.syntheticMethods();
-                    if (syntheticMethodBindings != null) {
-                        for (SyntheticMethodBinding syntheticBinding : syntheticMethodBindings) {
-                            if (syntheticBinding.isConstructor()) {
-                                ConstructorNode cNode = constructorBindingToConstructorNode(syntheticBinding);
-                                addConstructor(cNode);
-                            } else {
-                                MethodNode mNode = methodBindingToMethodNode(syntheticBinding);
-                                addMethod(mNode);
+            }
+        }
+    }
+
+    private void ensureFieldsInitialized() {
+        synchronized (getInitLock(lazyInitLock)) {
+            lazyClassInit();
+            if ((memberBits & FIELDS_INITIALIZED) == 0) {
+                try {
+                    FieldBinding[] fieldBindings;
+                    if (jdtBinding instanceof ParameterizedTypeBinding) {
+                        fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
+                    } else {
+                        fieldBindings = jdtBinding.fields();
+                    }
+                    if (fieldBindings != null) {
+                        for (FieldBinding fieldBinding : fieldBindings) {
+                            FieldNode fNode = (fieldsByName != null ? fieldsByName.get(String.valueOf(fieldBinding.name)) : null);
+                            if (fNode == null || ((JDTFieldNode) fNode).getFieldBinding() != fieldBinding) {
+                                fNode = fieldBindingToFieldNode(fieldBinding, groovyDecl);
                             }
+                            super.addField(fNode);
                         }
                     }
+                } catch (RuntimeException e) {
+                    throw new RuntimeException("Failed to initialize fields for type " + getName(), e);
+                } finally {
+                    fieldsByName = null;
+                    memberBits |= FIELDS_INITIALIZED;
                 }
             }
+        }
+    }
 
-            FieldBinding[] fieldBindings;
-            if (jdtBinding instanceof ParameterizedTypeBinding) {
-                fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
-            } else {
-                fieldBindings = jdtBinding.fields();
+    private List<MethodNode> getMethodsByName(String name) {
+        if (methodsByName == null) {
+            methodsByName = new HashMap<String, List<MethodNode>>();
+        }
+        List<MethodNode> nodes = methodsByName.get(name);
+        if (nodes == null) {
+            try {
+                nodes = new ArrayList<MethodNode>(2);
+                for (MethodBinding methodBinding : getMethodBindings(name.toCharArray())) {
+                    if (!methodBinding.isConstructor()) {
+                        nodes.add(getMethodNode(methodBinding));
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Failed to initialize methods named " + name + " for type " + getName(), e);
+            }
+            if (nodes.isEmpty()) {
+                nodes = Collections.emptyList();
             }
-            if (fieldBindings != null) {
-                for (FieldBinding fieldBinding : fieldBindings) {
-                    FieldNode fNode = fieldBindingToFieldNode(fieldBinding, groovyDecl);
-                    addField(fNode);
+            methodsByName.put(name, nodes);
+        }
+        return nodes;
+    }
+
+    private MethodNode getMethodNode(MethodBinding methodBinding) {
+        if (methodNodes == null) {
+            methodNodes = new IdentityHashMap<MethodBinding, MethodNode>();
+        }
+        MethodNode mNode = methodNodes.get(methodBinding);
+        if (mNode == null) {
+            mNode = methodBindingToMethodNode(methodBinding);
+            mNode.setDeclaringClass(this);
+            methodNodes.put(methodBinding, mNode);
+        }
+        return mNode;
+    }
+
+    private FieldNode getFieldByName(String name) {
+        if (fieldsByName == null) {
+            fieldsByName = new HashMap<String, FieldNode>();
+        }
+        FieldNode fNode = fieldsByName.get(name);
+        if (fNode == null && !fieldsByName.containsKey(name)) {
+            try {
+                FieldBinding fieldBinding;
+                if (jdtBinding instanceof ParameterizedTypeBinding) {
+                    fieldBinding = ((ParameterizedTypeBinding) jdtBinding).genericType().getField(name.toCharArray(), true);
+                } else {
+                    fieldBinding = jdtBinding.getField(name.toCharArray(), true);
+                }
+                if (fieldBinding != null) {
+                    fNode = fieldBindingToFieldNode(fieldBinding, groovyDecl);
+                    fNode.setDeclaringClass(this);
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Failed to initialize field " + name + " for type " + getName(), e);
+            }
+            fieldsByName.put(name, fNode);
+        }
+        return fNode;
+    }
+
+    /**
+     * @param selector the name of the methods or {@code null} for all methods
+     * @return the method bindings of the type (including the ones that JDT
+     *         skips, like synthetic methods) in declaration order
+     */
+    private List<MethodBinding> getMethodBindings(char[] selector) {
+        prepareMembers();
+
+        List<MethodBinding> result = new ArrayList<MethodBinding>();
+        ReferenceBinding type = jdtBinding;
+        if (type instanceof ParameterizedTypeBinding) {
+            type = ((ParameterizedTypeBinding) type).genericType();
+        }
+        MethodBinding[] methodBindings = (selector == null ? type.methods() : type.getMethods(selector));
+        if (methodBindings != null) {
+            Collections.addAll(result, methodBindings);
+        }
+
+        if (jdtBinding instanceof BinaryTypeBinding) {
+            addMethodBindings(((BinaryTypeBinding) jdtBinding).infraMethods(), selector, result);
+        } else if (jdtBinding instanceof SourceTypeBinding) {
+            if (((SourceTypeBinding) jdtBinding).isPrototype()) {
+                // Synthetic bindings are created for features like covariance, where the method implementing an interface method uses a
+                // different return type (interface I { A foo(); } class C implements I { AA foo(); } - this needs a method 'A foo()' in C.
+                addMethodBindings(((SourceTypeBinding) jdtBinding).syntheticMethods(), selector, result);
+            }
+        }
+        return result;
+    }
+
+    private static void addMethodBindings(MethodBinding[] methodBindings, char[] selector, List<MethodBinding> result) {
+        if (methodBindings != null) {
+            for (MethodBinding methodBinding : methodBindings) {
+                if (selector == null || CharOperation.equals(selector, methodBinding.selector)) {
+                    result.add(methodBinding);
+                }
+            }
+        }
+    }
+
+    private void prepareMembers() {
+        if ((memberBits & MEMBERS_PREPARED) == 0) {
+            memberBits |= MEMBERS_PREPARED;
+            if (jdtBinding instanceof SourceTypeBinding) {
+                ClassScope classScope = ((SourceTypeBinding) jdtBinding).scope;
+                // a null scope indicates it has already been 'cleaned up' so nothing to do (CUDeclaration.cleanUp())
+                if (classScope != null) {
+                    CompilationUnitScope cuScope = classScope.compilationUnitScope();
+                    LookupEnvironment environment = classScope.environment();
+                    MethodVerifier verifier = environment.methodVerifier();
+                    cuScope.verifyMethods(verifier);
                 }
             }
-        } catch (RuntimeException e) {
-            throw new RuntimeException("Failed to initialize members for type " + getName(), e);
         }
     }
 
@@ -454,16 +705,10 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         Constant c = fieldBinding.constant();
 
         Expression initializerExpression = null;
-        // FIXASC for performance reasons could fetch the initializer lazily if a JDTFieldNode were created
         if (c == Constant.NotAConstant) {
-            /**
-             * If the field binding is for a real source field, we should be able to see any initializer in it.
-             */
+            // if the field binding is for a real source field, the field node fetches its initializer when asked
             if (groovyTypeDecl != null) {
-                FieldDeclaration fieldDecl = groovyTypeDecl.declarationOf(fieldBinding);
-                if (fieldDecl instanceof FieldDeclarationWithInitializer) {
-                    initializerExpression = ((FieldDeclarationWithInitializer) fieldDecl).getGroovyInitializer();
-                }
+                return new JDTFieldNode(fieldBinding, resolver, name, modifiers, fieldType, this, groovyTypeDecl);
             }
         } else {
             if (c instanceof StringConstant) {
@@ -522,17 +767,19 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         return super.getAnnotations(type);
     }
 
-    private synchronized void ensureAnnotationsInitialized() {
-        if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
-            if ((jdtBinding instanceof SourceTypeBinding)) {
-                // ensure resolved
-                ((SourceTypeBinding) jdtBinding).getAnnotationTagBits();
-            }
-            AnnotationBinding[] annotationBindings = jdtBinding.getAnnotations();
-            for (AnnotationBinding annotationBinding : annotationBindings) {
-                addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+    private void ensureAnnotationsInitialized() {
+        synchronized (getInitLock(this)) {
+            if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
+                if ((jdtBinding instanceof SourceTypeBinding)) {
+                    // ensure resolved
+                    ((SourceTypeBinding) jdtBinding).getAnnotationTagBits();
+                }
+                AnnotationBinding[] annotationBindings = jdtBinding.getAnnotations();
+                for (AnnotationBinding annotationBinding : annotationBindings) {
+                    addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+                }
+                bits |= ANNOTATIONS_INITIALIZED;
             }
-            bits |= ANNOTATIONS_INITIALIZED;
         }
     }
 
@@ -542,32 +789,38 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         }
     }
 
-    protected synchronized void initializeProperties() {
-        if ((bits & PROPERTIES_INITIALIZED) == 0) {
-            lazyClassInit();
-            // getX methods
-            // make it behave like groovy - no property nodes unless it is groovy source
-            if (groovyDecl != null) {
-                Set<String> existing = new HashSet<String>();
-                for (MethodNode methodNode : getMethods()) {
-                    if (isGetter(methodNode)) {
-                        // STS-2628 be careful not to double-add properties if there is a getter and an isser variant
-                        String propertyName = convertToPropertyName(methodNode.getName());
-                        if (!existing.contains(propertyName)) {
-                            existing.add(propertyName);
-                            // Adding a real field for these accessors can trip up CompileStatic which
-                            // will attempt to access it as a real field
-                            super.addPropertyWithoutField(createPropertyNodeForMethodNode(methodNode, propertyName));
-                            // super.addProperty(createPropertyNodeForMethodNode(methodNode, propertyName));
+    protected void initializeProperties() {
+        synchronized (getInitLock(this)) {
+            if ((bits & PROPERTIES_INITIALIZED) == 0) {
+                lazyClassInit();
+                if (groovyDecl != null) {
+                    // property creation replaces fields by name
+                    ensureFieldsInitialized();
+                }
+                // getX methods
+                // make it behave like groovy - no property nodes unless it is groovy source
+                if (groovyDecl != null) {
+                    Set<String> existing = new HashSet<String>();
+                    for (MethodNode methodNode : getMethods()) {
+                        if (isGetter(methodNode)) {
+                            // STS-2628 be careful not to double-add properties if there is a getter and an isser variant
+                            String propertyName = convertToPropertyName(methodNode.getName());
+                            if (!existing.contains(propertyName)) {
+                                existing.add(propertyName);
+                                // Adding a real field for these accessors can trip up CompileStatic which
+                                // will attempt to access it as a real field
+                                super.addPropertyWithoutField(createPropertyNodeForMethodNode(methodNode, propertyName));
+                                // super.addProperty(createPropertyNodeForMethodNode(methodNode, propertyName));
+                            }
                         }
                     }
+                    // fields - FIXASC nyi for fields
+                    // for (FieldNode fieldNode : getFields()) {
+                    // super.addProperty(createPropertyNodeFromFieldNode(fieldNode));
+                    // }
                 }
-                // fields - FIXASC nyi for fields
-                // for (FieldNode fieldNode : getFields()) {
-                // super.addProperty(createPropertyNodeFromFieldNode(fieldNode));
-                // }
+                bits |= PROPERTIES_INITIALIZED;
             }
-            bits |= PROPERTIES_INITIALIZED;
         }
     }
 
@@ -21,12 +21,16 @@ import org.codehaus.groovy.ast.AnnotationNode;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.FieldNode;
 import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration.FieldDeclarationWithInitializer;
+import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.lookup.AnnotationBinding;
 import org.eclipse.jdt.internal.compiler.lookup.Binding;
 import org.eclipse.jdt.internal.compiler.lookup.FieldBinding;
 
 /**
- * Wraps a JDT FieldBinding, representing it to groovy as a FieldNode. Translates annotations only when required.
+ * Wraps a JDT FieldBinding, representing it to groovy as a FieldNode. Translates annotations and the initializer of a source
+ * field only when required.
  *
  * @author Andy Clement
  */
@@ -35,6 +39,8 @@ public class JDTFieldNode extends FieldNode implements JDTNode {
     private FieldBinding fieldBinding;
     private JDTResolver resolver;
     private int bits = 0;
+    // declaration to fetch the initializer from; null once fetched
+    private TypeDeclaration groovyTypeDecl;
 
     public JDTFieldNode(FieldBinding fieldBinding, JDTResolver resolver, String name, int modifiers, ClassNode type,
             JDTClassNode declaringType, Expression initializerExpression) {
@@ -43,6 +49,46 @@ public class JDTFieldNode extends FieldNode implements JDTNode {
         this.fieldBinding = fieldBinding;
     }
 
+    public JDTFieldNode(FieldBinding fieldBinding, JDTResolver resolver, String name, int modifiers, ClassNode type,
+            JDTClassNode declaringType, TypeDeclaration groovyTypeDecl) {
+        this(fieldBinding, resolver, name, modifiers, type, declaringType, (Expression) null);
+        this.groovyTypeDecl = groovyTypeDecl;
+    }
+
+    @Override
+    public Expression getInitialExpression() {
+        ensureInitializerInitialized();
+        return super.getInitialExpression();
+    }
+
+    @Override
+    public Expression getInitialValueExpression() {
+        ensureInitializerInitialized();
+        return super.getInitialValueExpression();
+    }
+
+    @Override
+    public boolean hasInitialExpression() {
+        ensureInitializerInitialized();
+        return super.hasInitialExpression();
+    }
+
+    @Override
+    public synchronized void setInitialValueExpression(Expression initialValueExpression) {
+        groovyTypeDecl = null;
+        super.setInitialValueExpression(initialValueExpression);
+    }
+
+    private synchronized void ensureInitializerInitialized() {
+        if (groovyTypeDecl != null) {
+            FieldDeclaration fieldDecl = groovyTypeDecl.declarationOf(fieldBinding);
+            groovyTypeDecl = null;
+            if (fieldDecl instanceof FieldDeclarationWithInitializer) {
+                super.setInitialValueExpression(((FieldDeclarationWithInitializer) fieldDecl).getGroovyInitializer());
+            }
+        }
+    }
+
     @Override
     public void addAnnotation(AnnotationNode value) {
         throw new IllegalStateException("JDTFieldNode is immutable");
@@ -66,14 +112,17 @@ public class JDTFieldNode extends FieldNode implements JDTNode {
     }
 
     private void ensureAnnotationsInitialized() {
-        if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
-            // If the backing declaring entity for the member is not a SourceTypeBinding then the
-            // annotations will have already been discarded/lost
-            AnnotationBinding[] annotationBindings = fieldBinding.getAnnotations();
-            for (AnnotationBinding annotationBinding : annotationBindings) {
-                super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+        // lookups are serialized on the resolver if class generation runs in parallel
+        synchronized (resolver.serializeLookups ? resolver : this) {
+            if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
+                // If the backing declaring entity for the member is not a SourceTypeBinding then the
+                // annotations will have already been discarded/lost
+                AnnotationBinding[] annotationBindings = fieldBinding.getAnnotations();
+                for (AnnotationBinding annotationBinding : annotationBindings) {
+                    super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+                }
+                bits |= ANNOTATIONS_INITIALIZED;
             }
-            bits |= ANNOTATIONS_INITIALIZED;
         }
     }
 
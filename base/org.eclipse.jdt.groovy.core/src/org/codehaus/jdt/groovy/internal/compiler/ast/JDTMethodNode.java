@@ -69,14 +69,17 @@ public class JDTMethodNode extends MethodNode implements JDTNode {
     }
 
     private void ensureAnnotationsInitialized() {
-        if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
-            // If the backing declaring entity for the member is not a SourceTypeBinding then the
-            // annotations will have already been discarded/lost
-            AnnotationBinding[] annotationBindings = methodBinding.getAnnotations();
-            for (AnnotationBinding annotationBinding : annotationBindings) {
-                super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+        // lookups are serialized on the resolver if class generation runs in parallel
+        synchronized (resolver.serializeLookups ? resolver : this) {
+            if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
+                // If the backing declaring entity for the member is not a SourceTypeBinding then the
+                // annotations will have already been discarded/lost
+                AnnotationBinding[] annotationBindings = methodBinding.getAnnotations();
+                for (AnnotationBinding annotationBinding : annotationBindings) {
+                    super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+                }
+                bits |= ANNOTATIONS_INITIALIZED;
             }
-            bits |= ANNOTATIONS_INITIALIZED;
         }
     }
 
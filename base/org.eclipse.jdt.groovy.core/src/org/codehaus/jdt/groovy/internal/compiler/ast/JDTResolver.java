@@ -34,6 +34,8 @@ import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.ResolveVisitor;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser.GrapeAwareGroovyClassLoader;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
@@ -134,6 +136,10 @@ public class JDTResolver extends ResolveVisitor {
 
     private Set<ClassNode> resolvedClassNodes = new HashSet<ClassNode>();
 
+    // Set if class generation runs in parallel (see CompilationUnit); JDT lookups made for the nodes of this resolver are then
+    // serialized on the resolver, otherwise each node only locks itself
+    final boolean serializeLookups = Boolean.getBoolean("greclipse.parallelClassgen");
+
     public JDTResolver(CompilationUnit groovyCompilationUnit) {
         super(groovyCompilationUnit);
         if (recordInstances) {
@@ -195,7 +201,33 @@ public class JDTResolver extends ResolveVisitor {
 
     @Override
     protected boolean resolveFromDefaultImports(ClassNode type, boolean testDefaultImports) {
-        boolean foundit = super.resolveFromDefaultImports(type, testDefaultImports);
+        boolean foundit;
+        ResolutionCache.Entry sharedResolutions = null;
+        if (testDefaultImports && !type.hasPackageName() && !(type instanceof LowerCaseClass)) {
+            sharedResolutions = getSharedResolutions();
+        }
+        if (sharedResolutions != null) {
+            String name = type.getName();
+            // go straight to the default import that the name resolved against last time
+            String packagePrefix = sharedResolutions.getDefaultImport(name);
+            if (packagePrefix != null && !isShadowedInCompileUnit(packagePrefix, name)) {
+                ConstructedClassWithPackage tmp = new ConstructedClassWithPackage(packagePrefix, name);
+                if (resolve(tmp, false, false, false)) {
+                    type.setRedirect(tmp.redirect());
+                    recordDependency(name);
+                    return true;
+                }
+            }
+            foundit = super.resolveFromDefaultImports(type, testDefaultImports);
+            if (foundit && type.redirect() instanceof JDTClassNode) {
+                packagePrefix = ResolutionCache.getDefaultImport(type.redirect().getName());
+                if (packagePrefix != null) {
+                    sharedResolutions.addResolved(name, packagePrefix);
+                }
+            }
+        } else {
+            foundit = super.resolveFromDefaultImports(type, testDefaultImports);
+        }
         if (activeScope != null) {
             // TODO need to refactor (duplicated in GroovyCompilationUnitScope)
             boolean b = testDefaultImports & !type.hasPackageName();
@@ -348,6 +380,9 @@ public class JDTResolver extends ResolveVisitor {
     // over and over (GRECLIPSE-870)
     private Set<String> unresolvables = new HashSet<String>();
 
+    // Outcomes of default import lookups are shared with other resolvers of the project until something changes
+    private final int resolutionGeneration = ResolutionCache.getGeneration();
+
     @Override
     protected boolean resolve(ClassNode type, boolean testModuleImports, boolean testDefaultImports, boolean testStaticInnerClasses) {
         String name = type.getName();
@@ -361,13 +396,68 @@ public class JDTResolver extends ResolveVisitor {
         }
         if (unresolvables.contains(name)) {
             return false;
-        } else {
-            boolean b = super.resolve(type, testModuleImports, testDefaultImports, testStaticInnerClasses);
-            if (!b) {
-                unresolvables.add(name);
+        }
+        ResolutionCache.Entry sharedResolutions = null;
+        if (!testModuleImports && !testDefaultImports && !testStaticInnerClasses &&
+                ResolutionCache.getDefaultImport(name) != null && compilationUnit.getAST().getClass(name) == null) {
+            sharedResolutions = getSharedResolutions();
+            if (sharedResolutions != null) {
+                boolean unresolvable = sharedResolutions.isUnresolvable(name);
+                GroovyLogManager.manager.getMetrics().cache(TraceCategory.COMPILER, "default import resolution", unresolvable);
+                if (unresolvable) {
+                    unresolvables.add(name);
+                    recordDependency(name);
+                    return false;
+                }
+            }
+        }
+        boolean b = super.resolve(type, testModuleImports, testDefaultImports, testStaticInnerClasses);
+        if (!b) {
+            unresolvables.add(name);
+            if (sharedResolutions != null) {
+                sharedResolutions.addUnresolvable(name);
+            }
+        }
+        return b;
+    }
+
+    /**
+     * @return the default import outcomes shared with other compiles of the
+     *         project or {@code null} if they cannot be used by this resolver
+     */
+    private ResolutionCache.Entry getSharedResolutions() {
+        if (activeScope == null) {
+            return null;
+        }
+        String projectName = activeScope.compilerOptions().groovyProjectName;
+        if (projectName == null) {
+            return null;
+        }
+        // grabbed dependencies are specific to this compile
+        GroovyClassLoader loader = compilationUnit.getClassLoader();
+        if (loader instanceof GrapeAwareGroovyClassLoader && ((GrapeAwareGroovyClassLoader) loader).grabbed) {
+            return null;
+        }
+        return ResolutionCache.getInstance().getEntry(projectName, resolutionGeneration);
+    }
+
+    /**
+     * Checks the default imports before the given one for a type of the given
+     * name that is being compiled, recording the dependencies on the names
+     * that the default imports lookup would have checked.
+     */
+    private boolean isShadowedInCompileUnit(String packagePrefix, String name) {
+        for (String prefix : DEFAULT_IMPORTS) {
+            if (prefix.equals(packagePrefix)) {
+                break;
             }
-            return b;
+            String className = prefix + name;
+            if (compilationUnit.getAST().getClass(className) != null) {
+                return true;
+            }
+            recordDependency(className);
         }
+        return false;
     }
 
     public ClassNode resolve(String qualifiedName) {
@@ -420,6 +510,15 @@ public class JDTResolver extends ResolveVisitor {
      * Converts a JDT TypeBinding to a Groovy ClassNode.
      */
     protected ClassNode convertToClassNode(TypeBinding jdtBinding) {
+        if (serializeLookups) {
+            synchronized (this) {
+                return findOrCreateClassNode(jdtBinding);
+            }
+        }
+        return findOrCreateClassNode(jdtBinding);
+    }
+
+    private ClassNode findOrCreateClassNode(TypeBinding jdtBinding) {
         JDTClassNode existingNode = checkForExisting(jdtBinding);
         if (existingNode != null) {
             if (DEBUG) {
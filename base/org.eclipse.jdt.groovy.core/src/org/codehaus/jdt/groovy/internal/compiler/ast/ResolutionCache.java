@@ -0,0 +1,210 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.codehaus.groovy.control.ResolveVisitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Outcomes of resolving simple names against the default imports, per
+ * project, shared by the resolvers of all compiles (and reconciles) of the
+ * project.  Each resolver starts out not knowing that "java.lang.Foo" and
+ * "java.io.Foo" do not exist or that "List" is "java.util.List" and so a
+ * reconcile would otherwise probe the default import packages through JDT
+ * again for every simple name in the unit.
+ * <p>
+ * Only the types (or their absence) are remembered, not the class nodes, which
+ * belong to the lookup environment of one compile.  Any change to classpaths,
+ * package fragment roots or the default import packages themselves drops all
+ * outcomes.  A resolver only uses the cache if nothing was dropped since it
+ * was created, so outcomes from an out-of-date lookup environment are not kept.
+ */
+public final class ResolutionCache implements IElementChangedListener {
+
+    private static ResolutionCache instance;
+
+    /** incremented whenever outcomes are dropped */
+    private static volatile int generation;
+
+    public static synchronized ResolutionCache getInstance() {
+        if (instance == null) {
+            instance = new ResolutionCache();
+            JavaCore.addElementChangedListener(instance, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+        }
+        return instance;
+    }
+
+    /**
+     * Drops all outcomes, if there are any.
+     */
+    static synchronized void reset() {
+        if (instance != null) {
+            instance.clear();
+        }
+    }
+
+    /**
+     * Drops all outcomes and stops listening for Java element changes.
+     */
+    public static synchronized void dispose() {
+        if (instance != null) {
+            JavaCore.removeElementChangedListener(instance);
+            instance.clear();
+            instance = null;
+        }
+    }
+
+    public static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the default import that the qualified name starts with (for
+     *         example "java.util.") or {@code null} if it is not a name of a
+     *         type in a default import package
+     */
+    static String getDefaultImport(String qualifiedName) {
+        int dot = qualifiedName.lastIndexOf('.');
+        if (dot > 0) {
+            for (String prefix : ResolveVisitor.DEFAULT_IMPORTS) {
+                if (prefix.length() == dot + 1 && qualifiedName.startsWith(prefix)) {
+                    return prefix;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDefaultImportPackage(String packageName) {
+        for (String prefix : ResolveVisitor.DEFAULT_IMPORTS) {
+            if (prefix.length() == packageName.length() + 1 && prefix.startsWith(packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** outcomes for one project */
+    public static final class Entry {
+        /** qualified names of types that do not exist in the default import packages */
+        private final Map<String, Boolean> unresolvable = new ConcurrentHashMap<String, Boolean>();
+        /** simple names that resolve against a default import, to the package prefix */
+        private final Map<String, String> resolved = new ConcurrentHashMap<String, String>();
+
+        public boolean isUnresolvable(String qualifiedName) {
+            return unresolvable.containsKey(qualifiedName);
+        }
+
+        public void addUnresolvable(String qualifiedName) {
+            unresolvable.put(qualifiedName, Boolean.TRUE);
+        }
+
+        public String getDefaultImport(String simpleName) {
+            return resolved.get(simpleName);
+        }
+
+        public void addResolved(String simpleName, String defaultImport) {
+            resolved.put(simpleName, defaultImport);
+        }
+    }
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<String, Entry>();
+
+    private ResolutionCache() {
+    }
+
+    /**
+     * @param resolverGeneration the generation when the resolver was created
+     * @return the outcomes for the project or {@code null} if any outcomes were
+     *         dropped since the given generation
+     */
+    public Entry getEntry(String projectName, int resolverGeneration) {
+        if (resolverGeneration != generation) {
+            return null;
+        }
+        Entry entry = cache.get(projectName);
+        if (entry == null) {
+            synchronized (this) {
+                entry = cache.get(projectName);
+                if (entry == null) {
+                    entry = new Entry();
+                    cache.put(projectName, entry);
+                }
+            }
+        }
+        // entries created after a concurrent clear are not shared
+        return (resolverGeneration == generation ? entry : null);
+    }
+
+    synchronized void clear() {
+        generation += 1;
+        cache.clear();
+    }
+
+    //--------------------------------------------------------------------------
+
+    public void elementChanged(ElementChangedEvent event) {
+        if (!cache.isEmpty() && !visit(event.getDelta())) {
+            clear();
+        }
+    }
+
+    /**
+     * @return {@code false} if the delta contains changes that may add or
+     *         remove types in the default import packages of any project
+     */
+    private boolean visit(IJavaElementDelta delta) {
+        IJavaElement element = delta.getElement();
+        int kind = delta.getKind(), flags = delta.getFlags();
+        switch (element.getElementType()) {
+        case IJavaElement.JAVA_MODEL:
+            break;
+        case IJavaElement.JAVA_PROJECT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED |
+                    IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+                return false;
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH |
+                    IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+                return false;
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT:
+            return !isDefaultImportPackage(element.getElementName());
+        case IJavaElement.COMPILATION_UNIT:
+        case IJavaElement.CLASS_FILE:
+            // reconcile deltas start at the unit
+            return !isDefaultImportPackage(element.getParent().getElementName());
+        default:
+            return true;
+        }
+        for (IJavaElementDelta child : delta.getAffectedChildren()) {
+            if (!visit(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
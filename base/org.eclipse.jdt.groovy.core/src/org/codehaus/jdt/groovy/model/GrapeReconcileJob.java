@@ -0,0 +1,83 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.model;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+import org.codehaus.groovy.eclipse.GrapeResolutionCache;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.internal.core.DefaultWorkingCopyOwner;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Reconciles the open Groovy working copies that declare <code>@Grab</code>
+ * dependencies once {@link GrapeResolutionCache} has resolved dependencies in
+ * the background, so that their problems no longer include the types of the
+ * dependencies that were missing while reconciling.
+ */
+public class GrapeReconcileJob extends Job implements GrapeResolutionCache.Listener {
+
+    /** <code>@Grab</code> or <code>@Grapes</code> annotations (simple or qualified) or <code>Grape.grab</code> calls */
+    private static final Pattern GRAPES = Pattern.compile("@\\s*(?:groovy\\.lang\\.)?(?:Grab|Grapes)\\b|\\bGrape\\s*\\.\\s*grab\\b");
+
+    public GrapeReconcileJob() {
+        super("Reconciling units with resolved Grape dependencies");
+        setSystem(true);
+        setPriority(DECORATE);
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return GrapeReconcileJob.class == family;
+    }
+
+    public void grapesResolved(Collection<String> keys) {
+        // coalesce the notifications for the dependencies of one unit
+        schedule(100);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        ICompilationUnit[] workingCopies = JavaModelManager.getJavaModelManager().getWorkingCopies(DefaultWorkingCopyOwner.PRIMARY, false);
+        if (workingCopies != null) {
+            for (ICompilationUnit unit : workingCopies) {
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                if (unit instanceof GroovyCompilationUnit && unit.isOpen() && declaresGrapes((GroovyCompilationUnit) unit)) {
+                    try {
+                        unit.reconcile(ICompilationUnit.NO_AST, true, null, monitor);
+                    } catch (JavaModelException e) {
+                        Util.log(e, "Error reconciling " + unit.getElementName());
+                    }
+                }
+            }
+        }
+        return Status.OK_STATUS;
+    }
+
+    private static boolean declaresGrapes(GroovyCompilationUnit unit) {
+        char[] contents = unit.getContents();
+        return (contents != null && GRAPES.matcher(new String(contents)).find());
+    }
+}
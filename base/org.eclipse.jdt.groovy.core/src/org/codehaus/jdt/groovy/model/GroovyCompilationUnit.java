@@ -15,6 +15,7 @@
  */
 package org.codehaus.jdt.groovy.model;
 
+import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -120,7 +121,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
                 makeConsistent(null);
             }
             boolean becameWorkingCopy = false;
-            ModuleNodeMapper.getInstance().lock();
+            ModuleNodeMapper.getInstance().lock(this);
             // discard the working copy after finishing
             // if there was no working copy to begin with
             try {
@@ -138,7 +139,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
                         discardWorkingCopy();
                     }
                 } finally {
-                    ModuleNodeMapper.getInstance().unlock();
+                    ModuleNodeMapper.getInstance().unlock(this);
                 }
             }
         } catch (JavaModelException e) {
@@ -164,7 +165,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
     @Override
     public void discardWorkingCopy() throws JavaModelException {
         // GRECLIPSE-804 must synchronize
-        ModuleNodeMapper.getInstance().lock();
+        ModuleNodeMapper.getInstance().lock(this);
         try {
             JavaModelManager.PerWorkingCopyInfo info = getPerWorkingCopyInfo();
             if (workingCopyInfoWillBeDiscarded(info)) {
@@ -172,7 +173,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
             }
             super.discardWorkingCopy();
         } finally {
-            ModuleNodeMapper.getInstance().unlock();
+            ModuleNodeMapper.getInstance().unlock(this);
         }
     }
 
@@ -180,9 +181,17 @@ public class GroovyCompilationUnit extends CompilationUnit {
      * working copy info is about to be discared if useCount <= 1
      */
     private boolean workingCopyInfoWillBeDiscarded(JavaModelManager.PerWorkingCopyInfo info) {
-        return info != null && ((Integer) ReflectionUtils.getPrivateField(JavaModelManager.PerWorkingCopyInfo.class, "useCount", info)).intValue() <= 1;
+        return info != null && ReflectionUtils.getIntFieldValue(ModuleNodeMapper.USE_COUNT, info) <= 1;
     }
 
+    // private members of JDT types accessed on every reconcile
+    private static final Field DOM_AST = ReflectionUtils.findField(ASTHolderCUInfo.class, "ast");
+    private static final Field AST_LEVEL = ReflectionUtils.findField(ASTHolderCUInfo.class, "astLevel");
+    private static final Field PROBLEMS = ReflectionUtils.findField(ASTHolderCUInfo.class, "problems");
+    private static final Field RECONCILE_FLAGS = ReflectionUtils.findField(ASTHolderCUInfo.class, "reconcileFlags");
+    private static final Field RESOLVE_BINDINGS = ReflectionUtils.findField(ASTHolderCUInfo.class, "resolveBindings");
+    private static final Field TIMESTAMP = ReflectionUtils.findField(CompilationUnitElementInfo.class, "timestamp");
+
     /**
      * Tracks how deep we are in recursive calls to {@link #buildStructure}.
      */
@@ -231,10 +240,10 @@ public class GroovyCompilationUnit extends CompilationUnit {
             HashMap<String, CategorizedProblem[]> problems;
             if (info instanceof ASTHolderCUInfo) {
                 ASTHolderCUInfo astHolder = (ASTHolderCUInfo) info;
-                createAST = ((Integer) ReflectionUtils.getPrivateField(ASTHolderCUInfo.class, "astLevel", astHolder)) != NO_AST;
-                resolveBindings = (Boolean) ReflectionUtils.getPrivateField(ASTHolderCUInfo.class, "resolveBindings", astHolder);
-                reconcileFlags = (Integer) ReflectionUtils.getPrivateField(ASTHolderCUInfo.class, "reconcileFlags", astHolder);
-                problems = HashMap.class.cast(ReflectionUtils.getPrivateField(ASTHolderCUInfo.class, "problems", astHolder));
+                createAST = ReflectionUtils.getIntFieldValue(AST_LEVEL, astHolder) != NO_AST;
+                resolveBindings = (Boolean) ReflectionUtils.getFieldValue(RESOLVE_BINDINGS, astHolder);
+                reconcileFlags = ReflectionUtils.getIntFieldValue(RECONCILE_FLAGS, astHolder);
+                problems = HashMap.class.cast(ReflectionUtils.getFieldValue(PROBLEMS, astHolder));
             } else {
                 createAST = false;
                 resolveBindings = false;
@@ -283,7 +292,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
             }
             // underlying resource is null in the case of a working copy on a class file in a jar
             if (underlyingResource != null) {
-                ReflectionUtils.setPrivateField(CompilationUnitElementInfo.class, "timestamp", info, underlyingResource.getModificationStamp());
+                ReflectionUtils.setFieldValue(TIMESTAMP, info, underlyingResource.getModificationStamp());
             }
 
             GroovyCompilationUnitDeclaration compilationUnitDeclaration = null;
@@ -359,7 +368,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
                     org.eclipse.jdt.core.dom.CompilationUnit ast;
                     try {
                         ast = AST.convertCompilationUnit(JavaConstants.AST_LEVEL, compilationUnitDeclaration, options, computeProblems, source, reconcileFlags, pm);
-                        ReflectionUtils.setPrivateField(ASTHolderCUInfo.class, "ast", info, ast);
+                        ReflectionUtils.setFieldValue(DOM_AST, info, ast);
                     } catch (OperationCanceledException e) {
                         // catch this exception so as to not enter the catch(RuntimeException e) below
                         // might need to do the same for AbortCompilation
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,11 @@
  */
 package org.codehaus.jdt.groovy.model;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.codehaus.groovy.ast.ModuleNode;
@@ -26,6 +27,8 @@ import org.codehaus.groovy.ast.expr.ConstantExpression;
 import org.codehaus.groovy.ast.stmt.BlockStatement;
 import org.codehaus.groovy.ast.stmt.ReturnStatement;
 import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -33,6 +36,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.core.JavaModelManager;
@@ -43,6 +47,11 @@ import org.eclipse.jdt.internal.core.util.Util;
  * Stores module nodes for groovy compilation units This class is not meant to be accessed externally.
  * <p>
  * One module node is stored per working copy of a unit.
+ * <p>
+ * Module nodes are looked up without locking.  Making, discarding and caching
+ * the working copy of a unit is serialized per unit (by a lock from a fixed set
+ * picked by the unit's handle), so that the editors of different units do not
+ * wait for each other's reconciles.
  *
  * @author Andrew Eisenberg
  * @created Jun 11, 2009
@@ -91,18 +100,27 @@ public class ModuleNodeMapper {
         return INSTANCE;
     }
 
-    private final ReentrantLock lock = new ReentrantLock(true);
+    static final Field USE_COUNT = ReflectionUtils.findField(PerWorkingCopyInfo.class, "useCount");
+
+    private final ReentrantLock[] locks = new ReentrantLock[32];
+    {
+        for (int i = 0; i < locks.length; i += 1) {
+            locks[i] = new ReentrantLock(true);
+        }
+    }
 
-    private final Map<PerWorkingCopyInfo, ModuleNodeInfo> infoToModuleMap = new HashMap<PerWorkingCopyInfo, ModuleNodeInfo>();
+    private final Map<PerWorkingCopyInfo, ModuleNodeInfo> infoToModuleMap = new ConcurrentHashMap<PerWorkingCopyInfo, ModuleNodeInfo>();
+
+    private ReentrantLock getLock(ICompilationUnit unit) {
+        // working copies of a unit share the lock of its primary handle
+        int hash = unit.getPrimary().hashCode();
+        hash ^= (hash >>> 16);
+        return locks[(hash & 0x7fffffff) % locks.length];
+    }
 
     void store(PerWorkingCopyInfo key, ModuleNodeInfo val) {
-        lock.lock();
-        try {
-            sweepAndPurgeModuleNodes();
-            infoToModuleMap.put(key, val);
-        } finally {
-            lock.unlock();
-        }
+        sweepAndPurgeModuleNodes();
+        infoToModuleMap.put(key, val);
     }
 
     private final static boolean DSL_BUNDLE_INSTALLED;
@@ -121,44 +139,26 @@ public class ModuleNodeMapper {
     }
 
     ModuleNode getModule(PerWorkingCopyInfo info) {
-        lock.lock();
-        try {
-            ModuleNodeInfo moduleNodeInfo = get(info);
-            return moduleNodeInfo != null ? moduleNodeInfo.module : null;
-        } finally {
-            lock.unlock();
-        }
+        ModuleNodeInfo moduleNodeInfo = get(info);
+        return moduleNodeInfo != null ? moduleNodeInfo.module : null;
     }
 
     ModuleNodeInfo get(PerWorkingCopyInfo info) {
-        lock.lock();
-        try {
-            sweepAndPurgeModuleNodes();
-            return infoToModuleMap.get(info);
-        } finally {
-            lock.unlock();
-        }
+        sweepAndPurgeModuleNodes();
+        ModuleNodeInfo moduleNodeInfo = infoToModuleMap.get(info);
+        GroovyLogManager.manager.getMetrics().cache(TraceCategory.COMPILER, "module node cache", moduleNodeInfo != null);
+        return moduleNodeInfo;
     }
 
     JDTResolver getResolver(PerWorkingCopyInfo info) {
-        lock.lock();
-        try {
-            ModuleNodeInfo moduleNodeInfo = get(info);
-            return moduleNodeInfo != null ? moduleNodeInfo.resolver : null;
-        } finally {
-            lock.unlock();
-        }
+        ModuleNodeInfo moduleNodeInfo = get(info);
+        return moduleNodeInfo != null ? moduleNodeInfo.resolver : null;
     }
 
     ModuleNode remove(PerWorkingCopyInfo info) {
-        lock.lock();
-        try {
-            sweepAndPurgeModuleNodes();
-            ModuleNodeInfo removed = infoToModuleMap.remove(info);
-            return removed != null ? removed.module : null;
-        } finally {
-            lock.unlock();
-        }
+        sweepAndPurgeModuleNodes();
+        ModuleNodeInfo removed = infoToModuleMap.remove(info);
+        return removed != null ? removed.module : null;
     }
 
     /**
@@ -168,21 +168,23 @@ public class ModuleNodeMapper {
         final JavaModelManager.PerWorkingCopyInfo perWorkingCopyInfo,
         final GroovyCompilationUnitDeclaration compilationUnitDeclaration) {
 
+        if (perWorkingCopyInfo == null || compilationUnitDeclaration == null) {
+            return;
+        }
+        ReentrantLock lock = getLock(perWorkingCopyInfo.getWorkingCopy());
         if (lock.tryLock()) {
             try {
-                if (perWorkingCopyInfo != null && compilationUnitDeclaration != null) {
-                    ModuleNode module = compilationUnitDeclaration.getModuleNode();
-                    if (module != null) {
-                        JDTResolver resolver = null;
-                        if (shouldStoreResovler()) {
-                            resolver = (JDTResolver) compilationUnitDeclaration.getCompilationUnit().getResolveVisitor();
-                        }
-
-                        ModuleNodeInfo info = new ModuleNodeInfo(module, resolver);
-                        info.result = compilationUnitDeclaration.compilationResult();
-
-                        store(perWorkingCopyInfo, info);
+                ModuleNode module = compilationUnitDeclaration.getModuleNode();
+                if (module != null) {
+                    JDTResolver resolver = null;
+                    if (shouldStoreResovler()) {
+                        resolver = (JDTResolver) compilationUnitDeclaration.getCompilationUnit().getResolveVisitor();
                     }
+
+                    ModuleNodeInfo info = new ModuleNodeInfo(module, resolver);
+                    info.result = compilationUnitDeclaration.compilationResult();
+
+                    store(perWorkingCopyInfo, info);
                 }
             } finally {
                 lock.unlock();
@@ -210,40 +212,39 @@ public class ModuleNodeMapper {
     // GRECLIPSE-804 check to see that the stored nodes are correct
     // provide info to stdout if not and purge any stale elements
     void sweepAndPurgeModuleNodes() {
-        lock.lock();
-        try {
-            if (System.getProperty("groovy.eclipse.model.purge") == null) {
-                return;
-            }
+        if (System.getProperty("groovy.eclipse.model.purge") == null) {
+            return;
+        }
 
-            List<PerWorkingCopyInfo> toPurge = new ArrayList<PerWorkingCopyInfo>();
-            for (PerWorkingCopyInfo info : infoToModuleMap.keySet()) {
-                int useCount = ((Integer) ReflectionUtils.getPrivateField(PerWorkingCopyInfo.class, "useCount", info)).intValue();
-                if (useCount <= 0) {
-                    String message = "Bad module node map entry: " + info.getWorkingCopy().getElementName();
-                    System.out.println(message);
-                    Util.log(new RuntimeException(message), message);
-                    toPurge.add(info);
-                } else if (useCount > 1) {
-                    System.out.println(info.getWorkingCopy().getElementName() + " : useCount : " + useCount);
-                }
+        List<PerWorkingCopyInfo> toPurge = new ArrayList<PerWorkingCopyInfo>();
+        for (PerWorkingCopyInfo info : infoToModuleMap.keySet()) {
+            int useCount = ReflectionUtils.getIntFieldValue(USE_COUNT, info);
+            if (useCount <= 0) {
+                String message = "Bad module node map entry: " + info.getWorkingCopy().getElementName();
+                System.out.println(message);
+                Util.log(new RuntimeException(message), message);
+                toPurge.add(info);
+            } else if (useCount > 1) {
+                System.out.println(info.getWorkingCopy().getElementName() + " : useCount : " + useCount);
             }
+        }
 
-            if (toPurge.size() > 0) {
-                for (PerWorkingCopyInfo info : toPurge) {
-                    infoToModuleMap.remove(info);
-                }
+        if (toPurge.size() > 0) {
+            for (PerWorkingCopyInfo info : toPurge) {
+                infoToModuleMap.remove(info);
             }
-        } finally {
-            lock.unlock();
         }
     }
 
-    public void lock() {
-        lock.lock();
+    /**
+     * Serializes making, discarding and caching the working copy of the unit
+     * with the same operations on the unit in other threads.
+     */
+    public void lock(ICompilationUnit unit) {
+        getLock(unit).lock();
     }
 
-    public void unlock() {
-        lock.unlock();
+    public void unlock(ICompilationUnit unit) {
+        getLock(unit).unlock();
     }
 }
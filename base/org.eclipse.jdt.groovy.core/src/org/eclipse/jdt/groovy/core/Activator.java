@@ -20,6 +20,9 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import org.codehaus.groovy.eclipse.GrapeResolutionCache;
+import org.codehaus.jdt.groovy.internal.compiler.ast.ResolutionCache;
+import org.codehaus.jdt.groovy.model.GrapeReconcileJob;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ProjectScope;
 import org.eclipse.core.runtime.Plugin;
@@ -50,6 +53,8 @@ public class Activator extends Plugin {
 
     private static Activator plugin;
 
+    private GrapeReconcileJob grapeReconcileJob;
+
     public static Activator getDefault() {
         return plugin;
     }
@@ -62,9 +67,19 @@ public class Activator extends Plugin {
         super.start(context);
 
         SystemPropertyCleaner.clean();
+
+        grapeReconcileJob = new GrapeReconcileJob();
+        GrapeResolutionCache.addListener(grapeReconcileJob);
     }
 
     public void stop(BundleContext context) throws Exception {
+        if (grapeReconcileJob != null) {
+            GrapeResolutionCache.removeListener(grapeReconcileJob);
+            grapeReconcileJob.cancel();
+            GrapeResolutionCache.shutdown();
+            grapeReconcileJob = null;
+        }
+        ResolutionCache.dispose();
         super.stop(context);
     }
 
@@ -21,6 +21,7 @@ import java.io.StringReader;
 import groovyjarjarantlr.Token;
 import groovyjarjarantlr.TokenStream;
 import groovyjarjarantlr.TokenStreamException;
+import org.codehaus.groovy.antlr.GroovySourceToken;
 import org.codehaus.groovy.antlr.parser.GroovyLexer;
 import org.codehaus.groovy.antlr.parser.GroovyRecognizer;
 import org.eclipse.jface.text.BadLocationException;
@@ -28,6 +29,9 @@ import org.eclipse.jface.text.IDocument;
 
 /**
  * A wrapper around an Antlr Groovy Scanner, providing a convenient interface to tokenize a snippet of groovy code.
+ * <p>
+ * When scanning a string, the offsets of tokens in it can be had from the scanner itself: the start of each line is
+ * found once, from the characters of the string, so that line/col positions are not converted through an IDocument.
  *
  * @author kdvolder
  */
@@ -37,6 +41,12 @@ public class GroovyScanner {
     private GroovyLexer lexer;
     private boolean whiteSpaceIncluded;
 
+    /** The text being scanned; null if scanning a reader. */
+    private String text;
+
+    /** Offsets of the starts of the lines of {@link #text}; computed on first use. */
+    private int[] lineOffsets;
+
     public GroovyScanner(Reader input) {
         this(input, false);
     }
@@ -57,7 +67,12 @@ public class GroovyScanner {
     }
 
     public GroovyScanner(String text) {
-        this(new StringReader(text), false);
+        this(text, false);
+    }
+
+    public GroovyScanner(String text, boolean whiteSpaceIncluded) {
+        this(new StringReader(text), whiteSpaceIncluded);
+        this.text = text;
     }
 
     public Token nextToken() throws TokenStreamException {
@@ -73,12 +88,24 @@ public class GroovyScanner {
     public void recover(IDocument document) throws BadLocationException {
         int line = lexer.getInputState().getLine(); // Line and
         int col = lexer.getInputState().getColumn(); // column where error happened.
-        int offset = getOffset(document, line, col) + 1; // +1 to skip one character.
-        line = document.getLineOfOffset(offset);
-        int lineStart = document.getLineOffset(line);
-        line = line + 1; // antlr lines start at 1
-        col = offset - lineStart + 1; // antlr cols start at 1
-        String remainingInput = document.get(offset, document.getLength() - offset);
+        String remainingInput;
+        if (text != null) {
+            int offset = getOffset(line, col) + 1; // +1 to skip one character.
+            if (offset > text.length()) {
+                throw new BadLocationException();
+            }
+            line = getLineOfOffset(offset);
+            col = offset - getLineOffsets()[line] + 1; // antlr cols start at 1
+            line = line + 1; // antlr lines start at 1
+            remainingInput = text.substring(offset);
+        } else {
+            int offset = getOffset(document, line, col) + 1; // +1 to skip one character.
+            line = document.getLineOfOffset(offset);
+            int lineStart = document.getLineOffset(line);
+            line = line + 1; // antlr lines start at 1
+            col = offset - lineStart + 1; // antlr cols start at 1
+            remainingInput = document.get(offset, document.getLength() - offset);
+        }
         init(new StringReader(remainingInput), whiteSpaceIncluded); // Reinitialize with remaining input
         lexer.setLine(line); // Fix antlr line and
         lexer.setColumn(col);// column infos because we are not starting at the start
@@ -95,4 +122,100 @@ public class GroovyScanner {
         return document.getLineOffset(line - 1) + col - 1;
     }
 
+    /**
+     * @return offset of the start of the token in the scanned text
+     * @throws IllegalStateException if the scanner was not created for a string
+     */
+    public int getOffset(Token token) throws BadLocationException {
+        return getOffset(token.getLine(), token.getColumn());
+    }
+
+    /**
+     * @return offset after the last character of the token in the scanned text
+     * @throws IllegalStateException if the scanner was not created for a string
+     */
+    public int getEnd(Token token) throws BadLocationException {
+        GroovySourceToken gToken = (GroovySourceToken) token;
+        return getOffset(gToken.getLineLast(), gToken.getColumnLast());
+    }
+
+    /**
+     * Convert antlr line / col position into an offset in the scanned text.
+     *
+     * @param line antlr style line number (starts at 1)
+     * @param col antlr style col number (starts at 1)
+     * @throws IllegalStateException if the scanner was not created for a string
+     */
+    public int getOffset(int line, int col) throws BadLocationException {
+        int[] offsets = getLineOffsets();
+        if (line < 1 || line > offsets.length) {
+            throw new BadLocationException();
+        }
+        return offsets[line - 1] + col - 1;
+    }
+
+    /**
+     * @param line antlr style line number (starts at 1)
+     * @return length of the line in the scanned text, including its delimiter
+     */
+    public int getLineLength(int line) throws BadLocationException {
+        int[] offsets = getLineOffsets();
+        if (line < 1 || line > offsets.length) {
+            throw new BadLocationException();
+        }
+        int end = (line < offsets.length ? offsets[line] : text.length());
+        return end - offsets[line - 1];
+    }
+
+    /**
+     * @return the scanned text; null if scanning a reader
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the zero-based line of the offset in the scanned text
+     */
+    private int getLineOfOffset(int offset) {
+        int[] offsets = getLineOffsets();
+        int low = 0, high = offsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Lines end with "\r\n", "\n" or "\r", like for the lexer and for an IDocument.
+     */
+    private int[] getLineOffsets() {
+        if (lineOffsets == null) {
+            if (text == null) {
+                throw new IllegalStateException("Offsets are only known when scanning a string");
+            }
+            int n = 1, length = text.length();
+            for (int i = 0; i < length; i += 1) {
+                char c = text.charAt(i);
+                if (c == '\n' || (c == '\r' && (i + 1 == length || text.charAt(i + 1) != '\n'))) {
+                    n += 1;
+                }
+            }
+            int[] offsets = new int[n];
+            for (int i = 0, j = 1; i < length; i += 1) {
+                char c = text.charAt(i);
+                if (c == '\n' || (c == '\r' && (i + 1 == length || text.charAt(i + 1) != '\n'))) {
+                    offsets[j++] = i + 1;
+                }
+            }
+            lineOffsets = offsets;
+        }
+        return lineOffsets;
+    }
+
 }
@@ -19,10 +19,10 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -30,6 +30,12 @@ import org.eclipse.jdt.groovy.core.Activator;
 
 /**
  * Common functionality for accessing private fields and methods.
+ * <p>
+ * Code that runs per keystroke or per position should resolve its members once
+ * with {@link #findField}, {@link #findMethod} or {@link #getConstructor}, keep
+ * them in constants, and use the matching access methods.  The find methods
+ * log a member that is not found and return {@code null}, which the access
+ * methods accept, so that a renamed member does not fail class initialization.
  */
 public class ReflectionUtils {
 
@@ -76,16 +82,85 @@ public class ReflectionUtils {
         }
     }
 
-    public static Object getPrivateField(Class<?> clazz, String fieldName, Object target) {
-        String key = clazz.getCanonicalName() + fieldName;
-        Field field = FIELDS.get(key);
-        try {
-            if (field == null) {
+    /**
+     * @return the accessible field; lookups are cached per class and field name
+     */
+    public static Field getField(Class<?> clazz, String fieldName) {
+        ConcurrentMap<String, Field> fields = FIELDS.get(clazz);
+        if (fields == null) {
+            ConcurrentMap<String, Field> race = FIELDS.putIfAbsent(clazz, fields = new ConcurrentHashMap<String, Field>());
+            if (race != null) fields = race;
+        }
+        Field field = fields.get(fieldName);
+        if (field == null) {
+            try {
                 field = clazz.getDeclaredField(fieldName);
                 field.setAccessible(true);
-                FIELDS.put(key, field);
+                fields.put(fieldName, field);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
             }
+        }
+        return field;
+    }
+
+    /**
+     * @return the accessible field or {@code null} (after logging) if it cannot be found
+     */
+    public static Field findField(Class<?> clazz, String fieldName) {
+        try {
+            return getField(clazz, fieldName);
+        } catch (Exception e) {
+            log("Error getting private field '" + fieldName + "' on class " + clazz, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the value of the field, or {@code null} if the field was not found
+     */
+    public static Object getFieldValue(Field field, Object target) {
+        if (field == null) {
+            return null;
+        }
+        try {
             return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the value of the field, or 0 if the field was not found
+     */
+    public static int getIntFieldValue(Field field, Object target) {
+        if (field == null) {
+            return 0;
+        }
+        try {
+            return field.getInt(target);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sets the value of the field; does nothing if the field was not found.
+     */
+    public static void setFieldValue(Field field, Object target, Object newValue) {
+        if (field == null) {
+            return;
+        }
+        try {
+            field.set(target, newValue);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static Object getPrivateField(Class<?> clazz, String fieldName, Object target) {
+        try {
+            return getField(clazz, fieldName).get(target);
         } catch (Exception e) {
             log("Error getting private field '" + fieldName + "' on class " + clazz, e);
         }
@@ -93,20 +168,51 @@ public class ReflectionUtils {
     }
 
     public static void setPrivateField(Class<?> clazz, String fieldName, Object target, Object newValue) {
-        String key = clazz.getCanonicalName() + fieldName;
-        Field field = FIELDS.get(key);
         try {
-            if (field == null) {
-                field = clazz.getDeclaredField(fieldName);
-                field.setAccessible(true);
-                FIELDS.put(key, field);
-            }
-            field.set(target, newValue);
+            getField(clazz, fieldName).set(target, newValue);
         } catch (Exception e) {
             log("Error setting private field '" + fieldName + "' on class " + clazz, e);
         }
     }
 
+    public static Method getMethod(Class<?> clazz, String methodName, Class<?>... parameterTypes) {
+        try {
+            Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the accessible method or {@code null} (after logging) if it cannot be found
+     */
+    public static Method findMethod(Class<?> clazz, String methodName, Class<?>... parameterTypes) {
+        try {
+            return getMethod(clazz, methodName, parameterTypes);
+        } catch (Exception e) {
+            log("Error getting private method '" + methodName + "' on class " + clazz, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the result of the method, or {@code null} if the method was not found
+     */
+    public static Object invokeMethod(Method method, Object target, Object... args) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
     public static <T> Object executeNoArgPrivateMethod(Class<T> clazz, String methodName, Object target) {
         return executePrivateMethod(clazz, methodName, NO_TYPES, target, NO_ARGS);
     }
@@ -131,12 +237,11 @@ public class ReflectionUtils {
     }
 
     public static <T> Object throwableGetPrivateField(Class<? extends T> clazz, String fieldName, T target) throws Exception {
-        String key = clazz.getCanonicalName() + fieldName;
-        Field field = FIELDS.get(key);
-        if (field == null) {
-            field = clazz.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            FIELDS.put(key, field);
+        Field field;
+        try {
+            field = getField(clazz, fieldName);
+        } catch (RuntimeException e) {
+            throw (Exception) e.getCause();
         }
         return field.get(target);
     }
@@ -147,5 +252,5 @@ public class ReflectionUtils {
 
     private static final Object[] NO_ARGS = new Object[0];
     private static final Class<?>[] NO_TYPES = new Class[0];
-    private static final Map<String, Field> FIELDS = new HashMap<String, Field>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Field>> FIELDS = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Field>>();
 }
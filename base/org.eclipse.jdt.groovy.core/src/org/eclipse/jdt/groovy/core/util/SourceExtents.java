@@ -0,0 +1,151 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.util;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.stmt.Statement;
+
+/**
+ * The source ranges spanned by the fields and methods of a module, including
+ * everything below them (annotations, parameters, statements and expressions),
+ * which may reach outside of the member's own source range.  Visitors that
+ * look for the node at an offset use this to skip members that cannot contain
+ * it, instead of visiting every member of the module.
+ * <p>
+ * The extents are computed once per module node and kept in its meta data, so
+ * they are shared by all lookups on a cached module.
+ */
+public final class SourceExtents {
+
+    /**
+     * @return the extents of the members of the module
+     */
+    public static SourceExtents of(ModuleNode module) {
+        synchronized (module) {
+            SourceExtents extents = (SourceExtents) module.getNodeMetaData(SourceExtents.class);
+            if (extents == null) {
+                Collector collector = new Collector();
+                collector.visitModule(module);
+                extents = new SourceExtents(collector.extents);
+                module.setNodeMetaData(SourceExtents.class, extents);
+            }
+            return extents;
+        }
+    }
+
+    private final Map<ASTNode, int[]> extents;
+
+    private SourceExtents(Map<ASTNode, int[]> extents) {
+        this.extents = extents;
+    }
+
+    /**
+     * @return {@code true} if nothing within the field or method overlaps the
+     *         range from start to end (inclusive); {@code false} if something
+     *         may or if the member has no source position
+     */
+    public boolean isOutside(ASTNode member, int start, int end) {
+        int[] extent = extents.get(member);
+        return (extent != null && (end < extent[0] || start > extent[1]));
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static class Collector extends DepthFirstVisitor {
+
+        final Map<ASTNode, int[]> extents = new IdentityHashMap<ASTNode, int[]>();
+
+        /** the extent of the member being visited, if any */
+        private int[] current;
+
+        @Override
+        public void visitField(FieldNode node) {
+            int[] outer = enter(node);
+            super.visitField(node);
+            exit(node, outer);
+        }
+
+        @Override
+        public void visitMethod(MethodNode node) {
+            if (node == runMethod) return;
+            int[] outer = enter(node);
+            super.visitMethod(node);
+            exit(node, outer);
+        }
+
+        @Override
+        protected void visitAnnotation(AnnotationNode node) {
+            super.visitAnnotation(node);
+            include(node);
+        }
+
+        @Override
+        protected void visitExpression(Expression expression) {
+            super.visitExpression(expression);
+            include(expression);
+        }
+
+        @Override
+        protected void visitParameter(Parameter parameter) {
+            super.visitParameter(parameter);
+            if (parameter != null) {
+                include(parameter);
+            }
+        }
+
+        @Override
+        protected void visitStatement(Statement statement) {
+            include(statement);
+        }
+
+        private int[] enter(ASTNode member) {
+            int[] outer = current;
+            current = new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE};
+            include(member);
+            return outer;
+        }
+
+        private void exit(ASTNode member, int[] outer) {
+            int[] extent = current;
+            current = outer;
+            // members without a source position (generated ones) are not skipped
+            if (member.getEnd() > 0) {
+                extents.put(member, extent);
+            }
+            // members of anonymous inner classes extend the enclosing member
+            if (outer != null && extent[0] <= extent[1]) {
+                outer[0] = Math.min(outer[0], extent[0]);
+                outer[1] = Math.max(outer[1], extent[1]);
+            }
+        }
+
+        private void include(ASTNode node) {
+            if (current != null && node.getEnd() > 0) {
+                current[0] = Math.min(current[0], node.getStart());
+                current[1] = Math.max(current[1], node.getEnd());
+            }
+        }
+    }
+}
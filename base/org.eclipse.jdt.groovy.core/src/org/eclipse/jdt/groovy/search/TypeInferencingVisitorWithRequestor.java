@@ -86,6 +86,8 @@ import org.codehaus.groovy.ast.stmt.ReturnStatement;
 import org.codehaus.groovy.ast.stmt.Statement;
 import org.codehaus.groovy.ast.tools.WideningCategories;
 import org.codehaus.groovy.classgen.BytecodeExpression;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.runtime.MetaClassHelper;
 import org.codehaus.groovy.syntax.Types;
 import org.codehaus.groovy.transform.FieldASTTransformation;
@@ -346,6 +348,7 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
             lookup.initialize(unit, topLevelScope);
         }
 
+        long start = GroovyLogManager.manager.getMetrics().start();
         try {
             visitPackage(((ModuleNode) enclosingDeclarationNode).getPackage());
             visitImports((ModuleNode) enclosingDeclarationNode);
@@ -363,6 +366,7 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
                 e.printStackTrace();
             }
         }
+        GroovyLogManager.manager.getMetrics().stop(TraceCategory.INFERENCING, requestor.getClass().getName(), start);
         if (DEBUG) {
             postVisitSanityCheck();
         }
@@ -74,6 +74,7 @@ import org.junit.runners.Suite
     org.codehaus.groovy.eclipse.core.test.AstPositionTests,
     org.codehaus.groovy.eclipse.core.test.ClasspathContainerTests,
     org.codehaus.groovy.eclipse.core.test.ErrorRecoveryTests,
+    org.codehaus.groovy.eclipse.core.test.RunnableTypeTests,
     org.codehaus.groovy.eclipse.core.test.SyntheticMemberSearchTests,
     org.codehaus.groovy.eclipse.core.test.UnrecoverableErrorTests,
 
@@ -128,6 +129,7 @@ import org.junit.runners.Suite
     org.codehaus.groovy.eclipse.test.actions.ConvertToPropertyActionTests,
     org.codehaus.groovy.eclipse.test.actions.GroovyNatureActionTests,
     org.codehaus.groovy.eclipse.test.actions.OrganizeImportsTests,
+    org.codehaus.groovy.eclipse.test.actions.SaveActionsEditTests,
     org.codehaus.groovy.eclipse.test.actions.SaveParticipantRegistryTests,
     org.codehaus.groovy.eclipse.test.adapters.GroovyFileAdapterFactoryTests,
     org.codehaus.groovy.eclipse.test.adapters.GroovyIFileEditorInputAdapterFactoryTests,
@@ -28,6 +28,7 @@ import org.junit.runners.Suite
     org.eclipse.jdt.groovy.core.tests.basic.GenericsTests,
     org.eclipse.jdt.groovy.core.tests.basic.GroovySimpleTests,
     org.eclipse.jdt.groovy.core.tests.basic.GroovySimpleTests_Compliance_1_8,
+    org.eclipse.jdt.groovy.core.tests.basic.ParallelClassgenTests,
     org.eclipse.jdt.groovy.core.tests.basic.TraitsTests,
     org.eclipse.jdt.groovy.core.tests.basic.TransformationsTests,
 
@@ -35,6 +36,7 @@ import org.junit.runners.Suite
     org.eclipse.jdt.core.groovy.tests.builder.BasicGroovyBuildTests,
     org.eclipse.jdt.core.groovy.tests.builder.BuildAccessRulesTests,
     org.eclipse.jdt.core.groovy.tests.builder.FullProjectTests,
+    org.eclipse.jdt.core.groovy.tests.builder.ResolutionCacheTests,
     org.eclipse.jdt.core.groovy.tests.builder.STCScriptsTests,
     org.eclipse.jdt.core.groovy.tests.builder.ScriptFolderTests,
 
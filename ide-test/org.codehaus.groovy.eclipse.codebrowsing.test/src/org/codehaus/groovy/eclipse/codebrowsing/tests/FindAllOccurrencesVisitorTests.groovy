@@ -254,6 +254,15 @@ final class FindAllOccurrencesVisitorTests extends CheckerTestSuite {
         assertOccurrences(exprText, moduleText, first)
     }
 
+    @Test
+    void testFindAllOccurrences26() {
+        String moduleText = 'def a = 1\ndef b = [1].collect { a + FOO.BAR }\nif (b) {\n def c = 2\n println FOO.BAR\n}'
+        String exprText = 'FOO.BAR'
+        int first = moduleText.indexOf(exprText)
+        int second = moduleText.lastIndexOf(exprText)
+        assertOccurrences(exprText, moduleText, first, second)
+    }
+
     private void assertOccurrences(String exprToFindText, String moduleText, Integer... startLocations) {
         def exprToFind = getLastFragment(createModuleFromText(exprToFindText))
         def foundExprs = new FindAllOccurrencesVisitor(createModuleFromText(moduleText)).findOccurrences(exprToFind)
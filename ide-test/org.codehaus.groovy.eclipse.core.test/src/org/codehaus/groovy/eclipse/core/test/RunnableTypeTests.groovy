@@ -0,0 +1,77 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.test
+
+import org.codehaus.groovy.eclipse.core.model.GroovyProjectFacade
+import org.codehaus.groovy.eclipse.test.GroovyEclipseTestSuite
+import org.eclipse.jdt.core.IType
+import org.junit.Assert
+import org.junit.Before
+import org.junit.Test
+
+final class RunnableTypeTests extends GroovyEclipseTestSuite {
+
+    private GroovyProjectFacade facade
+
+    @Before
+    void setUp() {
+        addGroovySource 'println "script"', 'Script1', 'p'
+        addGroovySource '''\
+            class Main {
+              static void main(String[] args) { }
+            }
+            '''.stripIndent(), 'Main', 'p'
+        addGroovySource '''\
+            class NotMain {
+              void main(String[] args) { }
+            }
+            '''.stripIndent(), 'NotMain', 'p'
+        addJavaSource '''\
+            public class JavaMain {
+              public static void main(String[] args) { }
+            }
+            '''.stripIndent(), 'JavaMain', 'q'
+
+        facade = new GroovyProjectFacade(packageFragmentRoot.javaProject)
+        waitForIndex()
+    }
+
+    private static Set<String> names(List<IType> types) {
+        types*.fullyQualifiedName as Set
+    }
+
+    @Test
+    void testRunnableTypes() {
+        Assert.assertEquals(['p.Script1', 'p.Main', 'q.JavaMain'] as Set, names(facade.findAllRunnableTypes()))
+    }
+
+    @Test
+    void testScripts() {
+        Assert.assertEquals(['p.Script1'] as Set, names(facade.findAllScripts()))
+    }
+
+    @Test
+    void testChangedUnits() {
+        Assert.assertEquals(['p.Script1'] as Set, names(facade.findAllScripts()))
+
+        addGroovySource 'println "another script"', 'Script2', 'p'
+        Assert.assertEquals(['p.Script1', 'p.Script2'] as Set, names(facade.findAllScripts()))
+
+        getPackageFragment('p').getCompilationUnit('Script1.groovy').delete(true, null)
+        Assert.assertEquals(['p.Script2'] as Set, names(facade.findAllScripts()))
+        Assert.assertEquals(['p.Script2', 'p.Main', 'q.JavaMain'] as Set, names(facade.findAllRunnableTypes()))
+    }
+}
@@ -150,4 +150,22 @@ final class GroovyDocumentScannerTests {
         assertTokens(["def", "a", "=", "3", "+", "4", "<newline>"], tokens)
         scanner.dispose()
     }
+
+    @Test
+    void testGetOffsetsWithMixedLineDelimiters() {
+        String text = "a\r\nbb\rccc\nd"
+        makeEditor(text)
+
+        IDocument doc = getDocument()
+        GroovyDocumentScanner scanner = new GroovyDocumentScanner(doc)
+
+        for (String name : ["a", "bb", "ccc", "d"]) {
+            Token token = scanner.getTokenFrom(text.indexOf(name))
+            assertEquals(name, token.getText())
+            assertEquals(text.indexOf(name), scanner.getOffset(token))
+            assertEquals(text.indexOf(name) + name.length(), scanner.getEnd(token))
+            assertEquals(doc.getLineOffset(token.getLine() - 1) + token.getColumn() - 1, scanner.getOffset(token))
+        }
+        scanner.dispose()
+    }
 }
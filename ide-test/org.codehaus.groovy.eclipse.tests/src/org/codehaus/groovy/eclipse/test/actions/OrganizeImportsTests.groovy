@@ -130,6 +130,18 @@ final class OrganizeImportsTests extends OrganizeImportsTestSuite {
         doAddImportTest(contents, ['import other.FirstClass'])
     }
 
+    @Test
+    void testAddImport13() {
+        String contents = '''
+            LaterClass l
+            '''
+        doAddImportTest(contents, [])
+
+        // type names are cached across units; adding the type must be seen
+        addGroovySource('class LaterClass { }', 'Later', 'other5')
+        doAddImportTest(contents, ['import other5.LaterClass'])
+    }
+
     @Test
     void testAddInnerImport1() {
         String contents = '''
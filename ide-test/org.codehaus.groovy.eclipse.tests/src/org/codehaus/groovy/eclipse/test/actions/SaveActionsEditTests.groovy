@@ -0,0 +1,74 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.test.actions
+
+import org.codehaus.groovy.eclipse.refactoring.actions.GroovySaveActionsCleanUp
+import org.eclipse.jface.text.Document
+import org.eclipse.text.edits.MultiTextEdit
+import org.eclipse.text.edits.ReplaceEdit
+import org.eclipse.text.edits.TextEdit
+import org.junit.Test
+
+/**
+ * Tests that the combined save actions replace only the text that changed.
+ */
+final class SaveActionsEditTests {
+
+    private TextEdit assertEdit(String before, String after) {
+        TextEdit edit = GroovySaveActionsCleanUp.createMinimalEdit(before, after)
+        Document document = new Document(before)
+        edit.apply(document)
+        assert document.get() == after
+        return edit
+    }
+
+    @Test
+    void testNoChange() {
+        assert GroovySaveActionsCleanUp.createMinimalEdit('def x = 1\n', 'def x = 1\n') == null
+    }
+
+    @Test
+    void testChangesAtStartAndEnd() {
+        String before = 'import java.util.List;\nimport java.io.File\n\nclass A {\n  def x = 1;\n  def y = 2\n}\n'
+        String after  = 'import java.io.File\n\nclass A {\n  def x = 1;\n  def y = 2\n}'
+
+        TextEdit edit = assertEdit(before, after)
+        assert edit instanceof MultiTextEdit
+        assert edit.children.length == 2
+        // the class body in between is not replaced
+        assert edit.children.every { ReplaceEdit replace ->
+            replace.offset + replace.length <= before.indexOf('class') || replace.offset >= before.lastIndexOf('}')
+        }
+    }
+
+    @Test
+    void testTrailingWhitespaceOnSeveralLines() {
+        String before = 'class A {  \n  def x = 1\n  def y = 2\t\n}\n'
+        String after  = 'class A {\n  def x = 1\n  def y = 2\n}\n'
+
+        TextEdit edit = assertEdit(before, after)
+        assert edit.children.length == 2
+        assert edit.children*.length == [2, 1]
+        assert edit.children*.text == ['', '']
+    }
+
+    @Test
+    void testMixedLineDelimiters() {
+        assertEdit('a\r\nb\rc\nd', 'a\r\nB\rc\nd\n')
+        assertEdit('', 'a\nb\n')
+        assertEdit('a\nb\n', '')
+    }
+}
@@ -546,4 +546,16 @@ final class ExpressionFinderTests {
         String expression = finder.findForCompletions(sourceBuffer, completionLocation.length() - 1)
         assertEquals("(new ArrayList<String>()).", expression)
     }
+
+    @Test
+    void testExpressionsInSameSource() {
+        ExpressionFinder finder = new ExpressionFinder()
+        String source = "def x = foo(bar[0], { it })[1].baz\n(a[b(c)]).d // (\ne(f).g"
+        ISourceBuffer sourceBuffer = new StringSourceBuffer(source)
+
+        assertEquals("foo(bar[0], { it })[1].baz", finder.findForCompletions(sourceBuffer, source.indexOf("baz") + 2))
+        assertEquals("(a[b(c)]).d", finder.findForCompletions(sourceBuffer, source.indexOf(".d") + 1))
+        assertEquals("e(f).g", finder.findForCompletions(sourceBuffer, source.length() - 1))
+        assertEquals("foo(bar[0], { it })[1].", finder.findForCompletions(sourceBuffer, source.indexOf(".baz")))
+    }
 }
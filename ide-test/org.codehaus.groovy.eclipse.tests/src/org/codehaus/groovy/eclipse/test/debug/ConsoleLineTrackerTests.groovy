@@ -21,6 +21,7 @@ import org.codehaus.groovy.eclipse.launchers.GroovyConsoleLineTracker
 import org.codehaus.groovy.eclipse.launchers.GroovyConsoleLineTracker.AmbiguousFileLink
 import org.codehaus.groovy.eclipse.test.GroovyEclipseTestSuite
 import org.eclipse.core.resources.IFile
+import org.eclipse.core.runtime.jobs.Job
 import org.eclipse.debug.core.model.IProcess
 import org.eclipse.debug.core.model.IStreamMonitor
 import org.eclipse.debug.core.model.IStreamsProxy
@@ -61,6 +62,7 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
         String contents = 'ahdhjkfsfds'
         doc.set(contents)
         lineTracker.lineAppended(new Region(0, contents.length()))
+        Job.jobManager.join(GroovyConsoleLineTracker, null)
         Assert.assertNull('Should not have found any hyperlinks', console.getLastLink())
     }
 
@@ -70,6 +72,7 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
         String contents = 'at f.Bar.run(Bar.groovy:2)'
         doc.set(contents)
         lineTracker.lineAppended(new Region(0, contents.length()))
+        Job.jobManager.join(GroovyConsoleLineTracker, null)
         Assert.assertNotNull('Should have found a hyperlink', console.getLastLink())
         FileLink link = (FileLink) console.getLastLink()
         IFile file = (IFile) ReflectionUtils.getPrivateField(FileLink.class, 'fFile', link)
@@ -77,6 +80,26 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
         Assert.assertEquals('File name is wrong', 'Bar.groovy', file.getName())
     }
 
+    @Test
+    void testLinkToNewFile() {
+        addGroovySource('', 'Bar', 'f')
+        String contents = 'at f.Bar.run(Bar.groovy:2)'
+        doc.set(contents)
+        lineTracker.lineAppended(new Region(0, contents.length()))
+        Job.jobManager.join(GroovyConsoleLineTracker, null)
+        Assert.assertNotNull('Should have found a hyperlink', console.getLastLink())
+
+        // file added after the source files were indexed
+        addGroovySource('', 'Qux', 'f')
+        contents += '\nat f.Qux.run(Qux.groovy:2)'
+        doc.set(contents)
+        lineTracker.lineAppended(new Region(contents.indexOf('\n') + 1, contents.length() - contents.indexOf('\n') - 1))
+        Job.jobManager.join(GroovyConsoleLineTracker, null)
+        FileLink link = (FileLink) console.getLastLink()
+        IFile file = (IFile) ReflectionUtils.getPrivateField(FileLink.class, 'fFile', link)
+        Assert.assertEquals('File name is wrong', 'Qux.groovy', file.getName())
+    }
+
     @Test
     void testAmbiguousLink() {
         addGroovySource('', 'Baz', 'f')
@@ -84,6 +107,7 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
         String contents = 'at f.Baz.run(Baz.groovy:2)'
         doc.set(contents)
         lineTracker.lineAppended(new Region(0, contents.length()))
+        Job.jobManager.join(GroovyConsoleLineTracker, null)
         Assert.assertNotNull('Should have found a hyperlink', console.getLastLink())
         FileLink link = (FileLink) console.getLastLink()
         Object file = ReflectionUtils.getPrivateField(FileLink.class, 'fFile', link)
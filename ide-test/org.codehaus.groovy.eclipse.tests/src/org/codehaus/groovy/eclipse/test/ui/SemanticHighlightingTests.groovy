@@ -28,6 +28,9 @@ import org.codehaus.groovy.eclipse.test.GroovyEclipseTestSuite
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor
+import org.eclipse.jface.text.IRegion
+import org.eclipse.jface.text.Position
+import org.eclipse.jface.text.Region
 import org.junit.Before
 import org.junit.Ignore
 import org.junit.Test
@@ -1779,9 +1782,93 @@ final class SemanticHighlightingTests extends GroovyEclipseTestSuite {
             new HighlightedTypedPosition(contents.lastIndexOf('unknown'), 7, UNKNOWN))
     }
 
+    @Test
+    void testDamagedMethods() {
+        String contents = '''\
+            class X {
+              String one() {
+                int i
+              }
+              private Number two
+              void three() {
+                int j
+              }
+              void four(String param) {
+                int k
+              }
+            }
+            '''.stripIndent()
+
+        // edits in two methods are highlighted in one pass that skips the members in between
+        List<Position> skipped = []
+        def positions = findDamagedReferences(contents, skipped,
+            new Region(contents.indexOf('int i'), 5), new Region(contents.indexOf('int k'), 5))
+
+        skipped.sort { it.offset }
+        assertEquals(2, skipped.size())
+        assert skipped[0].includes(contents.indexOf('two'))
+        assert skipped[1].includes(contents.indexOf('three'))
+        assertEquals([
+            new HighlightedTypedPosition(contents.indexOf('one'), 'one'.length(), METHOD),
+            new HighlightedTypedPosition(contents.indexOf('i\n'), 1, VARIABLE),
+            new HighlightedTypedPosition(contents.indexOf('four'), 'four'.length(), METHOD),
+            new HighlightedTypedPosition(contents.indexOf('param'), 'param'.length(), PARAMETER),
+            new HighlightedTypedPosition(contents.indexOf('k\n'), 1, VARIABLE)
+        ].join('\n'), positions.join('\n'))
+    }
+
+    @Test
+    void testDamagedSignature() {
+        String contents = '''\
+            class X {
+              void one(String param) {
+                int i
+              }
+            }
+            '''.stripIndent()
+
+        assert findDamagedReferences(contents, [], new Region(contents.indexOf('param'), 5)) == null
+    }
+
+    @Test
+    void testDamagedFieldInitializer() {
+        String contents = '''\
+            class X {
+              def one = [1, 2]
+              void two() {
+                one.size()
+              }
+            }
+            '''.stripIndent()
+
+        assert findDamagedReferences(contents, [], new Region(contents.indexOf('2'), 1)) == null
+    }
+
+    @Test
+    void testDamagedInferredMethod() {
+        String contents = '''\
+            class X {
+              def one() {
+                'string'
+              }
+              void two() {
+                one().length()
+              }
+            }
+            '''.stripIndent()
+
+        assert findDamagedReferences(contents, [], new Region(contents.indexOf("'string'"), 8)) == null
+    }
+
     //
     private int counter
 
+    private List<HighlightedTypedPosition> findDamagedReferences(String contents, List<Position> skippedMembers, IRegion... damage) {
+        def references = new GatherSemanticReferences(
+            addGroovySource(contents, "Highlighting${++counter}"))
+        return references.findSemanticHighlightingReferences(damage.toList(), skippedMembers)?.toList()
+    }
+
     private void assertHighlighting(String contents, HighlightedTypedPosition... expectedPositions) {
         def references = new GatherSemanticReferences(
             addGroovySource(contents, "Highlighting${++counter}"))
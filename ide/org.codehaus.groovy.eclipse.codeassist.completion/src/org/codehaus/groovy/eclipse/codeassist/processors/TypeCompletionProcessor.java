@@ -65,7 +65,7 @@ public class TypeCompletionProcessor extends AbstractGroovyCompletionProcessor i
                 context.completionEnd - expressionStart,
                 getNameEnvironment().nameLookup, monitor);
 
-        getNameEnvironment().findTypes(toSearch.toCharArray(),
+        TypeSearchCache.findTypes(getNameEnvironment(), getJavaContext().getProject(), toSearch.toCharArray(),
                 true, // all member types, should be false when in constructor
                 true, // camel case match
                 getSearchFor(), requestor, monitor);
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codeassist.processors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.codeassist.ISearchRequestor;
+import org.eclipse.jdt.internal.compiler.env.AccessRestriction;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.SearchableEnvironment;
+
+/**
+ * The types found for the last type name prefix searched for in a content
+ * assist session.  While the popup is open, content assist is computed again
+ * as the prefix is extended; the types that match a longer prefix are among
+ * those that matched the shorter one, so they are filtered from the cache
+ * rather than searched for again.
+ * <p>
+ * The cache is cleared when a content assist session starts or ends.
+ */
+public final class TypeSearchCache {
+
+    /** searches that find more types than this are not kept */
+    private static final int MAX_TYPES = 20000;
+
+    private static final class FoundType {
+        final char[] packageName;
+        final char[] simpleTypeName;
+        final char[][] enclosingTypeNames;
+        final int modifiers;
+        final AccessRestriction accessRestriction;
+
+        FoundType(char[] packageName, char[] simpleTypeName, char[][] enclosingTypeNames, int modifiers, AccessRestriction accessRestriction) {
+            this.packageName = packageName;
+            this.simpleTypeName = simpleTypeName;
+            this.enclosingTypeNames = enclosingTypeNames;
+            this.modifiers = modifiers;
+            this.accessRestriction = accessRestriction;
+        }
+    }
+
+    private static final class Search {
+        final IJavaProject project;
+        final char[] prefix;
+        final boolean findMembers;
+        final boolean camelCaseMatch;
+        final int searchFor;
+        final List<FoundType> types;
+
+        Search(IJavaProject project, char[] prefix, boolean findMembers, boolean camelCaseMatch, int searchFor, List<FoundType> types) {
+            this.project = project;
+            this.prefix = prefix;
+            this.findMembers = findMembers;
+            this.camelCaseMatch = camelCaseMatch;
+            this.searchFor = searchFor;
+            this.types = types;
+        }
+
+        boolean isExtendedBy(IJavaProject project, char[] prefix, boolean findMembers, boolean camelCaseMatch, int searchFor) {
+            return this.project.equals(project) && this.findMembers == findMembers && this.camelCaseMatch == camelCaseMatch &&
+                this.searchFor == searchFor && CharOperation.prefixEquals(this.prefix, prefix);
+        }
+    }
+
+    private static Search lastSearch;
+
+    private TypeSearchCache() {
+    }
+
+    public static synchronized void clear() {
+        lastSearch = null;
+    }
+
+    private static synchronized Search getLastSearch() {
+        return lastSearch;
+    }
+
+    private static synchronized void setLastSearch(Search search) {
+        lastSearch = search;
+    }
+
+    /**
+     * Finds the types like {@link SearchableEnvironment#findTypes(char[], boolean, boolean, int, ISearchRequestor, IProgressMonitor)},
+     * from the types found by the previous search if its prefix is a prefix of this one.
+     */
+    public static void findTypes(SearchableEnvironment environment, IJavaProject project, char[] prefix, boolean findMembers,
+            boolean camelCaseMatch, int searchFor, ISearchRequestor requestor, IProgressMonitor monitor) {
+        // qualified names are matched by package too
+        if (project == null || CharOperation.indexOf('.', prefix) >= 0) {
+            environment.findTypes(prefix, findMembers, camelCaseMatch, searchFor, requestor, monitor);
+            return;
+        }
+
+        Search search = getLastSearch();
+        boolean hit = (search != null && search.isExtendedBy(project, prefix, findMembers, camelCaseMatch, searchFor));
+        GroovyLogManager.manager.getMetrics().cache(TraceCategory.CONTENT_ASSIST, "type search", hit);
+        if (hit) {
+            for (FoundType type : search.types) {
+                if (matches(prefix, type.simpleTypeName, camelCaseMatch)) {
+                    requestor.acceptType(type.packageName, type.simpleTypeName, type.enclosingTypeNames, type.modifiers, type.accessRestriction);
+                }
+            }
+            return;
+        }
+
+        // results found in the model instead of the indexes may be incomplete
+        boolean indexed = isIndexReady(project, monitor);
+        final List<FoundType> types = new ArrayList<FoundType>();
+        environment.findTypes(prefix, findMembers, camelCaseMatch, searchFor, new DelegatingRequestor(requestor) {
+            @Override
+            public void acceptType(char[] packageName, char[] simpleTypeName, char[][] enclosingTypeNames, int modifiers, AccessRestriction accessRestriction) {
+                if (types.size() <= MAX_TYPES) {
+                    types.add(new FoundType(packageName, simpleTypeName, enclosingTypeNames, modifiers, accessRestriction));
+                }
+                super.acceptType(packageName, simpleTypeName, enclosingTypeNames, modifiers, accessRestriction);
+            }
+        }, monitor);
+        if (indexed && isIndexReady(project, monitor) && types.size() <= MAX_TYPES) {
+            setLastSearch(new Search(project, prefix, findMembers, camelCaseMatch, searchFor, types));
+        } else {
+            setLastSearch(null);
+        }
+    }
+
+    /**
+     * The environment searches the indexes straight away only if it has a
+     * progress monitor and the indexes are up to date; otherwise, or if the
+     * search is canceled or fails, it looks for types in the Java model.
+     */
+    private static boolean isIndexReady(IJavaProject project, IProgressMonitor monitor) {
+        return monitor != null && !monitor.isCanceled() && project.exists() &&
+            JavaModelManager.getIndexManager().awaitingJobsCount() == 0;
+    }
+
+    private static boolean matches(char[] prefix, char[] simpleTypeName, boolean camelCaseMatch) {
+        return CharOperation.prefixEquals(prefix, simpleTypeName, false) ||
+            (camelCaseMatch && CharOperation.camelCaseMatch(prefix, simpleTypeName));
+    }
+
+    private static class DelegatingRequestor implements ISearchRequestor {
+        private final ISearchRequestor delegate;
+
+        DelegatingRequestor(ISearchRequestor delegate) {
+            this.delegate = delegate;
+        }
+
+        public void acceptType(char[] packageName, char[] simpleTypeName, char[][] enclosingTypeNames, int modifiers, AccessRestriction accessRestriction) {
+            delegate.acceptType(packageName, simpleTypeName, enclosingTypeNames, modifiers, accessRestriction);
+        }
+
+        public void acceptConstructor(int modifiers, char[] simpleTypeName, int parameterCount, char[] signature, char[][] parameterTypes,
+                char[][] parameterNames, int typeModifiers, char[] packageName, int extraFlags, String path, AccessRestriction accessRestriction) {
+            delegate.acceptConstructor(modifiers, simpleTypeName, parameterCount, signature, parameterTypes, parameterNames, typeModifiers,
+                packageName, extraFlags, path, accessRestriction);
+        }
+
+        public void acceptPackage(char[] packageName) {
+            delegate.acceptPackage(packageName);
+        }
+
+        // not delegated: ISearchRequestor only declares this for Java 9
+        public void acceptModule(char[] moduleName) {
+        }
+    }
+}
@@ -15,7 +15,8 @@
  */
 package org.codehaus.groovy.eclipse.codeassist.relevance;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.codehaus.groovy.eclipse.codeassist.GroovyContentAssist;
 import org.codehaus.groovy.eclipse.codeassist.ProposalUtils;
@@ -44,7 +45,8 @@ public class RelevanceRules implements IRelevanceRule {
         SOURCE_TYPE, ACCESSIBILITY, MODIFIERS, LIBRARY_TYPE, SIMILAR_PACKAGE
     }
 
-    private RelevanceRuleType[] ruleTypes;
+    /** the rules of the rule types, created once since rules do not keep state per type */
+    private final IRelevanceRule[] rules;
 
     public static RelevanceRules ALL_RULES = new RelevanceRules(
             RelevanceRuleType.LIBRARY_TYPE, RelevanceRuleType.SOURCE_TYPE,
@@ -87,7 +89,18 @@ public class RelevanceRules implements IRelevanceRule {
      * use only a subset of rules.
      */
     public RelevanceRules(RelevanceRuleType... ruleTypes) {
-        this.ruleTypes = ruleTypes;
+        // use all the rule types if none were specified by the invoker.
+        RelevanceRuleType[] rTypes = ruleTypes == null || ruleTypes.length == 0 ? RelevanceRuleType
+                .values() : ruleTypes;
+
+        List<IRelevanceRule> list = new ArrayList<IRelevanceRule>(rTypes.length);
+        for (RelevanceRuleType ruleType : rTypes) {
+            IRelevanceRule rule = getRule(ruleType);
+            if (rule != null) {
+                list.add(rule);
+            }
+        }
+        this.rules = list.toArray(new IRelevanceRule[list.size()]);
     }
 
     /**
@@ -100,17 +113,10 @@ public class RelevanceRules implements IRelevanceRule {
             return 0;
         }
 
-        // use all the rule types if none were specified by the invoker.
-        RelevanceRuleType[] rTypes = ruleTypes == null || ruleTypes.length == 0 ? RelevanceRuleType
-                .values() : ruleTypes;
-
         int relevance = getStartingRelevanceValue();
-        for (RelevanceRuleType ruleType : rTypes) {
-            IRelevanceRule rule = getRule(ruleType);
-            if (rule != null) {
-                relevance += rule.getRelevance(fullyQualifiedName,
-                        contextTypes, accessibility, modifiers);
-            }
+        for (IRelevanceRule rule : rules) {
+            relevance += rule.getRelevance(fullyQualifiedName,
+                    contextTypes, accessibility, modifiers);
         }
         // Use lowest Relevance category as Types have lowest relevance
         // category
@@ -126,16 +132,9 @@ public class RelevanceRules implements IRelevanceRule {
             return 0;
         }
 
-        // use all the rule types if none were specified by the invoker.
-        RelevanceRuleType[] rTypes = ruleTypes == null || ruleTypes.length == 0 ? RelevanceRuleType
-                .values() : ruleTypes;
-
         int relevance = getStartingRelevanceValue();
-        for (RelevanceRuleType ruleType : rTypes) {
-            IRelevanceRule rule = getRule(ruleType);
-            if (rule != null) {
-                relevance += rule.getRelevance(type, contextTypes);
-            }
+        for (IRelevanceRule rule : rules) {
+            relevance += rule.getRelevance(type, contextTypes);
         }
         // User lowest Relevance category as Types have lowest relevance
         // category
@@ -298,13 +297,14 @@ public class RelevanceRules implements IRelevanceRule {
          * @return first segment in the package name containing the type
          */
         protected LibraryType getLibraryType(char[] qualifiedName) {
-            char[][] segments = CharOperation.splitOn('.', qualifiedName);
-            if (segments != null && segments.length > 0) {
-                char[] firstPackSegment = segments[0];
-                for (LibraryType type : LibraryType.values()) {
-                    if (Arrays.equals(type.getValue(), firstPackSegment)) {
-                        return type;
-                    }
+            int length = CharOperation.indexOf('.', qualifiedName);
+            if (length < 0) {
+                length = qualifiedName.length;
+            }
+            for (LibraryType type : LibraryType.values()) {
+                char[] value = type.getValue();
+                if (value.length == length && CharOperation.prefixEquals(value, qualifiedName)) {
+                    return type;
                 }
             }
             return null;
@@ -375,10 +375,45 @@ public class RelevanceRules implements IRelevanceRule {
      */
     public static class SimilarPackagesRule extends AbstractRule {
 
+        /** the package name segments of the last context types */
+        private static class ContextPackage {
+            final IType[] contextTypes;
+            final char[][] segments;
+
+            ContextPackage(IType[] contextTypes, char[][] segments) {
+                this.contextTypes = contextTypes;
+                this.segments = segments;
+            }
+        }
+
+        /**
+         * Content assist ranks every candidate type against the same context
+         * types, so their package is looked up once rather than per type.
+         */
+        private volatile ContextPackage lastContext;
+
         protected String convertToDot(String name) {
             return name != null ? name.replace('$', '.') : name;
         }
 
+        /**
+         * @return the segments of the package name of the context types or
+         *         {@code null} if they are not in one package
+         */
+        protected char[][] getContextSegments(IType[] contextTypes) {
+            ContextPackage context = lastContext;
+            if (context == null || context.contextTypes != contextTypes) {
+                char[][] segments = null;
+                IPackageFragment contextFragment = getContextPackageFragment(contextTypes);
+                if (contextFragment != null) {
+                    segments = CharOperation.splitOn('.', convertToDot(contextFragment.getElementName()).toCharArray());
+                }
+                context = new ContextPackage(contextTypes, segments);
+                lastContext = context;
+            }
+            return context.segments;
+        }
+
         public int getRelevance(IType relevanceType, IType[] contextTypes) {
             return getRelevance(relevanceType.getFullyQualifiedName('.')
                     .toCharArray(), contextTypes, 0, 0);
@@ -387,24 +422,24 @@ public class RelevanceRules implements IRelevanceRule {
         public int getRelevance(char[] fullyQualifiedName,
                 IType[] contextTypes, int accessibility, int modifiers) {
             int relevance = 0;
-            IPackageFragment contextFragment = getContextPackageFragment(contextTypes);
-            if (contextFragment != null && fullyQualifiedName != null) {
-                String relQualified = String.valueOf(fullyQualifiedName);
-                String contextQualified = convertToDot(contextFragment
-                        .getElementName());
-
-                String[] relSegments = relQualified.split("\\.");
-                String[] contextSegments = contextQualified.split("\\.");
-
-                for (int i = 0; i < relSegments.length
-                        && i < contextSegments.length; i++) {
-                    if (relSegments[i].equals(contextSegments[i])) {
+            char[][] contextSegments = getContextSegments(contextTypes);
+            if (contextSegments != null && fullyQualifiedName != null) {
+                // compare the segments of the name in place
+                int start = 0;
+                for (int i = 0; i < contextSegments.length && start <= fullyQualifiedName.length; i++) {
+                    int end = CharOperation.indexOf('.', fullyQualifiedName, start);
+                    if (end < 0) {
+                        end = fullyQualifiedName.length;
+                    }
+                    char[] segment = contextSegments[i];
+                    if (segment.length == end - start && CharOperation.fragmentEquals(segment, fullyQualifiedName, start, true)) {
                         relevance++;
                     } else {
                         // Stop relevance counting once different segments are
                         // encountered
                         break;
                     }
+                    start = end + 1;
                 }
             }
             return TypeRelevanceCategory.HIGH_TYPE.applyCategory(relevance);
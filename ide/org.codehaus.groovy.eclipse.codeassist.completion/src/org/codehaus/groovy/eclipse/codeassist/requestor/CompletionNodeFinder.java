@@ -58,6 +58,7 @@ import org.codehaus.groovy.syntax.Types;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.jdt.groovy.core.util.DepthFirstVisitor;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+import org.eclipse.jdt.groovy.core.util.SourceExtents;
 
 /**
  * Finds the completion node for an offset and calculates the content assist context.
@@ -72,6 +73,7 @@ public class CompletionNodeFinder extends DepthFirstVisitor {
 
     private GroovyCompilationUnit unit;
     private ContentAssistContext context;
+    private SourceExtents extents;
 
     /**
      * Left hand side of any assignment statement or null if there is none
@@ -108,11 +110,13 @@ public class CompletionNodeFinder extends DepthFirstVisitor {
     public ContentAssistContext findContentAssistContext(GroovyCompilationUnit unit) {
         try {
             this.unit = unit;
+            this.extents = SourceExtents.of(unit.getModuleNode());
             visitModule(unit.getModuleNode());
         } catch (VisitCompleteException e) {
             // successful visitation
         } finally {
             this.unit = null;
+            this.extents = null;
         }
         return context;
     }
@@ -224,6 +228,12 @@ public class CompletionNodeFinder extends DepthFirstVisitor {
         if (node == runMethod) {
             return;
         }
+        // skip methods that cannot contain the completion offset
+        if (extents != null && !node.isScriptBody() &&
+                extents.isOutside(node, completionOffset, completionOffset) &&
+                extents.isOutside(node, supportingNodeEnd, supportingNodeEnd)) {
+            return;
+        }
 
         declarationStack.add(node);
 
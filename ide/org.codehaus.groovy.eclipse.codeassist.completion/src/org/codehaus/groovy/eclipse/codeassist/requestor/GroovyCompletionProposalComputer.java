@@ -43,6 +43,7 @@ import org.codehaus.groovy.eclipse.codeassist.processors.IGroovyCompletionProces
 import org.codehaus.groovy.eclipse.codeassist.processors.IProposalFilter;
 import org.codehaus.groovy.eclipse.codeassist.processors.IProposalFilterExtension;
 import org.codehaus.groovy.eclipse.codeassist.processors.ProposalProviderRegistry;
+import org.codehaus.groovy.eclipse.codeassist.processors.TypeSearchCache;
 import org.codehaus.groovy.eclipse.core.ISourceBuffer;
 import org.codehaus.groovy.eclipse.core.util.ExpressionFinder;
 import org.codehaus.groovy.eclipse.core.util.ParseException;
@@ -337,8 +338,10 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
     }
 
     public void sessionStarted() {
+        TypeSearchCache.clear();
     }
 
     public void sessionEnded() {
+        TypeSearchCache.clear();
     }
 }
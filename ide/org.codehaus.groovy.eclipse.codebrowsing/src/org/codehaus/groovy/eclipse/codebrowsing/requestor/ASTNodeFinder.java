@@ -51,6 +51,7 @@ import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.eclipse.jdt.groovy.core.util.ArrayUtils;
 import org.eclipse.jdt.groovy.core.util.DepthFirstVisitor;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+import org.eclipse.jdt.groovy.core.util.SourceExtents;
 
 public class ASTNodeFinder extends DepthFirstVisitor {
 
@@ -58,6 +59,8 @@ public class ASTNodeFinder extends DepthFirstVisitor {
     protected ASTNode result;
     protected Region sloc;
 
+    private SourceExtents extents;
+
     public ASTNodeFinder(Region sloc) {
         this.sloc = sloc;
     }
@@ -68,6 +71,7 @@ public class ASTNodeFinder extends DepthFirstVisitor {
     public ASTNode doVisit(ModuleNode node) {
         module = node;
         result = null;
+        extents = SourceExtents.of(node);
         try {
             visitModule(node);
         } catch (VisitCompleteException done) {
@@ -122,6 +126,8 @@ public class ASTNodeFinder extends DepthFirstVisitor {
 
     @Override
     public void visitField(FieldNode node) {
+        if (isOutside(node)) return;
+
         if (node.getNameEnd() > 0) {
             checkNameRange(node);
         }
@@ -144,7 +150,7 @@ public class ASTNodeFinder extends DepthFirstVisitor {
 
     @Override
     public void visitMethod(MethodNode node) {
-        if (node == runMethod) return;
+        if (node == runMethod || isOutside(node)) return;
 
         if (node.getEnd() > 0) {
             if (!(node instanceof ConstructorNode) && isNotEmpty(node.getGenericsTypes())) {
@@ -327,6 +333,13 @@ public class ASTNodeFinder extends DepthFirstVisitor {
 
     //--------------------------------------------------------------------------
 
+    /**
+     * Checks if nothing within the field or method can cover the selection.
+     */
+    protected boolean isOutside(AnnotatedNode member) {
+        return (extents != null && extents.isOutside(member, sloc.getOffset(), sloc.getEnd()));
+    }
+
     /**
      * Checks if the node covers the selection.
      */
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codebrowsing.selection;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.expr.ArrayExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.BitwiseNegationExpression;
+import org.codehaus.groovy.ast.expr.BooleanExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.FieldExpression;
+import org.codehaus.groovy.ast.expr.GStringExpression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.MethodPointerExpression;
+import org.codehaus.groovy.ast.expr.PostfixExpression;
+import org.codehaus.groovy.ast.expr.PrefixExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.RangeExpression;
+import org.codehaus.groovy.ast.expr.SpreadExpression;
+import org.codehaus.groovy.ast.expr.SpreadMapExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.TernaryExpression;
+import org.codehaus.groovy.ast.expr.TupleExpression;
+import org.codehaus.groovy.ast.expr.UnaryMinusExpression;
+import org.codehaus.groovy.ast.expr.UnaryPlusExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.eclipse.codebrowsing.fragments.ASTFragmentKind;
+import org.codehaus.groovy.eclipse.codebrowsing.fragments.FragmentVisitor;
+import org.codehaus.groovy.eclipse.codebrowsing.fragments.IASTFragment;
+import org.codehaus.groovy.eclipse.codebrowsing.fragments.MethodCallFragment;
+import org.eclipse.jdt.groovy.core.util.DepthFirstVisitor;
+
+/**
+ * Signatures of the names, constants and types within the statements, fields
+ * and methods of a module.  A signature is a 64-bit set of hashed keys that is
+ * computed bottom-up, once per module node, and kept in its meta data.
+ * <p>
+ * An expression can only be the same as (see {@link IsSameExpression}) an
+ * expression within a statement if every key of its signature is in the
+ * statement's signature, so {@link FindAllOccurrencesVisitor} skips the
+ * statements and members where that is not the case and compares only the
+ * expressions of the rest.
+ */
+final class ExpressionSignatures {
+
+    static ExpressionSignatures of(ModuleNode module) {
+        synchronized (module) {
+            ExpressionSignatures signatures = (ExpressionSignatures) module.getNodeMetaData(ExpressionSignatures.class);
+            if (signatures == null) {
+                Collector collector = new Collector();
+                collector.visitModule(module);
+                signatures = new ExpressionSignatures(collector.signatures);
+                module.setNodeMetaData(ExpressionSignatures.class, signatures);
+            }
+            return signatures;
+        }
+    }
+
+    private final Map<ASTNode, Long> signatures;
+
+    private ExpressionSignatures(Map<ASTNode, Long> signatures) {
+        this.signatures = signatures;
+    }
+
+    /**
+     * @param signature the signature of the fragment to find
+     * @return {@code true} if the statement, field or method cannot contain an
+     *         occurrence; {@code false} if it may or if it has no signature
+     */
+    boolean cannotContain(ASTNode node, long signature) {
+        Long s = signatures.get(node);
+        return (s != null && (s.longValue() & signature) != signature);
+    }
+
+    /**
+     * @return the signature of the expressions that are compared when matching
+     *         the fragment, or 0 (which every node may contain) if not known
+     */
+    static long signatureOf(IASTFragment fragment) {
+        switch (fragment.kind()) {
+        case SIMPLE_EXPRESSION:
+        case BINARY:
+        case PROPERTY:
+        case SAFE_PROPERTY:
+        case SPREAD_SAFE_PROPERTY:
+        case METHOD_POINTER:
+        case METHOD_CALL:
+            final long[] signature = new long[1];
+            fragment.accept(new FragmentVisitor() {
+                @Override
+                public boolean previsit(IASTFragment piece) {
+                    if (piece.kind() != ASTFragmentKind.EMPTY) {
+                        signature[0] |= signatureOf(piece.getAssociatedExpression());
+                    }
+                    return true;
+                }
+                @Override
+                public boolean visit(MethodCallFragment piece) {
+                    signature[0] |= signatureOf(piece.getArguments());
+                    return true;
+                }
+            });
+            return signature[0];
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * @return the keys of the expression and of the expressions below it that
+     *         {@link IsSameExpression} compares
+     */
+    static long signatureOf(Expression expr) {
+        if (expr == null) {
+            return 0;
+        }
+        long signature = keyOf(expr);
+        if (expr instanceof BinaryExpression) {
+            signature |= signatureOf(((BinaryExpression) expr).getLeftExpression());
+            signature |= signatureOf(((BinaryExpression) expr).getRightExpression());
+        } else if (expr instanceof PropertyExpression) {
+            signature |= signatureOf(((PropertyExpression) expr).getObjectExpression());
+            signature |= signatureOf(((PropertyExpression) expr).getProperty());
+        } else if (expr instanceof MethodCallExpression) {
+            signature |= signatureOf(((MethodCallExpression) expr).getObjectExpression());
+            signature |= signatureOf(((MethodCallExpression) expr).getMethod());
+            signature |= signatureOf(((MethodCallExpression) expr).getArguments());
+        } else if (expr instanceof StaticMethodCallExpression) {
+            signature |= signatureOf(((StaticMethodCallExpression) expr).getArguments());
+        } else if (expr instanceof ConstructorCallExpression) {
+            signature |= signatureOf(((ConstructorCallExpression) expr).getArguments());
+        } else if (expr instanceof MethodPointerExpression) {
+            signature |= signatureOf(((MethodPointerExpression) expr).getExpression());
+            signature |= signatureOf(((MethodPointerExpression) expr).getMethodName());
+        } else if (expr instanceof TupleExpression) {
+            signature |= signatureOf(((TupleExpression) expr).getExpressions());
+        } else if (expr instanceof ListExpression) {
+            signature |= signatureOf(((ListExpression) expr).getExpressions());
+        } else if (expr instanceof ArrayExpression) {
+            signature |= signatureOf(((ArrayExpression) expr).getExpressions());
+            signature |= signatureOf(((ArrayExpression) expr).getSizeExpression());
+        } else if (expr instanceof GStringExpression) {
+            signature |= signatureOf(((GStringExpression) expr).getStrings());
+            signature |= signatureOf(((GStringExpression) expr).getValues());
+        } else if (expr instanceof TernaryExpression) {
+            signature |= signatureOf(((TernaryExpression) expr).getBooleanExpression());
+            signature |= signatureOf(((TernaryExpression) expr).getTrueExpression());
+            signature |= signatureOf(((TernaryExpression) expr).getFalseExpression());
+        } else if (expr instanceof RangeExpression) {
+            signature |= signatureOf(((RangeExpression) expr).getFrom());
+            signature |= signatureOf(((RangeExpression) expr).getTo());
+        } else if (expr instanceof CastExpression) {
+            signature |= signatureOf(((CastExpression) expr).getExpression());
+        } else if (expr instanceof BooleanExpression) {
+            signature |= signatureOf(((BooleanExpression) expr).getExpression());
+        } else if (expr instanceof BitwiseNegationExpression) {
+            signature |= signatureOf(((BitwiseNegationExpression) expr).getExpression());
+        } else if (expr instanceof PrefixExpression) {
+            signature |= signatureOf(((PrefixExpression) expr).getExpression());
+        } else if (expr instanceof PostfixExpression) {
+            signature |= signatureOf(((PostfixExpression) expr).getExpression());
+        } else if (expr instanceof UnaryMinusExpression) {
+            signature |= signatureOf(((UnaryMinusExpression) expr).getExpression());
+        } else if (expr instanceof UnaryPlusExpression) {
+            signature |= signatureOf(((UnaryPlusExpression) expr).getExpression());
+        } else if (expr instanceof SpreadExpression) {
+            signature |= signatureOf(((SpreadExpression) expr).getExpression());
+        } else if (expr instanceof SpreadMapExpression) {
+            signature |= signatureOf(((SpreadMapExpression) expr).getExpression());
+        }
+        return signature;
+    }
+
+    private static long signatureOf(List<? extends Expression> exprs) {
+        long signature = 0;
+        if (exprs != null) {
+            for (Expression expr : exprs) {
+                signature |= signatureOf(expr);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * @return the key of the expression itself; a constant and a class
+     *         expression for the same type name have the same key
+     */
+    private static long keyOf(Expression expr) {
+        String key;
+        if (expr instanceof VariableExpression) {
+            key = ((VariableExpression) expr).getName();
+        } else if (expr instanceof ConstantExpression) {
+            key = ((ConstantExpression) expr).getText();
+        } else if (expr instanceof ClassExpression || expr instanceof CastExpression ||
+                expr instanceof ConstructorCallExpression) {
+            key = expr.getType().getName();
+        } else if (expr instanceof StaticMethodCallExpression) {
+            key = ((StaticMethodCallExpression) expr).getMethod();
+        } else if (expr instanceof FieldExpression) {
+            key = ((FieldExpression) expr).getFieldName();
+        } else {
+            key = null;
+        }
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return 1L << (h & 63);
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static class Collector extends DepthFirstVisitor {
+
+        final Map<ASTNode, Long> signatures = new IdentityHashMap<ASTNode, Long>();
+
+        /** the signature of the statement or member being visited */
+        private long current;
+
+        @Override
+        public void visitField(FieldNode node) {
+            long outer = current;
+            current = 0;
+            super.visitField(node);
+            exit(node, outer);
+        }
+
+        @Override
+        public void visitMethod(MethodNode node) {
+            if (node == runMethod) return;
+            long outer = current;
+            current = 0;
+            super.visitMethod(node);
+            exit(node, outer);
+        }
+
+        @Override
+        public void visitBlockStatement(BlockStatement block) {
+            for (Statement statement : block.getStatements()) {
+                long outer = current;
+                current = 0;
+                visitIfPresent(statement);
+                exit(statement, outer);
+            }
+            visitStatement(block);
+        }
+
+        @Override
+        protected void visitExpression(Expression expression) {
+            super.visitExpression(expression);
+            current |= keyOf(expression);
+        }
+
+        private void exit(ASTNode node, long outer) {
+            signatures.put(node, Long.valueOf(current));
+            current |= outer;
+        }
+    }
+}
@@ -59,6 +59,8 @@ import org.codehaus.groovy.ast.expr.TupleExpression;
 import org.codehaus.groovy.ast.expr.UnaryMinusExpression;
 import org.codehaus.groovy.ast.expr.UnaryPlusExpression;
 import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
 import org.codehaus.groovy.classgen.BytecodeExpression;
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.ASTFragmentFactory;
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.ASTFragmentKind;
@@ -124,6 +126,11 @@ public class FindAllOccurrencesVisitor extends ClassCodeVisitorSupport {
 
     private IASTFragment toFind;
 
+    /** the signature of the expressions to find */
+    private long toFindSignature;
+
+    private ExpressionSignatures signatures;
+
     private List<IASTFragment> occurrences;
 
     private ModuleNode module;
@@ -150,6 +157,8 @@ public class FindAllOccurrencesVisitor extends ClassCodeVisitorSupport {
 
     public List<IASTFragment> findOccurrences(IASTFragment fragment) {
         this.toFind = fragment;
+        this.toFindSignature = ExpressionSignatures.signatureOf(fragment);
+        this.signatures = ExpressionSignatures.of(module);
         this.occurrences = new ArrayList<IASTFragment>();
 
         if (limitTo == null) {
@@ -178,12 +187,15 @@ public class FindAllOccurrencesVisitor extends ClassCodeVisitorSupport {
         if (node.getEnd() == 0 && !node.getName().equals("<clinit>")) {
             return;
         }
+        if (signatures.cannotContain(node, toFindSignature)) {
+            return;
+        }
         super.visitConstructorOrMethod(node, isConstructor);
     }
 
     @Override
     public void visitField(FieldNode node) {
-        if (node.getEnd() == 0) {
+        if (node.getEnd() == 0 || signatures.cannotContain(node, toFindSignature)) {
             return;
         }
         // if (node.getInitialExpression() != null && isSame.isSame(toFind,
@@ -194,6 +206,17 @@ public class FindAllOccurrencesVisitor extends ClassCodeVisitorSupport {
         super.visitField(node);
     }
 
+    @Override
+    public void visitBlockStatement(BlockStatement block) {
+        visitStatement(block);
+        for (Statement statement : block.getStatements()) {
+            // skip statements that do not contain every name and constant of the fragment
+            if (!signatures.cannotContain(statement, toFindSignature)) {
+                statement.visit(this);
+            }
+        }
+    }
+
     @Override
     public void visitProperty(PropertyNode node) {
     // ignore. don't want to visit the fields twice.
@@ -15,6 +15,7 @@
  */
 package org.codehaus.groovy.eclipse.core;
 
+import org.codehaus.groovy.eclipse.core.model.RunnableTypeCache;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -41,7 +42,11 @@ public class GroovyCoreActivator extends Plugin {
 
     @Override
     public void stop(BundleContext context) throws Exception {
-        super.stop(context);
+        try {
+            RunnableTypeCache.dispose();
+        } finally {
+            super.stop(context);
+        }
     }
 
     //--------------------------------------------------------------------------
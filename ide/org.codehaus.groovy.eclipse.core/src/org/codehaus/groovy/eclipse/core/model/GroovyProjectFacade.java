@@ -15,7 +15,6 @@
  */
 package org.codehaus.groovy.eclipse.core.model;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -38,8 +37,6 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
-import org.eclipse.jdt.core.IPackageFragment;
-import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
@@ -233,23 +230,13 @@ public class GroovyProjectFacade {
     }
 
 
+    /**
+     * Finds the types with a runnable main method in the writable source
+     * folders of the project.  Results are cached and kept current as units
+     * change.
+     */
     public List<IType> findAllRunnableTypes() throws JavaModelException {
-        final List<IType> results = new ArrayList<IType>();
-        IPackageFragmentRoot[] roots = project.getAllPackageFragmentRoots();
-        for (IPackageFragmentRoot root : roots) {
-            if (!root.isReadOnly()) {
-                IJavaElement[] children = root.getChildren();
-                for (IJavaElement child : children) {
-                    if (child.getElementType() == IJavaElement.PACKAGE_FRAGMENT) {
-                        ICompilationUnit[] units = ((IPackageFragment) child).getCompilationUnits();
-                        for (ICompilationUnit unit : units) {
-                            results.addAll(findAllRunnableTypes(unit));
-                        }
-                    }
-                }
-            }
-        }
-        return results;
+        return RunnableTypeCache.getInstance().findRunnableTypes(project, false);
     }
 
     public static List<IType> findAllRunnableTypes(ICompilationUnit unit) throws JavaModelException {
@@ -316,29 +303,12 @@ public class GroovyProjectFacade {
         return false;
     }
 
+    /**
+     * Finds the Groovy scripts in the writable source folders of the project.
+     * Results are cached and kept current as units change.
+     */
     public List<IType> findAllScripts() throws JavaModelException {
-        final List<IType> results = new ArrayList<IType>();
-        IPackageFragmentRoot[] roots = project.getAllPackageFragmentRoots();
-        for (IPackageFragmentRoot root : roots) {
-            if (!root.isReadOnly()) {
-                IJavaElement[] children = root.getChildren();
-                for (IJavaElement child : children) {
-                    if (child.getElementType() == IJavaElement.PACKAGE_FRAGMENT) {
-                        ICompilationUnit[] units = ((IPackageFragment) child).getCompilationUnits();
-                        for (ICompilationUnit unit : units) {
-                            if (unit instanceof GroovyCompilationUnit) {
-                                for (IType type : unit.getTypes()) {
-                                    if (isGroovyScript(type)) {
-                                        results.add(type);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return results;
+        return RunnableTypeCache.getInstance().findRunnableTypes(project, true);
     }
 
     public boolean isGroovyScript(ICompilationUnit unit) {
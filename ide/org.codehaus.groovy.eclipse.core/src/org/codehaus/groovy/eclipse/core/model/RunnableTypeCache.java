@@ -0,0 +1,289 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+
+/**
+ * The types with a runnable main method (including Groovy scripts) in the
+ * writable source folders visible to each Java project.
+ * <p>
+ * Candidates are found by searching the index for declarations of methods
+ * named "main", so only the units that declare one are opened.  The results
+ * are kept per compilation unit: units added, changed or removed are checked
+ * again on the next request and any other change that may add or remove units
+ * (package fragment roots, classpaths, projects) drops the project's results.
+ */
+public final class RunnableTypeCache implements IElementChangedListener {
+
+    private static RunnableTypeCache instance;
+
+    static synchronized RunnableTypeCache getInstance() {
+        if (instance == null) {
+            instance = new RunnableTypeCache();
+            JavaCore.addElementChangedListener(instance, ElementChangedEvent.POST_CHANGE);
+        }
+        return instance;
+    }
+
+    /**
+     * Stops listening for Java element changes and drops the cache.
+     */
+    public static synchronized void dispose() {
+        if (instance != null) {
+            JavaCore.removeElementChangedListener(instance);
+            instance.clear();
+            instance = null;
+        }
+    }
+
+    /** runnable types and scripts of one compilation unit */
+    private static class Entry {
+        final List<IType> runnables;
+        final List<IType> scripts;
+
+        Entry(List<IType> runnables, List<IType> scripts) {
+            this.runnables = runnables;
+            this.scripts = scripts;
+        }
+    }
+
+    private static class ProjectEntries {
+        final Map<ICompilationUnit, Entry> units;
+        final Set<ICompilationUnit> changed = new LinkedHashSet<ICompilationUnit>();
+
+        ProjectEntries(Map<ICompilationUnit, Entry> units) {
+            this.units = units;
+        }
+    }
+
+    private final Map<IJavaProject, ProjectEntries> cache = new HashMap<IJavaProject, ProjectEntries>();
+
+    /** incremented whenever entries change, so that results that overlap a change are not cached */
+    private int generation;
+
+    private RunnableTypeCache() {
+    }
+
+    /**
+     * @param scripts if {@code true}, only Groovy scripts are returned
+     */
+    List<IType> findRunnableTypes(IJavaProject project, boolean scripts) throws JavaModelException {
+        Map<ICompilationUnit, Entry> units;
+        Set<ICompilationUnit> changed;
+        int searchGeneration;
+        synchronized (this) {
+            searchGeneration = generation;
+            ProjectEntries entries = cache.get(project);
+            if (entries != null) {
+                units = new LinkedHashMap<ICompilationUnit, Entry>(entries.units);
+                changed = new LinkedHashSet<ICompilationUnit>(entries.changed);
+            } else {
+                units = null;
+                changed = null;
+            }
+        }
+
+        if (units == null) {
+            units = search(project);
+        } else {
+            for (ICompilationUnit unit : changed) {
+                units.remove(unit);
+                if (unit.exists() && isWritableSource(project, unit)) {
+                    Entry entry = createEntry(project, unit);
+                    if (entry != null) {
+                        units.put(unit, entry);
+                    }
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (searchGeneration == generation) {
+                cache.put(project, new ProjectEntries(units));
+            }
+        }
+
+        List<IType> result = new ArrayList<IType>();
+        for (Entry entry : units.values()) {
+            result.addAll(scripts ? entry.scripts : entry.runnables);
+        }
+        return result;
+    }
+
+    private static Map<ICompilationUnit, Entry> search(IJavaProject project) throws JavaModelException {
+        List<IJavaElement> roots = new ArrayList<IJavaElement>();
+        for (IPackageFragmentRoot root : project.getAllPackageFragmentRoots()) {
+            if (!root.isReadOnly()) {
+                roots.add(root);
+            }
+        }
+
+        final Set<ICompilationUnit> candidates = new LinkedHashSet<ICompilationUnit>();
+        if (!roots.isEmpty()) {
+            IJavaSearchScope scope = SearchEngine.createJavaSearchScope(roots.toArray(new IJavaElement[roots.size()]), IJavaSearchScope.SOURCES);
+            SearchPattern pattern = SearchPattern.createPattern("main", IJavaSearchConstants.METHOD,
+                IJavaSearchConstants.DECLARATIONS, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+            SearchRequestor requestor = new SearchRequestor() {
+                @Override
+                public void acceptSearchMatch(SearchMatch match) {
+                    if (match.getElement() instanceof IMethod) {
+                        ICompilationUnit unit = ((IMethod) match.getElement()).getCompilationUnit();
+                        if (unit != null) {
+                            candidates.add(unit);
+                        }
+                    }
+                }
+            };
+            try {
+                new SearchEngine().search(pattern, new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()}, scope, requestor, null);
+            } catch (JavaModelException e) {
+                throw e;
+            } catch (CoreException e) {
+                throw new JavaModelException(e);
+            }
+        }
+
+        Map<ICompilationUnit, Entry> units = new LinkedHashMap<ICompilationUnit, Entry>();
+        for (ICompilationUnit unit : candidates) {
+            Entry entry = createEntry(project, unit);
+            if (entry != null) {
+                units.put(unit, entry);
+            }
+        }
+        return units;
+    }
+
+    private static Entry createEntry(IJavaProject project, ICompilationUnit unit) throws JavaModelException {
+        List<IType> runnables = GroovyProjectFacade.findAllRunnableTypes(unit);
+        if (runnables.isEmpty()) {
+            return null;
+        }
+        List<IType> scripts = Collections.emptyList();
+        if (unit instanceof GroovyCompilationUnit) {
+            GroovyProjectFacade facade = new GroovyProjectFacade(project);
+            scripts = new ArrayList<IType>(1);
+            for (IType type : unit.getTypes()) {
+                if (runnables.contains(type) && facade.isGroovyScript(type)) {
+                    scripts.add(type);
+                }
+            }
+        }
+        return new Entry(runnables, scripts);
+    }
+
+    private static boolean isWritableSource(IJavaProject project, ICompilationUnit unit) throws JavaModelException {
+        IPackageFragmentRoot root = (IPackageFragmentRoot) unit.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+        return (root != null && !root.isReadOnly() && project.findPackageFragmentRoot(root.getPath()) != null);
+    }
+
+    synchronized void clear() {
+        generation += 1;
+        cache.clear();
+    }
+
+    //--------------------------------------------------------------------------
+
+    public void elementChanged(ElementChangedEvent event) {
+        Set<ICompilationUnit> changedUnits = new LinkedHashSet<ICompilationUnit>();
+        if (!visit(event.getDelta(), changedUnits)) {
+            clear();
+        } else if (!changedUnits.isEmpty()) {
+            changed(changedUnits);
+        }
+    }
+
+    /**
+     * Collects the compilation units added, changed or removed in the delta.
+     *
+     * @return {@code false} if the delta contains changes that may add or
+     *         remove units without reporting them
+     */
+    private boolean visit(IJavaElementDelta delta, Set<ICompilationUnit> changedUnits) {
+        IJavaElement element = delta.getElement();
+        int kind = delta.getKind(), flags = delta.getFlags();
+        switch (element.getElementType()) {
+        case IJavaElement.JAVA_MODEL:
+            break;
+        case IJavaElement.JAVA_PROJECT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED |
+                    IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+                return false;
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH |
+                    IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+                return false;
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT:
+            if (kind != IJavaElementDelta.CHANGED) {
+                return false;
+            }
+            break;
+        case IJavaElement.COMPILATION_UNIT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) != 0) {
+                ICompilationUnit unit = (ICompilationUnit) element;
+                changedUnits.add(unit.isWorkingCopy() ? unit.getPrimary() : unit);
+            }
+            return true;
+        default:
+            return true;
+        }
+        for (IJavaElementDelta child : delta.getAffectedChildren()) {
+            if (!visit(child, changedUnits)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void changed(Set<ICompilationUnit> changedUnits) {
+        generation += 1;
+        for (ProjectEntries entries : cache.values()) {
+            entries.changed.addAll(changedUnits);
+        }
+    }
+}
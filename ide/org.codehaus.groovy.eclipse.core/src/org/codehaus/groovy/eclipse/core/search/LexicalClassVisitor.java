@@ -15,7 +15,9 @@
  */
 package org.codehaus.groovy.eclipse.core.search;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
@@ -81,7 +83,8 @@ import org.codehaus.groovy.classgen.BytecodeExpression;
  * Iterates through {@link ModuleNode} members in lexical order.
  *
  * The order is not computed lazily, rather, when the first node is asked for,
- * the entire module node is walked.
+ * the entire module node is walked.  The order is kept in the module node's
+ * meta data, so the module is only walked once for all visitors of it.
  *
  * {@link PackageNode}s and {@link ImportNode}s are ignored.
  *
@@ -474,7 +477,13 @@ public class LexicalClassVisitor {
 
     private final ModuleNode module;
 
-    private PriorityQueue<ComparableNode> nodeList;
+    /** the nodes found by the previsitor */
+    private List<ComparableNode> nodeList;
+
+    /** the nodes of the module in lexical order */
+    private ASTNode[] nodes;
+
+    private int nextNode;
 
     public LexicalClassVisitor(ModuleNode module) {
         super();
@@ -489,23 +498,37 @@ public class LexicalClassVisitor {
         if (!hasNextNode()) {
             return null;
         }
-        return nodeList.remove().thisNode;
+        return nodes[nextNode++];
     }
 
     private void initialize() {
-        nodeList = new PriorityQueue<ComparableNode>();
-        LexicalPrevisitor visitor = new LexicalPrevisitor();
-        visitor.doVisit(module);
+        synchronized (module) {
+            nodes = (ASTNode[]) module.getNodeMetaData(LexicalClassVisitor.class);
+            if (nodes == null) {
+                nodeList = new ArrayList<ComparableNode>();
+                LexicalPrevisitor visitor = new LexicalPrevisitor();
+                visitor.doVisit(module);
+                Collections.sort(nodeList);
+
+                nodes = new ASTNode[nodeList.size()];
+                for (int i = 0; i < nodes.length; i += 1) {
+                    nodes[i] = nodeList.get(i).thisNode;
+                }
+                nodeList = null;
+                module.setNodeMetaData(LexicalClassVisitor.class, nodes);
+            }
+        }
+        nextNode = 0;
     }
 
     public boolean hasNextNode() {
-        if (nodeList == null) {
+        if (nodes == null) {
             initialize();
         }
-        return !nodeList.isEmpty();
+        return nextNode < nodes.length;
     }
 
     public void reset() {
-        nodeList = null;
+        nodes = null;
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.util;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.groovy.ast.Comment;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.eclipse.core.ISourceBuffer;
+import org.codehaus.groovy.eclipse.core.compiler.GroovySnippetParser;
+
+/**
+ * Where the comments of a source buffer are, as {@link TokenStream} needs to
+ * know.  They are worked out (by parsing the whole source) on first use and
+ * then shared by the token streams of all requests on the same buffer, which
+ * must not change while it is in use.
+ * <p>
+ * Only the summary of the last buffer is kept, and only as long as memory
+ * allows; buffers are told apart by identity so the text is neither copied
+ * nor hashed.
+ */
+final class LexicalSummary {
+
+    private static SoftReference<LexicalSummary> last;
+
+    /**
+     * @return the summary of the buffer
+     */
+    static synchronized LexicalSummary of(ISourceBuffer buffer) {
+        LexicalSummary summary = (last != null ? last.get() : null);
+        if (summary == null || summary.buffer != buffer) {
+            summary = new LexicalSummary(buffer);
+            last = new SoftReference<LexicalSummary>(summary);
+        }
+        return summary;
+    }
+
+    private final ISourceBuffer buffer;
+
+    /** sorted start and end offsets of the comments; computed on first use */
+    private int[] comments;
+
+    private LexicalSummary(ISourceBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return {@code true} if the index is the start of a comment (or the end
+     *         of one, as the token stream uses it)
+     */
+    synchronized boolean isComment(int index) {
+        if (comments == null) {
+            GroovySnippetParser parser = new GroovySnippetParser();
+            ModuleNode module = parser.parse(buffer.subSequence(0, buffer.length()));
+
+            // extract the comment ranges from the parse results
+            List<Comment> list = module.getContext().getComments();
+            int i = 0, n = (list == null ? 0 : list.size());
+            int[] ranges = new int[n * 2];
+            if (n > 0) {
+                for (Comment comment : list) {
+                    ranges[i++] = parser.getLocations().findOffset(comment.sline, comment.scol);
+                    ranges[i++] = parser.getLocations().findOffset(comment.eline, comment.ecol);
+                }
+                Arrays.sort(ranges); // should be sorted already, but let's be sure
+            }
+            comments = ranges;
+        }
+        return (Arrays.binarySearch(comments, index) % 2) == 0;
+    }
+}
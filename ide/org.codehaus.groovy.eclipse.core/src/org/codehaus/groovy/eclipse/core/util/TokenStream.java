@@ -15,15 +15,10 @@
  */
 package org.codehaus.groovy.eclipse.core.util;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.codehaus.groovy.ast.Comment;
-import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.eclipse.core.ISourceBuffer;
-import org.codehaus.groovy.eclipse.core.compiler.GroovySnippetParser;
 import org.codehaus.groovy.eclipse.core.impl.ReverseSourceBuffer;
 
 /**
@@ -41,6 +36,7 @@ public class TokenStream {
     private static final Pattern TRIPLE_QUOTE2 = Pattern.compile("^\"\"\".*\"\"\"");
 
     private final ISourceBuffer buffer;
+    private LexicalSummary summary;
     private Token last, next;
     private int offset;
     private char ch;
@@ -336,26 +332,15 @@ public class TokenStream {
     }
 
     private boolean isComment(int index) {
-        if (comments == null) {
-            CharSequence source = buffer.subSequence(0, buffer.length());
-            GroovySnippetParser parser = new GroovySnippetParser();
-            ModuleNode module = parser.parse(source);
-
-            // extract the comment ranges from the parse results
-            List<Comment> list = module.getContext().getComments();
-            int i = 0, n = (list == null ? 0 : list.size());
-            comments = new int[n * 2];
-            if (n > 0) {
-                for (Comment comment : list) {
-                    comments[i++] = parser.getLocations().findOffset(comment.sline, comment.scol);
-                    comments[i++] = parser.getLocations().findOffset(comment.eline, comment.ecol);
-                }
-                Arrays.sort(comments); // should be sorted already, but let's be sure
-            }
+        return getSummary().isComment(index);
+    }
+
+    private LexicalSummary getSummary() {
+        if (summary == null) {
+            summary = LexicalSummary.of(buffer);
         }
-        return (Arrays.binarySearch(comments, index) % 2) == 0;
+        return summary;
     }
-    private int[] comments;
 
     private char la(int index) {
         if (offset - index >= 0) {
@@ -24,6 +24,9 @@ import org.codehaus.groovy.ast.MethodNode;
 import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.ast.expr.Expression;
 import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.eclipse.TraceMetrics;
 import org.codehaus.groovy.eclipse.dsl.DSLDStore;
 import org.codehaus.groovy.eclipse.dsl.DSLDStoreManager;
 import org.codehaus.groovy.eclipse.dsl.DSLPreferences;
@@ -82,6 +85,9 @@ public class DSLDTypeLookup extends AbstractSimplifiedTypeLookup implements ITyp
         pattern.setTargetType(declaringType);
         pattern.setStatic(isStatic());
         List<IContributionElement> elts = store.findContributions(pattern, disabledScriptsAsSet);
+        TraceMetrics metrics = GroovyLogManager.manager.getMetrics();
+        metrics.count(TraceCategory.DSL, "pointcut evaluations");
+        metrics.count(TraceCategory.DSL, "contribution matches", elts.size());
         declaringType = pattern.getCurrentType(); // may have changed via a setDelegateType
         for (IContributionElement elt : elts) {
             TypeAndDeclaration td = elt.lookupType(name, declaringType, pattern.getResolverCache());
@@ -15,9 +15,12 @@
  */
 package org.codehaus.groovy.eclipse.refactoring.formatter;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Vector;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import groovyjarjarantlr.Token;
@@ -32,10 +35,9 @@ import org.codehaus.groovy.ast.stmt.ReturnStatement;
 import org.codehaus.groovy.ast.stmt.Statement;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.refactoring.core.utils.ASTTools;
-import org.codehaus.groovy.eclipse.refactoring.core.utils.astScanner.ASTNodeInfo;
 import org.codehaus.groovy.eclipse.refactoring.core.utils.astScanner.ASTScanner;
+import org.codehaus.groovy.eclipse.refactoring.core.utils.astScanner.predicates.IASTNodePredicate;
 import org.codehaus.groovy.eclipse.refactoring.core.utils.astScanner.predicates.IncludesClosureOrListPredicate;
-import org.codehaus.groovy.eclipse.refactoring.core.utils.astScanner.predicates.SourceCodePredicate;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
@@ -52,9 +54,23 @@ import org.eclipse.text.edits.UndoEdit;
  */
 public class DefaultGroovyFormatter extends GroovyFormatter {
 
+    private static final Pattern MULTILINE = Pattern.compile(".*(\n|\r\n|\r).*", Pattern.DOTALL);
+
+    private static final IASTNodePredicate ANY_NODE = new IASTNodePredicate() {
+        public ASTNode evaluate(ASTNode input) {
+            return input;
+        }
+    };
+
     protected IFormatterPreferences pref;
     private ModuleNode rootNode;
 
+    /**
+     * The nodes of {@link #rootNode} by start line and column, in the order
+     * that they are scanned, with their lengths; built on the first lookup.
+     */
+    private Map<Long, LinkedHashMap<ASTNode, Integer>> nodesByPosition;
+
     private Document formattedDocument;
     private final boolean indentOnly;
     public int formatOffset, formatLength;
@@ -107,6 +123,7 @@ public class DefaultGroovyFormatter extends GroovyFormatter {
         GroovyCore.trace(formattedDocument.get());
         tokens = new KlenkDocumentScanner(formattedDocument);
         rootNode = ASTTools.getASTNodeFromSource(formattedDocument.get());
+        nodesByPosition = null;
         if (rootNode == null) {
             // caused by unparseable file
             throw new Exception("Could not format.  Problem parsing Compilation unit.  Fix all syntax errors and try again.");
@@ -159,8 +176,7 @@ public class DefaultGroovyFormatter extends GroovyFormatter {
                 node.visit(cltest);
                 if (!cltest.getContainer()) {
                     String text = ASTTools.getTextofNode(node, formattedDocument);
-                    Matcher m = Pattern.compile(".*(\n|\r\n|\r).*", Pattern.DOTALL).matcher(trimEnd(text));
-                    return m.matches();
+                    return MULTILINE.matcher(trimEnd(text)).matches();
                 }
             }
         }
@@ -173,17 +189,19 @@ public class DefaultGroovyFormatter extends GroovyFormatter {
     public String trimEnd(String s) {
         int len = s.length();
 
-        while (len > 0) {
-            String w = s.substring(len - 1, len);
-            if (w.matches("\\s")) {
-                len--;
-            } else {
-                break;
-            }
+        while (len > 0 && isWhitespace(s.charAt(len - 1))) {
+            len--;
         }
         return s.substring(0, len);
     }
 
+    /**
+     * Same characters as the regular expression \s.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
     /**
      * Tests if the ASTNode is a valid MultiNodeType an has multiple lines
      * Statements, ClassNodes, MethodNodes and Variable Expressions are ignored
@@ -222,46 +240,69 @@ public class DefaultGroovyFormatter extends GroovyFormatter {
      *         length
      */
     public ASTNode findCorrespondingNode(Token t) {
-
-        ASTScanner scanner = new ASTScanner(rootNode,
-                                            new SourceCodePredicate(t.getLine(), t.getColumn()),
-                                            formattedDocument);
-        scanner.startASTscan();
-        Entry<ASTNode, ASTNodeInfo> found = null;
-        if (scanner.hasMatches()) {
-            for (Entry<ASTNode, ASTNodeInfo> e : scanner.getMatchedNodes().entrySet()) {
-                if (found == null || (found.getValue().getLength() < e.getValue().getLength()))
-                    found = e;
+        ASTNode found = null;
+        int foundLength = 0;
+        for (Entry<ASTNode, Integer> e : getNodesAt(t).entrySet()) {
+            if (found == null || foundLength < e.getValue().intValue()) {
+                found = e.getKey();
+                foundLength = e.getValue().intValue();
             }
         }
-
-        if (found != null) {
-            return found.getKey();
-        } else {
-            return null;
-        }
+        return found;
     }
 
     /**
-     * Like {@link #findCorrespondingClosure(Token)}, but only returns
+     * Like {@link #findCorrespondingNode(Token)}, but only returns
      * {@link ClosureExpression}s
      *
      * @param t
      * @return
      */
     public ClosureExpression findCorrespondingClosure(Token t) {
-        ASTScanner scanner = new ASTScanner(rootNode, new SourceCodePredicate(t.getLine(), t.getColumn()), formattedDocument);
-        scanner.startASTscan();
         ClosureExpression found = null;
-        if (scanner.hasMatches()) {
-            for (Entry<ASTNode, ASTNodeInfo> e : scanner.getMatchedNodes().entrySet()) {
-                if (e.getKey() instanceof ClosureExpression) {
-                    found = (ClosureExpression) e.getKey();
-                }
+        for (ASTNode node : getNodesAt(t).keySet()) {
+            if (node instanceof ClosureExpression) {
+                found = (ClosureExpression) node;
             }
         }
         return found;
     }
+
+    /**
+     * Returns the nodes that start at the line and column of the token, like
+     * an {@link ASTScanner} with a
+     * {@link org.codehaus.groovy.eclipse.refactoring.core.utils.astScanner.predicates.SourceCodePredicate SourceCodePredicate}
+     * would match them.  The module is only scanned once, not once per token.
+     */
+    private Map<ASTNode, Integer> getNodesAt(Token t) {
+        if (nodesByPosition == null) {
+            final Map<Long, LinkedHashMap<ASTNode, Integer>> nodes = new HashMap<Long, LinkedHashMap<ASTNode, Integer>>();
+            new ASTScanner(rootNode, ANY_NODE, formattedDocument) {
+                @Override
+                protected void doOnPredicate(ASTNode node) {
+                    Long position = toPosition(node.getLineNumber(), node.getColumnNumber());
+                    LinkedHashMap<ASTNode, Integer> atPosition = nodes.get(position);
+                    if (atPosition == null) {
+                        atPosition = new LinkedHashMap<ASTNode, Integer>();
+                        nodes.put(position, atPosition);
+                    }
+                    int length = ASTTools.hasValidPosition(node) ? node.getEnd() - node.getStart() : 0;
+                    atPosition.put(node, Integer.valueOf(length));
+                }
+            }.startASTscan();
+            nodesByPosition = nodes;
+        }
+        Map<ASTNode, Integer> atPosition = nodesByPosition.get(toPosition(t.getLine(), t.getColumn()));
+        if (atPosition == null) {
+            return Collections.emptyMap();
+        }
+        return atPosition;
+    }
+
+    private static Long toPosition(int line, int column) {
+        return Long.valueOf(((long) line << 32) | (column & 0xFFFFFFFFL));
+    }
+
     /**
      * Return a token after many () if there is no opening {
      *
@@ -380,7 +421,7 @@ public class DefaultGroovyFormatter extends GroovyFormatter {
      * @throws BadLocationException
      */
     public int getOffsetOfToken(Token token) throws BadLocationException {
-        return formattedDocument.getLineOffset(token.getLine() - 1) + token.getColumn() - 1;
+        return tokens.getOffset(token);
     }
 
     /**
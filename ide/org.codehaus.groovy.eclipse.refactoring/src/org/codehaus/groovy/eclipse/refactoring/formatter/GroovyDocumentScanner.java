@@ -57,7 +57,11 @@ public class GroovyDocumentScanner implements IDocumentListener {
      */
     protected List<Token> tokens;
 
-    private GroovyScanner tokenScanner;
+    /**
+     * This scans the tokens of the document and knows their offsets. This may
+     * be null before we have started reading tokens.
+     */
+    protected GroovyScanner tokenScanner;
 
     /** At most this number of scanner errors will be reported */
     private static int logLimit = 4;
@@ -136,28 +140,33 @@ public class GroovyDocumentScanner implements IDocumentListener {
 
     /**
      * Translate Antlr line/column positions of a token into Eclipse document offset.
+     * <p>
+     * While the tokens are those of the current document, the offset is taken
+     * from the lines of the text that was scanned, not from the document.
      *
      * @return offset of the start of the token in the document.
      */
     public int getOffset(Token token) throws BadLocationException {
         int offset = 0;
         if (token != null) {
-            offset = GroovyScanner.getOffset(document, token.getLine(), token.getColumn());
+            if (tokens == null) {
+                return GroovyScanner.getOffset(document, token.getLine(), token.getColumn());
+            }
+            offset = tokenScanner.getOffset(token);
             if (TOKEN_POSITION_ASSERTS && token.getType() != GroovyTokenTypeBridge.EOF) {
+                String text = tokenScanner.getText();
                 int col = token.getColumn() - 1;
-                int line = token.getLine() - 1;
 
                 Assert.isTrue(col >= 0);
-                Assert.isTrue(col < document.getLineLength(line), "Token: " + token);
-                Assert.isTrue(offset < document.getLength());
+                Assert.isTrue(col < tokenScanner.getLineLength(token.getLine()), "Token: " + token);
+                Assert.isTrue(offset < text.length());
 
                 if (token.getType() == GroovyTokenTypeBridge.IDENT) {
                     // Don't check this for other tokens, because the Antlr token's
                     // "getText()" method doesn't always return the actual text from
                     // the document (e.g. it returns "<newline>" for newline tokens).
                     String antlrText = token.getText();
-                    String eclipseText = document.get(offset, antlrText.length());
-                    Assert.isTrue(eclipseText.equals(antlrText));
+                    Assert.isTrue(text.startsWith(antlrText, offset));
                 }
             }
         }
@@ -171,8 +180,11 @@ public class GroovyDocumentScanner implements IDocumentListener {
      * @throws BadLocationException
      */
     public int getEnd(Token token) throws BadLocationException {
-        GroovySourceToken gToken = (GroovySourceToken) token;
-        return GroovyScanner.getOffset(document, gToken.getLineLast(), gToken.getColumnLast());
+        if (tokens == null) {
+            GroovySourceToken gToken = (GroovySourceToken) token;
+            return GroovyScanner.getOffset(document, gToken.getLineLast(), gToken.getColumnLast());
+        }
+        return tokenScanner.getEnd(token);
     }
 
     /**
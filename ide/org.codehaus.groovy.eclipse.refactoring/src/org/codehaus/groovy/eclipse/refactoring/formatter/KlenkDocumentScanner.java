@@ -16,18 +16,15 @@
 package org.codehaus.groovy.eclipse.refactoring.formatter;
 
 import groovyjarjarantlr.Token;
-import groovyjarjarantlr.TokenStream;
 import groovyjarjarantlr.TokenStreamException;
 
-import java.io.Reader;
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Vector;
 
 import org.codehaus.greclipse.GroovyTokenTypeBridge;
-import org.codehaus.groovy.antlr.parser.GroovyLexer;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.jdt.groovy.core.util.GroovyScanner;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 
@@ -75,10 +72,8 @@ public class KlenkDocumentScanner extends GroovyDocumentScanner {
         // This is copied as much as possible unchanged, to ensure identical
         // behaviour, and avoid
         // breaking Mike's formatter,
-        Reader input = new StringReader(getDocument().get());
-        GroovyLexer lexer = new GroovyLexer(input);
-        lexer.setWhitespaceIncluded(true);
-        TokenStream stream = lexer.plumb();
+        GroovyScanner stream = new GroovyScanner(getDocument().get(), true);
+        tokenScanner = stream;
 
         Token token = null;
         tokens = new ArrayList<Token>();
@@ -22,7 +22,9 @@ import org.codehaus.groovy.eclipse.debug.ui.GroovyJavaDebugElementAdapterFactory
 import org.codehaus.groovy.eclipse.editor.GroovyAwareFoldingStructureProvider;
 import org.codehaus.groovy.eclipse.editor.GroovyOutlineTools;
 import org.codehaus.groovy.eclipse.editor.GroovyTextTools;
+import org.codehaus.groovy.eclipse.launchers.GroovySourceFileIndex;
 import org.codehaus.groovy.eclipse.refactoring.actions.DelegatingCleanUpPostSaveListener;
+import org.codehaus.groovy.eclipse.refactoring.actions.TypeNameCache;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
@@ -135,6 +137,8 @@ public class GroovyPlugin extends AbstractUIPlugin {
 
             removeMonospaceFontListener();
             DelegatingCleanUpPostSaveListener.uninstallCleanUp();
+            TypeNameCache.dispose();
+            GroovySourceFileIndex.dispose();
         } finally {
             super.stop(context);
         }
@@ -17,7 +17,9 @@ package org.codehaus.groovy.eclipse.editor.highlighting;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
+import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.core.preferences.PreferenceConstants;
@@ -25,6 +27,8 @@ import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
 import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
 
 /**
  * Created and invoked on Groovy compilation units to collect code semantics
@@ -52,6 +56,36 @@ public class GatherSemanticReferences {
         return Collections.emptySet();
     }
 
+    /**
+     * Collects references for the members that overlap the damaged regions only.
+     * The unit is visited once either way.
+     *
+     * @param skippedMembers receives the source ranges of the members that were
+     *        not visited; their existing positions are still valid
+     * @return {@code null} if the damage is not confined to the bodies of
+     *         methods with declared return types, in which case the whole unit
+     *         must be visited
+     * @see SemanticHighlightingReferenceRequestor#isDamageWithinMethodBodies
+     */
+    public Collection<HighlightedTypedPosition> findSemanticHighlightingReferences(List<IRegion> damage, List<Position> skippedMembers) {
+        if (unit != null) {
+            try {
+                ModuleNode module = unit.getModuleNode();
+                if (module == null || !SemanticHighlightingReferenceRequestor.isDamageWithinMethodBodies(module, damage)) {
+                    return null;
+                }
+                SemanticHighlightingReferenceRequestor requestor = new SemanticHighlightingReferenceRequestor(unit, damage);
+                TypeInferencingVisitorWithRequestor visitor = factory.createVisitor(unit);
+                visitor.visitCompilationUnit(requestor);
+                skippedMembers.addAll(requestor.skippedMembers);
+                return requestor.typedPosition;
+            } catch (Exception e) {
+                GroovyCore.logException("Semantic highlighting gather failed", e);
+            }
+        }
+        return Collections.emptySet();
+    }
+
     private static boolean isSemanticHighlightingEnabled() {
         IPreferenceStore prefs = GroovyPlugin.getDefault().getPreferenceStore();
         return prefs.getBoolean(PreferenceConstants.GROOVY_SEMANTIC_HIGHLIGHTING);
@@ -19,12 +19,13 @@ import static org.codehaus.groovy.eclipse.editor.highlighting.HighlightedTypedPo
 import static org.codehaus.groovy.eclipse.editor.highlighting.HighlightedTypedPosition.HighlightKind.UNKNOWN;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -45,7 +46,13 @@ import org.eclipse.jdt.internal.ui.text.JavaPresentationReconciler;
 import org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferenceConverter;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextInputListener;
 import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextAttribute;
 import org.eclipse.jface.text.TextPresentation;
 import org.eclipse.swt.SWT;
@@ -72,17 +79,22 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
     private static final String STATIC_METHOD_HIGHLIGHT_PREFERENCE      = "semanticHighlighting.staticMethodInvocation";
     private static final String METHOD_DECLARATION_HIGHLIGHT_PREFERENCE = "semanticHighlighting.methodDeclarationName";
 
-    // these types have package-private visibility
+    // these types have package-private visibility; members are resolved once since they are used per position
     private static Method GET_HIGHLIGHTING = null;
+    private static Method GET_TEXT_ATTRIBUTE;
     private static Constructor<?> HIGHLIGHTING_STYLE;
     private static Constructor<?> HIGHLIGHTED_POSITION;
+    private static Field POSITION_STYLE;
+    private static final Field PRESENTER_POSITIONS = ReflectionUtils.findField(SemanticHighlightingPresenter.class, "fPositions");
     static {
         try {
             Class<?> style = Class.forName("org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightingManager$Highlighting");
             HIGHLIGHTING_STYLE = ReflectionUtils.getConstructor(style, TextAttribute.class, boolean.class);
+            GET_TEXT_ATTRIBUTE = ReflectionUtils.findMethod(style, "getTextAttribute");
 
             Class<?> position = Class.forName("org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightingManager$HighlightedPosition");
             HIGHLIGHTED_POSITION = ReflectionUtils.getConstructor(position, int.class, int.class, style, Object.class);
+            POSITION_STYLE = ReflectionUtils.findField(position, "fStyle");
 
             GET_HIGHLIGHTING = position.getDeclaredMethod("getHighlighting");
             GET_HIGHLIGHTING.setAccessible(true);
@@ -96,7 +108,12 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
     }
 
     private volatile GroovyEditor editor;
+    private JavaSourceViewer viewer;
     private SemanticHighlightingPresenter presenter;
+    private final DamageTracker damageTracker = new DamageTracker();
+    private volatile List<IRegion> reconcileDamage = FULL;
+    /** Damage value that requests highlighting of the whole unit. */
+    private static final List<IRegion> FULL = Collections.<IRegion>singletonList(new Region(0, Integer.MAX_VALUE));
     private final Semaphore lock = new Semaphore(1, true);
 
     // make these configurable
@@ -199,20 +216,34 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
 
     public void install(GroovyEditor editor, JavaSourceViewer viewer) {
         this.editor = editor;
+        this.viewer = viewer;
         presenter = new SemanticHighlightingPresenter();
         presenter.install(viewer, (JavaPresentationReconciler) editor.getGroovyConfiguration().getPresentationReconciler(viewer));
+        viewer.addTextInputListener(damageTracker);
+        if (viewer.getDocument() != null) {
+            viewer.getDocument().addDocumentListener(damageTracker);
+        }
     }
 
     public void uninstall() {
+        viewer.removeTextInputListener(damageTracker);
+        if (viewer.getDocument() != null) {
+            viewer.getDocument().removeDocumentListener(damageTracker);
+        }
         presenter.uninstall();
         presenter = null;
         editor = null;
+        viewer = null;
     }
 
     public void aboutToBeReconciled() {
+        reconcileDamage = damageTracker.takeDamage();
     }
 
     public void reconciled(CompilationUnit ast, boolean forced, IProgressMonitor monitor) {
+        List<IRegion> damage = reconcileDamage;
+        reconcileDamage = FULL;
+        boolean complete = false;
         if (ast != null && synchronize())
         try {
             if (editor == null) return; // uninstalled?
@@ -222,62 +253,137 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
                 presenter.setCanceled(monitor.isCanceled());
                 if (update(monitor, 1)) return;
 
+                if (damage == null && !forced) {
+                    // no edits since the last reconcile
+                    complete = true;
+                    return;
+                }
+
                 GatherSemanticReferences finder = new GatherSemanticReferences(unit);
-                Collection<HighlightedTypedPosition> semanticReferences = finder.findSemanticHighlightingReferences();
+                List<Position> skippedMembers = new ArrayList<Position>();
+                Collection<HighlightedTypedPosition> semanticReferences = null;
+                if (damage != null && damage != FULL && !forced) {
+                    // re-infer only the members that overlap the edits since the last reconcile
+                    semanticReferences = finder.findSemanticHighlightingReferences(damage, skippedMembers);
+                }
+                if (semanticReferences == null) {
+                    skippedMembers.clear();
+                    semanticReferences = finder.findSemanticHighlightingReferences();
+                }
                 if (update(monitor, 5)) return;
 
                 List<Position> newPositions = new ArrayList<Position>(semanticReferences.size());
-                List<Position> oldPositions = new LinkedList<Position>(getHighlightedPositions());
-                if (update(monitor, 1)) return;
-
-                HighlightedTypedPosition last = null; Position x = null;
+                HighlightedTypedPosition last = null;
                 for (HighlightedTypedPosition ref : semanticReferences) {
                     if (ref.compareTo(last) != 0) {
-                        Position pos = newHighlightedPosition(ref);
-                        x = tryAddPosition(newPositions, oldPositions, pos);
+                        newPositions.add(newHighlightedPosition(ref));
 
                     } else if (GET_HIGHLIGHTING != null && (ref.kind == DEPRECATED || ref.kind == UNKNOWN)) {
                         // this and last cover same source range and this indicates deprecated or unknown
                         Position pos = !newPositions.isEmpty() ? newPositions.get(newPositions.size() - 1) : null;
                         if (ref.compareTo(pos) != 0) {
-                            if (ref.compareTo(x) == 0) {
-                                pos = newHighlightedPosition(last);
-                                newPositions.add(pos);
-                                oldPositions.add(x);
-                            } else {
-                                GroovyPlugin.getDefault().logWarning(
-                                    String.format("Failed to apply %s semantic at %s",
-                                    ref.kind.name().toLowerCase(), ((Position) ref).toString()));
-                                continue; // logic error?
-                            }
+                            GroovyPlugin.getDefault().logWarning(
+                                String.format("Failed to apply %s semantic at %s",
+                                ref.kind.name().toLowerCase(), ((Position) ref).toString()));
+                            continue; // logic error?
                         }
                         Object style = GET_HIGHLIGHTING.invoke(pos);
                         TextAttribute one = getTextAttribute(style);
                         TextAttribute two = getTextAttribute(ref.kind == DEPRECATED ? deprecatedRefHighlighting : undefinedRefHighlighting);
                         // merge the text styling assigned to deprecated or unknown (usually strikethrough for deprecated and underline for unknown)
-                        ReflectionUtils.setPrivateField(pos.getClass(), "fStyle", pos, newHighlightingStyle(one.getForeground(), one.getStyle() | two.getStyle()));
+                        ReflectionUtils.setFieldValue(POSITION_STYLE, pos, newHighlightingStyle(one.getForeground(), one.getStyle() | two.getStyle()));
                     }
                     last = ref;
                 }
-                if (update(monitor, 2)) return;
+                if (update(monitor, 1)) return;
+
+                List<Position> addedPositions = new ArrayList<Position>();
+                List<Position> removedPositions = new ArrayList<Position>();
+                diffPositions(getHighlightedPositions(), newPositions, skippedMembers, addedPositions, removedPositions);
+                if (update(monitor, 1)) return;
 
                 TextPresentation textPresentation = null;
                 if (!presenter.isCanceled()) {
-                    textPresentation = presenter.createPresentation(newPositions, oldPositions);
+                    // presentation covers the range of the added and removed positions only
+                    textPresentation = presenter.createPresentation(addedPositions, removedPositions);
                 }
                 if (!presenter.isCanceled()) {
-                    updatePresentation(textPresentation, newPositions, oldPositions);
+                    updatePresentation(textPresentation, addedPositions, removedPositions);
+                    complete = true;
                 }
                 update(monitor, 1);
             }
         } catch (Exception e) {
             GroovyCore.logException("Semantic highlighting failed", e);
         } finally {
+            if (complete) {
+                damageTracker.commit();
+            }
             lock.release();
             monitor.done();
         }
     }
 
+    /**
+     * Compares the current positions with the computed positions in a single
+     * pass; both lists are ordered by offset.  Current positions that lie
+     * within a skipped member are kept since that member was not visited.
+     */
+    private void diffPositions(Position[] oldPositions, List<Position> newPositions, List<Position> skippedMembers,
+            List<Position> addedPositions, List<Position> removedPositions) {
+        Collections.sort(skippedMembers, new Comparator<Position>() {
+            public int compare(Position p1, Position p2) {
+                return p1.offset - p2.offset;
+            }
+        });
+        int i = 0, j = 0, k = 0, n = oldPositions.length, m = newPositions.size();
+        boolean[] matched = new boolean[n];
+        while (i < n || j < m) {
+            if (j == m || (i < n && oldPositions[i].offset < newPositions.get(j).offset)) {
+                i += 1;
+                continue;
+            }
+            if (i == n || newPositions.get(j).offset < oldPositions[i].offset) {
+                addedPositions.add(newPositions.get(j++));
+                continue;
+            }
+            // same offset: match up the positions of both groups
+            int offset = oldPositions[i].offset, i2 = i;
+            while (i2 < n && oldPositions[i2].offset == offset) i2 += 1;
+            for (; j < m && newPositions.get(j).offset == offset; j += 1) {
+                Position newPosition = newPositions.get(j);
+                boolean found = false;
+                for (int x = i; x < i2 && !found; x += 1) {
+                    if (!matched[x] && !oldPositions[x].isDeleted() && oldPositions[x].equals(newPosition) &&
+                            isSameStyle(oldPositions[x], newPosition)) {
+                        matched[x] = found = true;
+                    }
+                }
+                if (!found) {
+                    addedPositions.add(newPosition);
+                }
+            }
+            i = i2;
+        }
+        for (i = 0; i < n; i += 1) {
+            if (!matched[i]) {
+                Position oldPosition = oldPositions[i];
+                while (k < skippedMembers.size() && end(skippedMembers.get(k)) < oldPosition.offset) k += 1;
+                if (oldPosition.isDeleted() || k == skippedMembers.size() || !contains(skippedMembers.get(k), oldPosition)) {
+                    removedPositions.add(oldPosition);
+                }
+            }
+        }
+    }
+
+    private static int end(Position p) {
+        return p.offset + p.length;
+    }
+
+    private static boolean contains(Position range, Position p) {
+        return range.offset <= p.offset && end(p) <= end(range);
+    }
+
     /**
      * Ensures that only one thread at a time performs this task.
      */
@@ -298,9 +404,10 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
     }
 
     @SuppressWarnings("unchecked")
-    private List<Position> getHighlightedPositions() {
+    private Position[] getHighlightedPositions() {
         // NOTE: Be very careful with this; fPositions is often accessed synchronously!
-        return (List<Position>) ReflectionUtils.getPrivateField(SemanticHighlightingPresenter.class, "fPositions", presenter);
+        List<Position> positions = (List<Position>) ReflectionUtils.getFieldValue(PRESENTER_POSITIONS, presenter);
+        return positions.toArray(new Position[positions.size()]);
     }
 
     private Position newHighlightedPosition(HighlightedTypedPosition pos) {
@@ -359,19 +466,6 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
         return (Position) ReflectionUtils.invokeConstructor(HIGHLIGHTED_POSITION, pos.offset, pos.length, style, this);
     }
 
-    private Position tryAddPosition(List<Position> newPositions, List<Position> oldPositions, Position maybePosition) {
-        // TODO: Is there a quicker way to search for matches?  These can be sorted easily.
-        for (Iterator<Position> it = oldPositions.iterator(); it.hasNext();) {
-            Position oldPosition = it.next();
-            if (!oldPosition.isDeleted() && oldPosition.equals(maybePosition) && isSameStyle(oldPosition, maybePosition)) {
-                it.remove(); // prevent old position from being removed from presentation
-                return oldPosition;
-            }
-        }
-        newPositions.add(maybePosition);
-        return null;
-    }
-
     private boolean isSameStyle(Position a, Position b) {
         if (GET_HIGHLIGHTING != null) {
             try {
@@ -389,7 +483,7 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
 
     private TextAttribute getTextAttribute(Object highlightingStyle) {
         // return highlightingStyle.getTextAttribute();
-        return (TextAttribute) ReflectionUtils.executeNoArgPrivateMethod(highlightingStyle.getClass(), "getTextAttribute", highlightingStyle);
+        return (TextAttribute) ReflectionUtils.invokeMethod(GET_TEXT_ATTRIBUTE, highlightingStyle);
     }
 
     /**
@@ -422,4 +516,108 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
 
         display.asyncExec(runnable);
     }
+
+    /**
+     * Tracks the source ranges touched by document edits.  The ranges taken for
+     * a reconcile are cleared only once highlighting for them has been applied,
+     * so a cancelled reconcile leaves them for the next one.  Ranges are kept
+     * apart unless they overlap, so edits in several members do not damage the
+     * members in between.
+     */
+    private static class DamageTracker implements IDocumentListener, ITextInputListener {
+        // edits taken by the current reconcile, as start and end offsets
+        private final List<int[]> taken = new ArrayList<int[]>();
+        // edits made since the current reconcile was started
+        private final List<int[]> fresh = new ArrayList<int[]>();
+        private boolean full = true;
+
+        synchronized List<IRegion> takeDamage() {
+            if (!fresh.isEmpty()) {
+                taken.addAll(fresh);
+                fresh.clear();
+                merge(taken);
+            }
+            if (full) {
+                return FULL;
+            }
+            if (taken.isEmpty()) {
+                return null;
+            }
+            List<IRegion> damage = new ArrayList<IRegion>(taken.size());
+            for (int[] range : taken) {
+                damage.add(new Region(range[0], range[1] - range[0]));
+            }
+            return damage;
+        }
+
+        synchronized void commit() {
+            taken.clear();
+            full = false;
+        }
+
+        public void documentAboutToBeChanged(DocumentEvent event) {
+        }
+
+        public synchronized void documentChanged(DocumentEvent event) {
+            int offset = event.getOffset(), oldEnd = offset + event.getLength(),
+                newEnd = offset + (event.getText() == null ? 0 : event.getText().length());
+            for (int[] range : taken) {
+                shift(range, offset, oldEnd, newEnd);
+            }
+            for (int[] range : fresh) {
+                shift(range, offset, oldEnd, newEnd);
+            }
+            fresh.add(new int[] {offset, newEnd});
+            merge(fresh);
+        }
+
+        private static void shift(int[] range, int offset, int oldEnd, int newEnd) {
+            range[1] = shiftEnd(range[0], range[1], offset, oldEnd, newEnd);
+            range[0] = shiftStart(range[0], offset, oldEnd, newEnd);
+        }
+
+        private static int shiftStart(int start, int offset, int oldEnd, int newEnd) {
+            if (start >= oldEnd) return start + (newEnd - oldEnd);
+            return Math.min(start, offset);
+        }
+
+        private static int shiftEnd(int start, int end, int offset, int oldEnd, int newEnd) {
+            if (end < offset) return end;
+            if (end >= oldEnd) return end + (newEnd - oldEnd);
+            return newEnd;
+        }
+
+        /**
+         * Sorts the ranges by start offset and joins the ones that overlap or touch.
+         */
+        private static void merge(List<int[]> ranges) {
+            Collections.sort(ranges, new Comparator<int[]>() {
+                public int compare(int[] r1, int[] r2) {
+                    return r1[0] - r2[0];
+                }
+            });
+            for (int i = 1; i < ranges.size();) {
+                int[] prev = ranges.get(i - 1), next = ranges.get(i);
+                if (next[0] <= prev[1]) {
+                    prev[1] = Math.max(prev[1], next[1]);
+                    ranges.remove(i);
+                } else {
+                    i += 1;
+                }
+            }
+        }
+
+        public void inputDocumentAboutToBeChanged(IDocument oldInput, IDocument newInput) {
+            if (oldInput != null) {
+                oldInput.removeDocumentListener(this);
+            }
+        }
+
+        public synchronized void inputDocumentChanged(IDocument oldInput, IDocument newInput) {
+            if (newInput != null) {
+                newInput.addDocumentListener(this);
+            }
+            full = true;
+        }
+    }
 }
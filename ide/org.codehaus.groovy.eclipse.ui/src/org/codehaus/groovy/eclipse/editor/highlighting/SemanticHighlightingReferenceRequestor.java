@@ -17,7 +17,9 @@ package org.codehaus.groovy.eclipse.editor.highlighting;
 
 import static org.eclipse.jdt.groovy.search.TypeLookupResult.TypeConfidence.UNKNOWN;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.regex.Matcher;
@@ -26,10 +28,12 @@ import java.util.regex.Pattern;
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.AnnotatedNode;
 import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.ConstructorNode;
 import org.codehaus.groovy.ast.FieldNode;
 import org.codehaus.groovy.ast.ImportNode;
 import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.ast.Parameter;
 import org.codehaus.groovy.ast.PropertyNode;
 import org.codehaus.groovy.ast.expr.ClassExpression;
@@ -42,6 +46,7 @@ import org.codehaus.groovy.ast.expr.MethodCallExpression;
 import org.codehaus.groovy.ast.expr.MethodPointerExpression;
 import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
 import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.Statement;
 import org.codehaus.groovy.eclipse.editor.highlighting.HighlightedTypedPosition.HighlightKind;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -51,6 +56,7 @@ import org.eclipse.jdt.groovy.search.VariableScope;
 import org.eclipse.jdt.internal.core.ImportDeclaration;
 import org.eclipse.jdt.internal.core.SourceType;
 import org.eclipse.jdt.internal.core.util.Util;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 
 /**
@@ -83,8 +89,79 @@ public class SemanticHighlightingReferenceRequestor extends SemanticReferenceReq
         }
     });
 
+    /** Edited source ranges, or {@code null} to report positions for the whole unit. */
+    private final List<IRegion> damage;
+    /** Source ranges of the members that were skipped because they do not overlap {@link #damage}. */
+    protected final List<Position> skippedMembers = new ArrayList<Position>();
+
     public SemanticHighlightingReferenceRequestor(GroovyCompilationUnit unit) {
+        this(unit, null);
+    }
+
+    /**
+     * @param damage if non-null, only members that overlap these source ranges are visited
+     */
+    public SemanticHighlightingReferenceRequestor(GroovyCompilationUnit unit, List<IRegion> damage) {
         this.unit = unit;
+        this.damage = damage;
+    }
+
+    /**
+     * Checks that edits in the given source ranges cannot change what other
+     * members refer to, so that only the members that overlap them need to be
+     * visited again.  This is so if each range lies within the body of a
+     * method or constructor whose return type is declared.  Edits to a field
+     * initializer or to a method whose return type is inferred may change the
+     * types seen by other members.
+     */
+    public static boolean isDamageWithinMethodBodies(ModuleNode module, List<IRegion> damage) {
+        List<ASTNode> members = new ArrayList<ASTNode>();
+        for (ClassNode classNode : module.getClasses()) {
+            members.addAll(classNode.getFields());
+            members.addAll(classNode.getDeclaredConstructors());
+            members.addAll(classNode.getMethods());
+        }
+        for (IRegion region : damage) {
+            boolean withinBody = false;
+            for (ASTNode member : members) {
+                if (member.getEnd() < 1 || !overlaps(member, region)) {
+                    continue;
+                }
+                if (!(member instanceof MethodNode) || ((MethodNode) member).isDynamicReturnType()) {
+                    return false;
+                }
+                Statement code = ((MethodNode) member).getCode();
+                if (code == null || code.getEnd() < 1 || code.getStart() > region.getOffset() ||
+                        code.getEnd() < region.getOffset() + region.getLength()) {
+                    return false; // edit may change the signature
+                }
+                withinBody = true;
+            }
+            if (!withinBody) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean overlaps(ASTNode node, IRegion region) {
+        return node.getEnd() >= region.getOffset() && node.getStart() <= region.getOffset() + region.getLength();
+    }
+
+    /**
+     * Skips method and field declarations that lie outside the damaged regions.
+     */
+    private boolean skipMember(ASTNode node) {
+        if (damage != null && (node instanceof MethodNode || node instanceof FieldNode) && node.getEnd() > 0) {
+            for (IRegion region : damage) {
+                if (overlaps(node, region)) {
+                    return false;
+                }
+            }
+            skippedMembers.add(new Position(node.getStart(), node.getEnd() - node.getStart()));
+            return true;
+        }
+        return false;
     }
 
     // be sure to call this before referencing contents array
@@ -96,6 +173,9 @@ public class SemanticHighlightingReferenceRequestor extends SemanticReferenceReq
     }
 
     public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+        if (skipMember(node)) {
+            return VisitStatus.CANCEL_BRANCH;
+        }
 
         // ignore statements or nodes with invalid source locations
         if (!(node instanceof AnnotatedNode) || node instanceof ImportNode || endOffset(node, result) < 1) {
@@ -15,7 +15,7 @@
  */
 package org.codehaus.groovy.eclipse.launchers;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -23,19 +23,15 @@ import java.util.regex.Pattern;
 import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.editor.GroovyEditor;
-import org.codehaus.jdt.groovy.model.GroovyNature;
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.ui.console.FileLink;
 import org.eclipse.debug.ui.console.IConsole;
 import org.eclipse.debug.ui.console.IConsoleLineTracker;
-import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.IPackageFragmentRoot;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
-import org.eclipse.jdt.internal.core.JavaModelManager;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.viewers.IStructuredContentProvider;
 import org.eclipse.jface.viewers.Viewer;
@@ -101,18 +97,73 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
         }
     }
 
+    private static class Line {
+        final int offset;
+        final String text;
+
+        Line(int offset, String text) {
+            this.offset = offset;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Hyperlinks the lines queued by {@link #lineAppended(IRegion)} in batches,
+     * off the thread that appends output to the console.
+     */
+    private class LinkJob extends Job {
+        private final IConsole console;
+        private final List<Line> lines = new ArrayList<Line>();
+
+        LinkJob(IConsole console) {
+            super("Hyperlinking Groovy stack trace");
+            this.console = console;
+            setSystem(true);
+            setPriority(DECORATE);
+        }
+
+        void add(int lineOffset, String consoleLine) {
+            synchronized (lines) {
+                lines.add(new Line(lineOffset, consoleLine));
+            }
+            schedule();
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            List<Line> batch;
+            do {
+                synchronized (lines) {
+                    batch = new ArrayList<Line>(lines);
+                    lines.clear();
+                }
+                for (Line line : batch) {
+                    addLink(console, line.offset, line.text);
+                }
+            } while (!batch.isEmpty());
+            return Status.OK_STATUS;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return GroovyConsoleLineTracker.class == family;
+        }
+    }
+
     private IConsole console;
+    private LinkJob linkJob;
     private final static Pattern linePattern = Pattern.compile(".*\\((.*)\\.groovy(:(.*))?\\)");
 
 
     public void init(IConsole console) {
         this.console = console;
+        this.linkJob = new LinkJob(console);
     }
 
     /**
-     * Hyperlink error lines to the editor.
+     * Hyperlink error lines to the editor.  Only lines that may be stack frames
+     * of Groovy files are queued; they are linked by a background job.
      */
-    // not implemented yet
     public void lineAppended(IRegion line) {
         if (console == null) return;
 
@@ -120,6 +171,16 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
         int lineLength = line.getLength();
         try {
             String consoleLine = console.getDocument().get(lineOffset, lineLength);
+            if (consoleLine.indexOf(".groovy") > 0) {
+                linkJob.add(lineOffset, consoleLine);
+            }
+        } catch (Exception e) {
+            GroovyPlugin.trace("unexpected error:" +  e.getMessage());
+        }
+    }
+
+    private void addLink(IConsole console, int lineOffset, String consoleLine) {
+        try {
             GroovyPlugin.trace(consoleLine);
             Matcher m = linePattern.matcher(consoleLine);
             String groovyFileName = null;
@@ -155,7 +216,7 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
                 }
                 // hyperlink if we found something
                 if (groovyFileName != null) {
-                    IFile[] file = searchForFileInLaunchConfig(groovyFileName);
+                    IFile[] file = GroovySourceFileIndex.getInstance().findFiles(groovyFileName);
                     if (file.length == 1) {
                         IHyperlink link = new FileLink(file[0], GroovyEditor.EDITOR_ID, -1, -1, lineNumber);
                         console.addLink(link, lineOffset + openParenIndexAt + 1, closeParenIndexAt - openParenIndexAt -1);
@@ -170,32 +231,6 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
         }
     }
 
-    /**
-     * @param groovyFileName
-     * @return
-     * @throws JavaModelException
-     */
-    private IFile[] searchForFileInLaunchConfig(String groovyFileName) throws JavaModelException {
-        List<IFile> files = new LinkedList<IFile>();
-        IJavaProject[] projects = JavaModelManager.getJavaModelManager().getJavaModel().getJavaProjects();
-        for (IJavaProject javaProject : projects) {
-            if (GroovyNature.hasGroovyNature(javaProject.getProject())) {
-                for (IPackageFragmentRoot root : javaProject.getAllPackageFragmentRoots()) {
-                    if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
-                        IResource resource = root.getResource();
-                        if (resource.isAccessible() && resource.getType() != IResource.FILE) {
-                            IFile file = ((IContainer) resource).getFile(new Path(groovyFileName));
-                            if (file.isAccessible()) {
-                                files.add(file);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return files.toArray(new IFile[files.size()]);
-    }
-
     /**
      * @param files
      * @return
@@ -227,6 +262,8 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
     }
 
     /**
+     * Lines already queued are still hyperlinked.
+     *
      * @see org.eclipse.debug.ui.console.IConsoleLineTracker#dispose()
      */
     public void dispose() {
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.launchers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.groovy.eclipse.core.GroovyCore;
+import org.codehaus.jdt.groovy.model.GroovyNature;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+
+/**
+ * The Groovy source files of the workspace's Groovy projects, by path relative
+ * to their source folder (for example "p/q/Script.groovy").  Used to hyperlink
+ * stack frames in the console without probing every source folder per frame.
+ * <p>
+ * The index is built on first use and kept current with resource deltas:
+ * Groovy files added to or removed from a source folder are added or removed,
+ * and changes to projects or to their classpath files drop the index so that
+ * it is built again when next used.
+ */
+public final class GroovySourceFileIndex implements IResourceChangeListener {
+
+    private static final IFile[] NO_FILES = new IFile[0];
+
+    private static GroovySourceFileIndex instance;
+
+    static synchronized GroovySourceFileIndex getInstance() {
+        if (instance == null) {
+            instance = new GroovySourceFileIndex();
+            ResourcesPlugin.getWorkspace().addResourceChangeListener(instance, IResourceChangeEvent.POST_CHANGE);
+        }
+        return instance;
+    }
+
+    /**
+     * Stops listening for resource changes and drops the index.
+     */
+    public static synchronized void dispose() {
+        if (instance != null) {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(instance);
+            instance.clear();
+            instance = null;
+        }
+    }
+
+    /** full paths of the source folders of Groovy projects; null when not built */
+    private List<IPath> sourceFolders;
+
+    private final Map<String, IFile[]> files = new HashMap<String, IFile[]>();
+
+    private GroovySourceFileIndex() {
+    }
+
+    /**
+     * @param relativePath path of a Groovy file relative to its source folder
+     * @return the matching files in all source folders of Groovy projects
+     */
+    synchronized IFile[] findFiles(String relativePath) {
+        if (sourceFolders == null) {
+            build();
+        }
+        IFile[] found = files.get(relativePath);
+        return (found != null ? found : NO_FILES);
+    }
+
+    synchronized void clear() {
+        sourceFolders = null;
+        files.clear();
+    }
+
+    private void build() {
+        files.clear();
+        Set<IPath> folders = new LinkedHashSet<IPath>();
+        try {
+            for (IJavaProject javaProject : JavaModelManager.getJavaModelManager().getJavaModel().getJavaProjects()) {
+                if (GroovyNature.hasGroovyNature(javaProject.getProject())) {
+                    for (IPackageFragmentRoot root : javaProject.getAllPackageFragmentRoots()) {
+                        if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+                            IResource resource = root.getResource();
+                            if (resource.isAccessible() && resource.getType() != IResource.FILE && folders.add(resource.getFullPath())) {
+                                addFiles((IContainer) resource);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (JavaModelException e) {
+            GroovyCore.logException("Error indexing Groovy source files", e);
+        }
+        sourceFolders = new ArrayList<IPath>(folders);
+    }
+
+    private void addFiles(final IContainer folder) {
+        final int segments = folder.getFullPath().segmentCount();
+        try {
+            folder.accept(new IResourceProxyVisitor() {
+                public boolean visit(IResourceProxy proxy) {
+                    if (proxy.getType() == IResource.FILE) {
+                        if (proxy.getName().endsWith(".groovy")) {
+                            IPath path = proxy.requestFullPath();
+                            add(path.removeFirstSegments(segments).toString(), (IFile) proxy.requestResource());
+                        }
+                        return false;
+                    }
+                    return true;
+                }
+            }, IResource.NONE);
+        } catch (CoreException e) {
+            GroovyCore.logException("Error indexing Groovy source files in " + folder.getFullPath(), e);
+        }
+    }
+
+    private void add(String relativePath, IFile file) {
+        IFile[] found = files.get(relativePath);
+        if (found == null) {
+            files.put(relativePath, new IFile[] {file});
+        } else {
+            for (IFile f : found) {
+                if (f.equals(file)) {
+                    return;
+                }
+            }
+            IFile[] more = new IFile[found.length + 1];
+            System.arraycopy(found, 0, more, 0, found.length);
+            more[found.length] = file;
+            files.put(relativePath, more);
+        }
+    }
+
+    private void remove(String relativePath, IFile file) {
+        IFile[] found = files.get(relativePath);
+        if (found != null) {
+            List<IFile> less = new ArrayList<IFile>(found.length);
+            for (IFile f : found) {
+                if (!f.equals(file)) {
+                    less.add(f);
+                }
+            }
+            if (less.isEmpty()) {
+                files.remove(relativePath);
+            } else {
+                files.put(relativePath, less.toArray(new IFile[less.size()]));
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    public synchronized void resourceChanged(IResourceChangeEvent event) {
+        if (sourceFolders == null || event.getDelta() == null) {
+            return;
+        }
+        final boolean[] rebuild = new boolean[1];
+        try {
+            event.getDelta().accept(new IResourceDeltaVisitor() {
+                public boolean visit(IResourceDelta delta) {
+                    if (rebuild[0]) {
+                        return false;
+                    }
+                    IResource resource = delta.getResource();
+                    switch (resource.getType()) {
+                    case IResource.PROJECT:
+                        if (delta.getKind() != IResourceDelta.CHANGED ||
+                                (delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+                            rebuild[0] = !isIgnorable((IProject) resource, delta);
+                            return false;
+                        }
+                        return true;
+                    case IResource.FILE:
+                        if (resource.getParent().getType() == IResource.PROJECT && resource.getName().equals(".classpath")) {
+                            rebuild[0] = true;
+                        } else if (resource.getName().endsWith(".groovy")) {
+                            if (delta.getKind() == IResourceDelta.ADDED) {
+                                update((IFile) resource, true);
+                            } else if (delta.getKind() == IResourceDelta.REMOVED) {
+                                update((IFile) resource, false);
+                            }
+                        }
+                        return false;
+                    default:
+                        return true;
+                    }
+                }
+            });
+        } catch (CoreException e) {
+            rebuild[0] = true;
+        }
+        if (rebuild[0]) {
+            clear();
+        }
+    }
+
+    /**
+     * A project that is not (and was not) a Groovy project cannot change the
+     * index, except by being opened since its nature is unknown while closed.
+     */
+    private boolean isIgnorable(IProject project, IResourceDelta delta) {
+        if (delta.getKind() == IResourceDelta.ADDED || (delta.getFlags() & IResourceDelta.DESCRIPTION) != 0) {
+            return false;
+        }
+        IPath path = project.getFullPath();
+        for (IPath folder : sourceFolders) {
+            if (path.isPrefixOf(folder)) {
+                return false;
+            }
+        }
+        return !project.isOpen();
+    }
+
+    private void update(IFile file, boolean added) {
+        IPath path = file.getFullPath();
+        for (IPath folder : sourceFolders) {
+            if (folder.isPrefixOf(path)) {
+                String relativePath = path.removeFirstSegments(folder.segmentCount()).toString();
+                if (added) {
+                    add(relativePath, file);
+                } else {
+                    remove(relativePath, file);
+                }
+            }
+        }
+    }
+}
@@ -22,7 +22,9 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.internal.ui.fix.AbstractCleanUp;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.text.edits.TextEdit;
 
 public abstract class AbstractGroovyCleanUp extends AbstractCleanUp {
 
@@ -63,4 +65,15 @@ public abstract class AbstractGroovyCleanUp extends AbstractCleanUp {
             status = null;
         }
     }
+
+    /**
+     * Computes the changes of this clean up for the given contents of a unit.
+     * Used by {@link GroovySaveActionsCleanUp} to run several clean ups over
+     * one copy of the unit's contents.
+     *
+     * @param document the contents to clean up; not modified by this method
+     * @return the edit to apply to the document or {@code null} if there is
+     *         nothing to change
+     */
+    protected abstract TextEdit createEdit(GroovyCompilationUnit unit, IDocument document) throws CoreException;
 }
@@ -68,7 +68,7 @@ public class GroovyCleanupPostSaveListener extends CleanUpPostSaveListener imple
             }
         }
 
-        List<ICleanUp> groovyCleanUps = new ArrayList<ICleanUp>();
+        List<AbstractGroovyCleanUp> groovyCleanUps = new ArrayList<AbstractGroovyCleanUp>();
 
         if (doImports) {
             groovyCleanUps.add(new GroovyImportsCleanUp());
@@ -88,6 +88,10 @@ public class GroovyCleanupPostSaveListener extends CleanUpPostSaveListener imple
             groovyCleanUps.add(new TrailingWhitespacesCleanUp());
         }
 
-        return groovyCleanUps.toArray(new ICleanUp[groovyCleanUps.size()]);
+        if (groovyCleanUps.isEmpty()) {
+            return new ICleanUp[0];
+        }
+        // run as one clean up so the unit is changed (and reconciled) only once
+        return new ICleanUp[] { new GroovySaveActionsCleanUp(groovyCleanUps) };
     }
 }
@@ -51,18 +51,21 @@ public class GroovyCodeFormatCleanUp extends AbstractGroovyCleanUp {
         }
 
         GroovyCompilationUnit gunit = (GroovyCompilationUnit) unit;
-        char[] contents = gunit.getContents();
-        ITextSelection sel = new TextSelection(0, contents.length);
-        IDocument doc = new Document(new String(contents));
-        boolean isIndentOnly = kind == FormatKind.INDENT_ONLY;
-        IFormatterPreferences preferences = new FormatterPreferences(gunit);
-
-        DefaultGroovyFormatter formatter = new DefaultGroovyFormatter(sel, doc, preferences, isIndentOnly);
-        TextEdit edit = formatter.format();
+        TextEdit edit = createEdit(gunit, new Document(new String(gunit.getContents())));
 
         return new TextEditFix(edit, gunit, "Format groovy source code.");
     }
 
+    @Override
+    protected TextEdit createEdit(GroovyCompilationUnit unit, IDocument document) {
+        ITextSelection sel = new TextSelection(0, document.getLength());
+        boolean isIndentOnly = kind == FormatKind.INDENT_ONLY;
+        IFormatterPreferences preferences = new FormatterPreferences(unit);
+
+        DefaultGroovyFormatter formatter = new DefaultGroovyFormatter(sel, document, preferences, isIndentOnly);
+        return formatter.format();
+    }
+
     @Override
     public String[] getStepDescriptions() {
         return new String[] { "Format groovy source code." };
@@ -38,6 +38,7 @@ import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
 import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
 import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.TextEdit;
@@ -80,6 +81,19 @@ public class GroovyImportsCleanUp extends AbstractGroovyCleanUp {
             return javaCleanUp.createFix(context);
         }
 
+        TextEdit edit = createEdit((GroovyCompilationUnit) unit, null);
+        if (edit == null) {
+            return null;
+        }
+        return new ImportsFix(edit, unit, FixMessages.ImportsFix_OrganizeImports_Description);
+    }
+
+    /**
+     * Imports are organized using the module node of the unit, so the document
+     * (if any) must hold the unit's contents.
+     */
+    @Override
+    protected TextEdit createEdit(GroovyCompilationUnit unit, IDocument document) {
         final boolean hasAmbiguity[] = new boolean[] {false};
         IChooseImportQuery query = new IChooseImportQuery() {
             public TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges) {
@@ -88,7 +102,7 @@ public class GroovyImportsCleanUp extends AbstractGroovyCleanUp {
             }
         };
 
-        OrganizeGroovyImports op = new OrganizeGroovyImports((GroovyCompilationUnit) unit, query);
+        OrganizeGroovyImports op = new OrganizeGroovyImports(unit, query);
         final TextEdit edit = op.calculateMissingImports();
         if (status == null) {
             status = new RefactoringStatus();
@@ -102,7 +116,7 @@ public class GroovyImportsCleanUp extends AbstractGroovyCleanUp {
         if (edit == null || (edit instanceof MultiTextEdit && edit.getChildrenSize() == 0)) {
             return null;
         }
-        return new ImportsFix(edit, unit, FixMessages.ImportsFix_OrganizeImports_Description);
+        return edit;
     }
 
     private static String getLocationString(ICompilationUnit unit) {
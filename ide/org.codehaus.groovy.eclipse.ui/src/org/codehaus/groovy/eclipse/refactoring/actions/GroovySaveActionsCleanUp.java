@@ -0,0 +1,290 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.refactoring.actions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.core.GroovyCore;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.internal.corext.fix.TextEditFix;
+import org.eclipse.jdt.ui.cleanup.CleanUpContext;
+import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+
+/**
+ * Runs the Groovy save actions as one clean up.  Each step computes its edit
+ * against the result of the previous steps in a single in-memory copy of the
+ * unit, and the combined result is applied to the unit as one edit.
+ * <p>
+ * Run separately, the steps conflict with each other (the formatter replaces
+ * the whole document) and so the post-save listener would apply them one at a
+ * time, updating the editor's buffer and checking pre-conditions (reconciling
+ * the unit) again after each one.
+ */
+public class GroovySaveActionsCleanUp extends AbstractGroovyCleanUp {
+
+    private final List<AbstractGroovyCleanUp> steps;
+
+    /**
+     * @param steps the clean ups to run, in order; a {@link GroovyImportsCleanUp}
+     *        must come first since it works from the unit's module node
+     */
+    public GroovySaveActionsCleanUp(List<AbstractGroovyCleanUp> steps) {
+        this.steps = Collections.unmodifiableList(new ArrayList<AbstractGroovyCleanUp>(steps));
+    }
+
+    public List<AbstractGroovyCleanUp> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public String[] getStepDescriptions() {
+        List<String> descriptions = new ArrayList<String>();
+        for (AbstractGroovyCleanUp step : steps) {
+            String[] stepDescriptions = step.getStepDescriptions();
+            if (stepDescriptions != null) {
+                Collections.addAll(descriptions, stepDescriptions);
+            }
+        }
+        return descriptions.toArray(new String[descriptions.size()]);
+    }
+
+    @Override
+    public RefactoringStatus checkPreConditions(IJavaProject project, ICompilationUnit[] compilationUnits, IProgressMonitor monitor) throws CoreException {
+        RefactoringStatus result = new RefactoringStatus();
+        for (AbstractGroovyCleanUp step : steps) {
+            result.merge(step.checkPreConditions(project, compilationUnits, monitor));
+        }
+        return result;
+    }
+
+    @Override
+    public RefactoringStatus checkPostConditions(IProgressMonitor monitor) throws CoreException {
+        RefactoringStatus result = new RefactoringStatus();
+        for (AbstractGroovyCleanUp step : steps) {
+            result.merge(step.checkPostConditions(monitor));
+        }
+        return result;
+    }
+
+    @Override
+    public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+        ICompilationUnit unit = context.getCompilationUnit();
+
+        if (!(unit instanceof GroovyCompilationUnit)) {
+            return null;
+        }
+
+        GroovyCompilationUnit gunit = (GroovyCompilationUnit) unit;
+        TextEdit edit = createEdit(gunit, new Document(new String(gunit.getContents())));
+        if (edit == null) {
+            return null;
+        }
+        return new TextEditFix(edit, gunit, "Perform Groovy save actions.");
+    }
+
+    /**
+     * @return an edit that takes the document to the result of all the steps,
+     *         touching only the text that changed, or {@code null} if the steps
+     *         change nothing
+     */
+    @Override
+    protected TextEdit createEdit(GroovyCompilationUnit unit, IDocument document) throws CoreException {
+        String original = document.get();
+        IDocument working = new Document(original);
+        for (AbstractGroovyCleanUp step : steps) {
+            TextEdit edit = step.createEdit(unit, working);
+            if (edit != null) {
+                try {
+                    edit.apply(working, TextEdit.NONE);
+                } catch (MalformedTreeException e) {
+                    GroovyCore.logWarning("Skipping save action: " + step.getClass().getSimpleName(), e);
+                } catch (BadLocationException e) {
+                    GroovyCore.logWarning("Skipping save action: " + step.getClass().getSimpleName(), e);
+                }
+            }
+        }
+        return createMinimalEdit(original, working.get());
+    }
+
+    /** edit scripts longer than this many lines are not worked out */
+    private static final int MAX_LINE_CHANGES = 1000;
+
+    /**
+     * @return an edit made of one replacement for each run of changed lines
+     *         (narrowed to the characters that differ) or {@code null} if the
+     *         strings are equal; text that does not change is not replaced, so
+     *         markers, breakpoints, folding and the caret stay where they are
+     */
+    static TextEdit createMinimalEdit(String before, String after) {
+        if (before.equals(after)) {
+            return null;
+        }
+        int[] a = lineOffsets(before), b = lineOffsets(after);
+        boolean[][] changed = diffLines(before, a, after, b);
+        if (changed == null) {
+            return createReplaceEdit(before, 0, before.length(), after, 0, after.length());
+        }
+        boolean[] deleted = changed[0], inserted = changed[1];
+        int n = a.length - 1, m = b.length - 1;
+
+        MultiTextEdit edit = new MultiTextEdit();
+        int i = 0, j = 0;
+        while (i < n || j < m) {
+            if (i < n && j < m && !deleted[i] && !inserted[j]) {
+                i += 1;
+                j += 1;
+                continue;
+            }
+            int i0 = i, j0 = j;
+            while (i < n && deleted[i]) {
+                i += 1;
+            }
+            while (j < m && inserted[j]) {
+                j += 1;
+            }
+            ReplaceEdit replace = createReplaceEdit(before, a[i0], a[i], after, b[j0], b[j]);
+            if (replace != null) {
+                edit.addChild(replace);
+            }
+        }
+        return (edit.hasChildren() ? edit : null);
+    }
+
+    /**
+     * @return an edit that replaces only the span between the common prefix and
+     *         the common suffix of the two regions or {@code null} if they are equal
+     */
+    private static ReplaceEdit createReplaceEdit(String before, int beforeStart, int beforeEnd, String after, int afterStart, int afterEnd) {
+        int beforeLength = beforeEnd - beforeStart, afterLength = afterEnd - afterStart;
+        int prefix = 0, limit = Math.min(beforeLength, afterLength);
+        while (prefix < limit && before.charAt(beforeStart + prefix) == after.charAt(afterStart + prefix)) {
+            prefix += 1;
+        }
+        if (prefix == beforeLength && prefix == afterLength) {
+            return null;
+        }
+        int suffix = 0;
+        limit -= prefix;
+        while (suffix < limit && before.charAt(beforeEnd - suffix - 1) == after.charAt(afterEnd - suffix - 1)) {
+            suffix += 1;
+        }
+        return new ReplaceEdit(beforeStart + prefix, beforeLength - prefix - suffix,
+            after.substring(afterStart + prefix, afterEnd - suffix));
+    }
+
+    /**
+     * @return the offsets of the starts of the lines, followed by the length
+     */
+    private static int[] lineOffsets(String text) {
+        List<Integer> offsets = new ArrayList<Integer>();
+        offsets.add(0);
+        for (int i = 0, n = text.length(); i < n; i += 1) {
+            char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == n || text.charAt(i + 1) != '\n'))) {
+                if (i + 1 < n) {
+                    offsets.add(i + 1);
+                }
+            }
+        }
+        int[] result = new int[offsets.size() + 1];
+        for (int i = 0; i < offsets.size(); i += 1) {
+            result[i] = offsets.get(i);
+        }
+        result[offsets.size()] = text.length();
+        return result;
+    }
+
+    private static boolean lineEquals(String a, int[] aLines, int i, String b, int[] bLines, int j) {
+        int length = aLines[i + 1] - aLines[i];
+        return length == bLines[j + 1] - bLines[j] && a.regionMatches(aLines[i], b, bLines[j], length);
+    }
+
+    /**
+     * Finds a shortest edit script between the lines of the two texts, using
+     * Myers' algorithm.
+     *
+     * @return the deleted lines of the first and the inserted lines of the
+     *         second text or {@code null} if more than {@link #MAX_LINE_CHANGES}
+     *         lines are deleted or inserted
+     */
+    private static boolean[][] diffLines(String a, int[] aLines, String b, int[] bLines) {
+        int n = aLines.length - 1, m = bLines.length - 1, max = Math.min(n + m, MAX_LINE_CHANGES);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<int[]>();
+        for (int d = 0; d <= max; d += 1) {
+            // keep the furthest points of the previous round, for backtracking
+            int[] snapshot = new int[2 * d + 1];
+            System.arraycopy(v, offset - d, snapshot, 0, snapshot.length);
+            trace.add(snapshot);
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && lineEquals(a, aLines, x, b, bLines, y)) {
+                    x += 1;
+                    y += 1;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, n, m);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean[][] backtrack(List<int[]> trace, int n, int m) {
+        boolean[] deleted = new boolean[n], inserted = new boolean[m];
+        int x = n, y = m;
+        for (int d = trace.size() - 1; d > 0; d -= 1) {
+            int[] v = trace.get(d); // v[i] is for diagonal i - d
+            int k = x - y, prevK;
+            if (k == -d || (k != d && v[k - 1 + d] < v[k + 1 + d])) {
+                prevK = k + 1;
+            } else {
+                prevK = k - 1;
+            }
+            int prevX = v[prevK + d], prevY = prevX - prevK;
+            if (prevK == k + 1) {
+                inserted[prevY] = true;
+            } else {
+                deleted[prevX] = true;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        return new boolean[][] {deleted, inserted};
+    }
+}
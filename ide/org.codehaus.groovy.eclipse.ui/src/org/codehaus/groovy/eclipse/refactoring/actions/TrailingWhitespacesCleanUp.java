@@ -40,15 +40,17 @@ public class TrailingWhitespacesCleanUp extends AbstractGroovyCleanUp {
         }
 
         GroovyCompilationUnit gunit = (GroovyCompilationUnit) unit;
-        char[] contents = gunit.getContents();
-        ITextSelection selection = new TextSelection(0, contents.length);
-        IDocument document = new Document(new String(contents));
-        GroovyFormatter formatter = new WhitespaceRemover(selection, document);
-
-        TextEdit edit = formatter.format();
+        TextEdit edit = createEdit(gunit, new Document(new String(gunit.getContents())));
         return new TextEditFix(edit, gunit, "Remove trailing whitespaces.");
     }
 
+    @Override
+    protected TextEdit createEdit(GroovyCompilationUnit unit, IDocument document) {
+        ITextSelection selection = new TextSelection(0, document.getLength());
+        GroovyFormatter formatter = new WhitespaceRemover(selection, document);
+        return formatter.format();
+    }
+
     @Override
     public String[] getStepDescriptions() {
         return new String[] { "Remove trailing whitespaces." };
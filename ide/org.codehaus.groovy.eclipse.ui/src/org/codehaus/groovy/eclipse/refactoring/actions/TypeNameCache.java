@@ -0,0 +1,224 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.refactoring.actions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+/**
+ * Candidate types by simple name for each Java project, as found by searching
+ * the index for all type names.  Shared by Organize Imports and the missing
+ * import quick fix so that a name is looked up once for all the units of a
+ * project rather than once per unit.
+ * <p>
+ * Java element deltas keep the cache current: names declared in or resolved
+ * to an added, changed, removed or reconciled compilation unit are dropped,
+ * and any other change that may add or remove types (package fragment roots,
+ * classpaths, projects) drops everything.
+ */
+public final class TypeNameCache implements IElementChangedListener {
+
+    private static final int MAX_NAMES_PER_PROJECT = 4096;
+
+    private static TypeNameCache instance;
+
+    static synchronized TypeNameCache getInstance() {
+        if (instance == null) {
+            instance = new TypeNameCache();
+            JavaCore.addElementChangedListener(instance, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+        }
+        return instance;
+    }
+
+    /**
+     * Stops listening for Java element changes and drops the cache.
+     */
+    public static synchronized void dispose() {
+        if (instance != null) {
+            JavaCore.removeElementChangedListener(instance);
+            instance = null;
+        }
+    }
+
+    private final Map<IJavaProject, Map<String, List<TypeNameMatch>>> cache =
+        new HashMap<IJavaProject, Map<String, List<TypeNameMatch>>>();
+
+    /** incremented whenever entries are dropped, so that searches that overlap a change are not cached */
+    private int generation;
+
+    private TypeNameCache() {
+    }
+
+    /**
+     * @return the candidate types for the simple name (possibly empty) or
+     *         {@code null} if the name has not been looked up
+     */
+    synchronized List<TypeNameMatch> get(IJavaProject project, String simpleName) {
+        Map<String, List<TypeNameMatch>> names = cache.get(project);
+        return (names != null ? names.get(simpleName) : null);
+    }
+
+    synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Records the result of one search for the given simple names, unless the
+     * cache has changed since the search began.
+     */
+    synchronized void put(IJavaProject project, Collection<String> simpleNames, List<TypeNameMatch> found, int searchGeneration) {
+        if (searchGeneration != generation) {
+            return;
+        }
+        Map<String, List<TypeNameMatch>> names = cache.get(project);
+        if (names == null) {
+            names = new LinkedHashMap<String, List<TypeNameMatch>>(64, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<TypeNameMatch>> eldest) {
+                    return size() > MAX_NAMES_PER_PROJECT;
+                }
+            };
+            cache.put(project, names);
+        }
+        Map<String, List<TypeNameMatch>> matches = new HashMap<String, List<TypeNameMatch>>();
+        for (String simpleName : simpleNames) {
+            matches.put(simpleName, new ArrayList<TypeNameMatch>(2));
+        }
+        for (TypeNameMatch match : found) {
+            List<TypeNameMatch> list = matches.get(match.getSimpleTypeName());
+            if (list != null) {
+                list.add(match);
+            }
+        }
+        for (Map.Entry<String, List<TypeNameMatch>> entry : matches.entrySet()) {
+            names.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+    }
+
+    synchronized void clear() {
+        generation += 1;
+        cache.clear();
+    }
+
+    //--------------------------------------------------------------------------
+
+    public void elementChanged(ElementChangedEvent event) {
+        Set<String> declaredNames = new HashSet<String>();
+        Set<IJavaElement> changedUnits = new HashSet<IJavaElement>();
+        if (!visit(event.getDelta(), declaredNames, changedUnits)) {
+            clear();
+        } else if (!changedUnits.isEmpty()) {
+            forget(declaredNames, changedUnits);
+        }
+    }
+
+    /**
+     * Collects the compilation units added, changed or removed in the delta
+     * and the names of the types they now declare.
+     *
+     * @return {@code false} if the delta contains changes that may affect
+     *         types outside of the collected units
+     */
+    private boolean visit(IJavaElementDelta delta, Set<String> declaredNames, Set<IJavaElement> changedUnits) {
+        IJavaElement element = delta.getElement();
+        int kind = delta.getKind(), flags = delta.getFlags();
+        switch (element.getElementType()) {
+        case IJavaElement.JAVA_MODEL:
+            break;
+        case IJavaElement.JAVA_PROJECT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED |
+                    IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+                return false;
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED |
+                    IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+                return false;
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT:
+            if (kind != IJavaElementDelta.CHANGED) {
+                return false;
+            }
+            break;
+        case IJavaElement.COMPILATION_UNIT:
+            if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) != 0) {
+                changedUnits.add(element);
+                if (kind != IJavaElementDelta.REMOVED) {
+                    try {
+                        collectTypeNames(((ICompilationUnit) element).getTypes(), declaredNames);
+                    } catch (JavaModelException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        case IJavaElement.CLASS_FILE:
+            return (kind == IJavaElementDelta.CHANGED);
+        default:
+            return true;
+        }
+        for (IJavaElementDelta child : delta.getAffectedChildren()) {
+            if (!visit(child, declaredNames, changedUnits)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collectTypeNames(IType[] types, Set<String> names) throws JavaModelException {
+        for (IType type : types) {
+            names.add(type.getElementName());
+            collectTypeNames(type.getTypes(), names);
+        }
+    }
+
+    private synchronized void forget(Set<String> declaredNames, Set<IJavaElement> changedUnits) {
+        generation += 1;
+        for (Map<String, List<TypeNameMatch>> names : cache.values()) {
+            names.keySet().removeAll(declaredNames);
+            for (Iterator<List<TypeNameMatch>> it = names.values().iterator(); it.hasNext();) {
+                for (TypeNameMatch match : it.next()) {
+                    if (changedUnits.contains(match.getType().getCompilationUnit())) {
+                        it.remove();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -26,12 +26,14 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.internal.core.JavaModelManager;
 import org.eclipse.jdt.internal.corext.util.TypeNameMatchCollector;
 
 public class TypeSearch {
@@ -66,23 +68,50 @@ public class TypeSearch {
     }
 
     /**
-     * Use a SearchEngine to look for the types.
+     * Use a SearchEngine to look for the types.  Names looked up before for the
+     * same project are answered from {@link TypeNameCache}; the rest are found
+     * by a single search.
      * <p>
      * NOTE: This will not find inner types.
      *
      * @see OrganizeImportsOperation.TypeReferenceProcessor#process(org.eclipse.core.runtime.IProgressMonitor)
      */
     public void searchForTypes(GroovyCompilationUnit unit, Map<String, UnresolvedTypeData> missingTypes, IProgressMonitor monitor) throws JavaModelException, OperationCanceledException {
-        char[][] allTypes = new char[missingTypes.size()][];
-        int i = 0;
+        IJavaProject project = unit.getJavaProject();
+        TypeNameCache cache = TypeNameCache.getInstance();
+
+        final List<TypeNameMatch> typesFound = new ArrayList<TypeNameMatch>();
+        List<String> uncachedTypes = new ArrayList<String>(missingTypes.size());
         for (String simpleName : missingTypes.keySet()) {
-            allTypes[i++] = simpleName.toCharArray();
+            List<TypeNameMatch> cached = cache.get(project, simpleName);
+            if (cached != null) {
+                typesFound.addAll(cached);
+            } else {
+                uncachedTypes.add(simpleName);
+            }
+        }
+
+        if (!uncachedTypes.isEmpty()) {
+            char[][] allTypes = new char[uncachedTypes.size()][];
+            int i = 0;
+            for (String simpleName : uncachedTypes) {
+                allTypes[i++] = simpleName.toCharArray();
+            }
+            int generation = cache.getGeneration();
+            // results are complete only if the indexes are up to date
+            boolean complete = (JavaModelManager.getIndexManager().awaitingJobsCount() == 0);
+
+            List<TypeNameMatch> uncachedFound = new ArrayList<TypeNameMatch>();
+            TypeNameMatchCollector collector = new TypeNameMatchCollector(uncachedFound);
+            IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] {project});
+            int policy = (monitor == null ? IJavaSearchConstants.CANCEL_IF_NOT_READY_TO_SEARCH : IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH);
+            new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, policy, monitor);
+
+            if (complete) {
+                cache.put(project, uncachedTypes, uncachedFound, generation);
+            }
+            typesFound.addAll(uncachedFound);
         }
-        final List<TypeNameMatch> typesFound = new ArrayList<TypeNameMatch>();
-        TypeNameMatchCollector collector = new TypeNameMatchCollector(typesFound);
-        IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] {unit.getJavaProject()});
-        int policy = (monitor == null ? IJavaSearchConstants.CANCEL_IF_NOT_READY_TO_SEARCH : IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH);
-        new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, policy, monitor);
 
         for (TypeNameMatch match : typesFound) {
             UnresolvedTypeData data = missingTypes.get(match.getSimpleTypeName());
@@ -40,15 +40,17 @@ public class UnnecessarySemicolonsCleanUp extends AbstractGroovyCleanUp {
         }
 
         GroovyCompilationUnit gunit = (GroovyCompilationUnit) unit;
-        char[] contents = gunit.getContents();
-        ITextSelection selection = new TextSelection(0, contents.length);
-        IDocument document = new Document(new String(contents));
-        GroovyFormatter formatter = new SemicolonRemover(selection, document);
-
-        TextEdit edit = formatter.format();
+        TextEdit edit = createEdit(gunit, new Document(new String(gunit.getContents())));
         return new TextEditFix(edit, gunit, "Remove unnecessary semicolons.");
     }
 
+    @Override
+    protected TextEdit createEdit(GroovyCompilationUnit unit, IDocument document) {
+        ITextSelection selection = new TextSelection(0, document.getLength());
+        GroovyFormatter formatter = new SemicolonRemover(selection, document);
+        return formatter.format();
+    }
+
     @Override
     public String[] getStepDescriptions() {
         return new String[] { "Remove unnecessary semicolons." };
@@ -21,6 +21,9 @@ import java.util.Date;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.IGroovyLogger;
 import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.eclipse.TraceMetrics;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.widgets.Composite;
@@ -45,6 +48,8 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
 
     private CloseConsoleAction fCloseConsoleAction;
 
+    private IAction fMetricsAction;
+
     public GroovyConsolePage(TextConsole console, IConsoleView view) {
         super(console, view);
     }
@@ -114,6 +119,7 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
             fScrollLockAction = null;
         }
         fCloseConsoleAction = null;
+        fMetricsAction = null;
         GroovyLogManager.manager.removeLogger(this);
     }
 
@@ -129,6 +135,7 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
         super.createActions();
         fScrollLockAction = new ScrollLockAction(getConsoleView());
         fCloseConsoleAction = new CloseConsoleAction(getConsole());
+        fMetricsAction = new MetricsAction();
         setAutoScroll(!fScrollLockAction.isChecked());
     }
 
@@ -143,6 +150,34 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
     protected void configureToolBar(IToolBarManager mgr) {
         super.configureToolBar(mgr);
         mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fScrollLockAction);
+        mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fMetricsAction);
         mgr.appendToGroup(IConsoleConstants.LAUNCH_GROUP, fCloseConsoleAction);
     }
+
+    /**
+     * Starts recording of performance metrics when checked; prints the metrics
+     * recorded so far as JSON, and the AST transform profile as a table, and
+     * stops recording when unchecked.
+     */
+    private class MetricsAction extends Action {
+        MetricsAction() {
+            super("Record Performance Metrics", IAction.AS_CHECK_BOX);
+            setToolTipText("Record performance metrics; uncheck to print them");
+            setChecked(GroovyLogManager.manager.getMetrics().isEnabled());
+        }
+
+        @Override
+        public void run() {
+            TraceMetrics metrics = GroovyLogManager.manager.getMetrics();
+            if (isChecked()) {
+                metrics.reset();
+                metrics.setEnabled(true);
+            } else {
+                metrics.setEnabled(false);
+                log(TraceCategory.DEFAULT, "Performance metrics: " + metrics.toJSON());
+                log(TraceCategory.AST_TRANSFORM, "AST transform profile:\n" + GroovyLogManager.manager.getTransformProfiler().toReport());
+                GroovyLogManager.manager.getTransformProfiler().reset();
+            }
+        }
+    }
 }